@@ -1,6 +1,8 @@
 package com.example.demo;
 
+import com.example.demo.service.DirectoryChangedEvent;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -11,7 +13,8 @@ public class ApproveImportedEntries {
 
     @Bean
     @Order(2) // Run after DatabaseMigration
-    public CommandLineRunner approveExistingImports(JdbcTemplate jdbcTemplate) {
+    public CommandLineRunner approveExistingImports(JdbcTemplate jdbcTemplate,
+                                                    ApplicationEventPublisher eventPublisher) {
         return args -> {
             try {
                 System.out.println("Approving existing imported directory entries...");
@@ -21,6 +24,10 @@ public class ApproveImportedEntries {
                         "UPDATE directory_entries SET approved = false " +
                                 "WHERE source IN ('BAR_COUNCIL', 'NGO_DARPAN')");
 
+                if (updated > 0) {
+                    eventPublisher.publishEvent(DirectoryChangedEvent.bulk());
+                }
+
                 System.out.println("✓ Approved " + updated + " imported directory entries!");
 
             } catch (Exception e) {
@@ -1,11 +1,15 @@
 package com.example.demo;
 
+import com.example.demo.util.GeoHash;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class DatabaseMigration {
 
@@ -31,6 +35,30 @@ public class DatabaseMigration {
                         "CREATE INDEX IF NOT EXISTS idx_directory_entries_approved " +
                                 "ON directory_entries(approved)");
 
+                // Public directory search: equality filters first, id last for keyset paging
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_directory_entries_search " +
+                                "ON directory_entries(approved, type, state, district, specialization, id)");
+                // name queries are served by the text search indexes below; this one only cost writes
+                jdbcTemplate.execute("DROP INDEX IF EXISTS idx_directory_entries_lower_name");
+
+                // Case-insensitive Bar Council ID lookups used by BarCouncilImportService
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_lawyers_bar_council_id_upper " +
+                                "ON lawyers(upper(bar_council_id))");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_directory_entries_bar_council_id_upper " +
+                                "ON directory_entries(upper(bar_council_id)) WHERE type = 'LAWYER'");
+
+                // NGO Darpan imports skip rows whose content hash is unchanged, and look up
+                // registration numbers an NGO registered itself
+                jdbcTemplate.execute(
+                        "ALTER TABLE directory_entries " +
+                                "ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64)");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_directory_entries_type_registration_number " +
+                                "ON directory_entries(type, registration_number)");
+
                 // Update existing entries to ensure approved is not null
                 jdbcTemplate.execute(
                         "UPDATE directory_entries SET approved = false WHERE approved IS NULL");
@@ -41,6 +69,398 @@ public class DatabaseMigration {
                 System.err.println("Migration failed: " + e.getMessage());
                 // Don't throw exception - let app continue if columns already exist
             }
+
+            // One-time: NGO Darpan imports upsert on (type, registration_number), which
+            // needs a unique key. Copies left by the earlier non-idempotent import are
+            // removed first, keeping the approved copy (or else the oldest); once the
+            // index exists this block does nothing.
+            try {
+                Boolean keyExists = jdbcTemplate.queryForObject(
+                        "SELECT to_regclass('idx_directory_entries_ngo_darpan_key') IS NOT NULL", Boolean.class);
+                if (!Boolean.TRUE.equals(keyExists)) {
+                    System.out.println("Running database migration: NGO Darpan upsert key...");
+
+                    int removed = jdbcTemplate.update(
+                            "DELETE FROM directory_entries d USING directory_entries k " +
+                                    "WHERE d.source = 'NGO_DARPAN' AND k.source = 'NGO_DARPAN' " +
+                                    "AND d.type = k.type AND d.registration_number = k.registration_number " +
+                                    "AND (k.approved > d.approved OR (k.approved = d.approved AND k.id < d.id))");
+                    if (removed > 0) {
+                        System.out.println("Removed " + removed + " duplicate NGO Darpan directory entries");
+                    }
+                    jdbcTemplate.execute(
+                            "CREATE UNIQUE INDEX idx_directory_entries_ngo_darpan_key " +
+                                    "ON directory_entries(type, registration_number) WHERE source = 'NGO_DARPAN'");
+
+                    System.out.println("✓ NGO Darpan upsert key migration completed successfully!");
+                }
+
+            } catch (Exception e) {
+                System.err.println("NGO Darpan upsert key migration failed: " + e.getMessage());
+            }
+
+            // Text search needs pg_trgm; kept separate so a missing extension
+            // privilege does not block the migrations above
+            try {
+                System.out.println("Running database migration: Directory text search...");
+
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+
+                // name ranks above specialization above city
+                jdbcTemplate.execute(
+                        "ALTER TABLE directory_entries ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+                                "GENERATED ALWAYS AS (" +
+                                "setweight(to_tsvector('simple', coalesce(name, '')), 'A') || " +
+                                "setweight(to_tsvector('simple', coalesce(specialization, '')), 'B') || " +
+                                "setweight(to_tsvector('simple', coalesce(city, '')), 'C')" +
+                                ") STORED");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_directory_entries_search_vector " +
+                                "ON directory_entries USING GIN (search_vector)");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_directory_entries_name_trgm " +
+                                "ON directory_entries USING GIN (name gin_trgm_ops)");
+
+                System.out.println("✓ Directory text search migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Text search migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Directory geohash index...");
+
+                jdbcTemplate.execute(
+                        "ALTER TABLE directory_entries ADD COLUMN IF NOT EXISTS geohash VARCHAR(12)");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_directory_entries_geohash " +
+                                "ON directory_entries(geohash text_pattern_ops) " +
+                                "WHERE approved = true AND geohash IS NOT NULL");
+
+                // Backfill rows written before the column existed; new rows get it from the entity
+                List<Object[]> backfill = new ArrayList<>();
+                jdbcTemplate.query(
+                        "SELECT id, latitude, longitude FROM directory_entries " +
+                                "WHERE geohash IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL",
+                        rs -> {
+                            backfill.add(new Object[] {
+                                    GeoHash.encode(rs.getDouble("latitude"), rs.getDouble("longitude"),
+                                            GeoHash.MAX_PRECISION),
+                                    rs.getInt("id") });
+                        });
+                if (!backfill.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE directory_entries SET geohash = ? WHERE id = ?", backfill);
+                    System.out.println("Backfilled geohash for " + backfill.size() + " directory entries");
+                }
+
+                System.out.println("✓ Directory geohash migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Geohash migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Geocode cache table...");
+
+                // Second-level geocoding cache, shared across restarts (see GeocodingService)
+                jdbcTemplate.execute(
+                        "CREATE TABLE IF NOT EXISTS geocode_cache (" +
+                                "address_key TEXT PRIMARY KEY, " +
+                                "found BOOLEAN NOT NULL, " +
+                                "latitude VARCHAR(32), " +
+                                "longitude VARCHAR(32), " +
+                                "provider VARCHAR(32), " +
+                                "expires_at TIMESTAMP NOT NULL, " +
+                                "created_at TIMESTAMP NOT NULL DEFAULT now())");
+                jdbcTemplate.execute("DELETE FROM geocode_cache WHERE expires_at < now()");
+
+                System.out.println("✓ Geocode cache migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Geocode cache migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: User identity index...");
+
+                // One row per (user type, identifier kind, normalised value); see UserIdentityService
+                jdbcTemplate.execute(
+                        "CREATE TABLE IF NOT EXISTS user_identities (" +
+                                "user_type VARCHAR(16) NOT NULL, " +
+                                "kind VARCHAR(32) NOT NULL, " +
+                                "value VARCHAR(255) NOT NULL, " +
+                                "user_id INTEGER NOT NULL, " +
+                                "PRIMARY KEY (user_type, kind, value))");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_user_identities_user " +
+                                "ON user_identities(user_type, user_id)");
+
+                // Trigger arguments: user type, then (kind, column) pairs.
+                // Rows that predate the index may share an identifier, and only
+                // one of them holds it (ON CONFLICT DO NOTHING). So an identity is
+                // only removed for the row that holds it, and only for the kinds
+                // whose value changed; if another row still has that value it
+                // becomes the holder, so uniqueness checks keep seeing the value.
+                jdbcTemplate.execute(
+                        "CREATE OR REPLACE FUNCTION sync_user_identities() RETURNS trigger AS $$ " +
+                                "DECLARE v_kind TEXT; v_column TEXT; v_old TEXT; v_new TEXT; i INT; " +
+                                "BEGIN " +
+                                "  FOR i IN 1 .. (TG_NARGS - 1) / 2 LOOP " +
+                                "    v_kind := TG_ARGV[2 * i - 1]; " +
+                                "    v_column := TG_ARGV[2 * i]; " +
+                                "    v_old := NULL; v_new := NULL; " +
+                                "    IF TG_OP IN ('UPDATE', 'DELETE') THEN " +
+                                "      v_old := nullif(lower(btrim(to_jsonb(OLD) ->> v_column)), ''); " +
+                                "    END IF; " +
+                                "    IF TG_OP IN ('INSERT', 'UPDATE') THEN " +
+                                "      v_new := nullif(lower(btrim(to_jsonb(NEW) ->> v_column)), ''); " +
+                                "    END IF; " +
+                                "    CONTINUE WHEN v_old IS NOT DISTINCT FROM v_new; " +
+                                "    IF v_old IS NOT NULL THEN " +
+                                "      DELETE FROM user_identities WHERE user_type = TG_ARGV[0] " +
+                                "        AND kind = v_kind AND value = v_old AND user_id = OLD.id; " +
+                                "      IF FOUND THEN " +
+                                "        EXECUTE format('INSERT INTO user_identities (user_type, kind, value, user_id) " +
+                                "          SELECT $1, $2, $3, id FROM %I WHERE lower(btrim(%I)) = $3 AND id <> $4 " +
+                                "          ORDER BY id LIMIT 1 ON CONFLICT DO NOTHING', TG_TABLE_NAME, v_column) " +
+                                "          USING TG_ARGV[0], v_kind, v_old, OLD.id; " +
+                                "      END IF; " +
+                                "    END IF; " +
+                                "    IF v_new IS NOT NULL THEN " +
+                                "      INSERT INTO user_identities (user_type, kind, value, user_id) " +
+                                "      VALUES (TG_ARGV[0], v_kind, v_new, NEW.id) " +
+                                "      ON CONFLICT DO NOTHING; " +
+                                "    END IF; " +
+                                "  END LOOP; " +
+                                "  IF TG_OP = 'DELETE' THEN RETURN OLD; END IF; " +
+                                "  RETURN NEW; " +
+                                "END $$ LANGUAGE plpgsql");
+
+                String[][] sources = {
+                        {"citizens", "CITIZEN", "EMAIL", "email", "AADHAAR", "aadhar_number"},
+                        {"lawyers", "LAWYER", "EMAIL", "email", "AADHAAR", "aadhar_number",
+                                "BAR_COUNCIL_ID", "bar_council_id"},
+                        {"ngos", "NGO", "EMAIL", "email", "REGISTRATION_NUMBER", "registration_number"},
+                        {"admins", "ADMIN", "EMAIL", "email", "AADHAAR", "aadhar_number"}
+                };
+
+                for (String[] source : sources) {
+                    String table = source[0];
+                    List<String> columns = new ArrayList<>();
+                    List<String> triggerArgs = new ArrayList<>();
+                    triggerArgs.add("'" + source[1] + "'");
+                    for (int i = 2; i < source.length; i += 2) {
+                        triggerArgs.add("'" + source[i] + "'");
+                        triggerArgs.add("'" + source[i + 1] + "'");
+                        columns.add(source[i + 1]);
+                    }
+
+                    jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_" + table + "_identities ON " + table);
+                    jdbcTemplate.execute(
+                            "CREATE TRIGGER trg_" + table + "_identities " +
+                                    "AFTER INSERT OR DELETE OR UPDATE OF " + String.join(", ", columns) +
+                                    " ON " + table + " FOR EACH ROW " +
+                                    "EXECUTE FUNCTION sync_user_identities(" + String.join(", ", triggerArgs) + ")");
+
+                    // Backfill, and restore identities that the earlier trigger dropped
+                    // while another row still held the value; existing holders are kept
+                    for (int i = 2; i < source.length; i += 2) {
+                        jdbcTemplate.update(
+                                "INSERT INTO user_identities (user_type, kind, value, user_id) " +
+                                        "SELECT ?, ?, lower(btrim(" + source[i + 1] + ")), id FROM " + table +
+                                        " WHERE btrim(" + source[i + 1] + ") <> '' " +
+                                        "ON CONFLICT DO NOTHING",
+                                source[1], source[i]);
+                    }
+                }
+
+                System.out.println("✓ User identity index migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("User identity index migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Revoked tokens table...");
+
+                // JWT ids revoked before expiry; see TokenRevocationService
+                jdbcTemplate.execute(
+                        "CREATE TABLE IF NOT EXISTS revoked_tokens (" +
+                                "jti VARCHAR(64) PRIMARY KEY, " +
+                                "expires_at TIMESTAMP NOT NULL, " +
+                                "revoked_at TIMESTAMP NOT NULL DEFAULT now())");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at)");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens(expires_at)");
+
+                System.out.println("✓ Revoked tokens migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Revoked tokens migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Case version column...");
+
+                // Case is @Version'ed; Hibernate adds the column as nullable, and a null version never matches an update
+                jdbcTemplate.execute("ALTER TABLE citizen_cases ADD COLUMN IF NOT EXISTS version BIGINT");
+                jdbcTemplate.execute("UPDATE citizen_cases SET version = 0 WHERE version IS NULL");
+                jdbcTemplate.execute("ALTER TABLE citizen_cases ALTER COLUMN version SET DEFAULT 0");
+                jdbcTemplate.execute("ALTER TABLE citizen_cases ALTER COLUMN version SET NOT NULL");
+
+                System.out.println("✓ Case version migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Case version migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Case listing indexes...");
+
+                // keyset pagination orders by (updated_at, id), so it must never be null
+                jdbcTemplate.execute(
+                        "UPDATE citizen_cases SET updated_at = COALESCE(created_at, now()) WHERE updated_at IS NULL");
+
+                // my-cases pages and the latest-draft lookup are index range scans in this order
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_citizen_cases_citizen_updated " +
+                                "ON citizen_cases(citizen_id, updated_at DESC, id DESC)");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_citizen_cases_citizen_submitted " +
+                                "ON citizen_cases(citizen_id, is_submitted, updated_at DESC, id DESC)");
+
+                System.out.println("✓ Case listing indexes migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Case listing indexes migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Case assignment indexes...");
+
+                // the batch matcher's backlog scan (see CaseBatchMatcher)
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_citizen_cases_unassigned " +
+                                "ON citizen_cases(id) WHERE is_submitted = true AND assigned_at IS NULL");
+                // per-provider open case counts (see ProviderIndex)
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_citizen_cases_assigned_lawyer " +
+                                "ON citizen_cases(assigned_lawyer_id) WHERE assigned_lawyer_id IS NOT NULL");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_citizen_cases_assigned_ngo " +
+                                "ON citizen_cases(assigned_ngo_id) WHERE assigned_ngo_id IS NOT NULL");
+
+                System.out.println("✓ Case assignment indexes migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Case assignment indexes migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Case documents table...");
+
+                // one row per attached file (see CaseDocument); replaces the comma-joined documents_url
+                jdbcTemplate.execute(
+                        "CREATE TABLE IF NOT EXISTS case_documents (" +
+                                "id BIGSERIAL PRIMARY KEY, " +
+                                "case_id BIGINT NOT NULL, " +
+                                "url TEXT NOT NULL, " +
+                                "storage_key VARCHAR(512), " +
+                                "filename VARCHAR(255), " +
+                                "content_type VARCHAR(100), " +
+                                "size_bytes BIGINT, " +
+                                "checksum VARCHAR(64), " +
+                                "uploaded_at TIMESTAMP NOT NULL DEFAULT now())");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_case_documents_case ON case_documents(case_id, id)");
+
+                boolean legacyColumn = jdbcTemplate.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM information_schema.columns " +
+                                "WHERE table_name = 'citizen_cases' AND column_name = 'documents_url')",
+                        Boolean.class);
+                if (legacyColumn) {
+                    // move and clear in one statement, so a crash can neither lose nor duplicate URLs
+                    int moved = jdbcTemplate.update(
+                            "WITH src AS (" +
+                                    "SELECT id, documents_url, COALESCE(updated_at, created_at, now()) AS at " +
+                                    "FROM citizen_cases WHERE documents_url IS NOT NULL FOR UPDATE), " +
+                                    "ins AS (" +
+                                    "INSERT INTO case_documents (case_id, url, uploaded_at) " +
+                                    "SELECT src.id, btrim(u.url), src.at " +
+                                    "FROM src, unnest(string_to_array(src.documents_url, ',')) WITH ORDINALITY AS u(url, n) " +
+                                    "WHERE btrim(u.url) <> '' ORDER BY src.id, u.n) " +
+                                    "UPDATE citizen_cases c SET documents_url = NULL FROM src WHERE c.id = src.id");
+                    if (moved > 0) {
+                        System.out.println("  moved documents of " + moved + " cases into case_documents");
+                    }
+                }
+
+                System.out.println("✓ Case documents migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Case documents migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Stored assets table...");
+
+                // content-addressed upload dedup (see StoredAssetService)
+                jdbcTemplate.execute(
+                        "CREATE TABLE IF NOT EXISTS stored_assets (" +
+                                "sha256 VARCHAR(64) PRIMARY KEY, " +
+                                "url TEXT NOT NULL, " +
+                                "storage_key VARCHAR(512), " +
+                                "content_type VARCHAR(100), " +
+                                "size_bytes BIGINT NOT NULL, " +
+                                "created_at TIMESTAMP NOT NULL DEFAULT now())");
+                // case documents uploaded since checksums were recorded are already known content
+                jdbcTemplate.update(
+                        "INSERT INTO stored_assets (sha256, url, storage_key, content_type, size_bytes, created_at) " +
+                                "SELECT DISTINCT ON (checksum) checksum, url, storage_key, content_type, size_bytes, uploaded_at " +
+                                "FROM case_documents WHERE checksum IS NOT NULL AND size_bytes IS NOT NULL " +
+                                "ORDER BY checksum, id " +
+                                "ON CONFLICT (sha256) DO NOTHING");
+
+                System.out.println("✓ Stored assets migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Stored assets migration failed: " + e.getMessage());
+            }
+
+            try {
+                System.out.println("Running database migration: Asset deletions outbox...");
+
+                // files waiting to be removed from the blob store (see AssetCleanupService)
+                jdbcTemplate.execute(
+                        "CREATE TABLE IF NOT EXISTS asset_deletions (" +
+                                "id BIGSERIAL PRIMARY KEY, " +
+                                "url TEXT NOT NULL, " +
+                                "storage_key VARCHAR(512), " +
+                                "content_type VARCHAR(100), " +
+                                "reason VARCHAR(64), " +
+                                "attempts INT NOT NULL DEFAULT 0, " +
+                                "next_attempt_at TIMESTAMP NOT NULL DEFAULT now(), " +
+                                "last_error TEXT, " +
+                                "created_at TIMESTAMP NOT NULL DEFAULT now())");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_asset_deletions_due ON asset_deletions (next_attempt_at)");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_asset_deletions_url ON asset_deletions (url)");
+                // the reference checks look files up by URL
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_case_documents_url ON case_documents (url)");
+                jdbcTemplate.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_stored_assets_url ON stored_assets (url)");
+                // a dedup hit stamps this so cleanup leaves a just-reused asset alone
+                jdbcTemplate.execute(
+                        "ALTER TABLE stored_assets ADD COLUMN IF NOT EXISTS last_used_at TIMESTAMP");
+
+                System.out.println("✓ Asset deletions migration completed successfully!");
+
+            } catch (Exception e) {
+                System.err.println("Asset deletions migration failed: " + e.getMessage());
+            }
         };
     }
 }
@@ -5,8 +5,10 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class DemoApplication {
 
     public static void main(String[] args) {
@@ -16,7 +18,7 @@ public class DemoApplication {
     @Bean
     CommandLineRunner seedNgoDirectory(NGODarpanImportService ngoImportService) {
         return args -> {
-            // run only once; you can comment this line later if needed
+            // idempotent: re-runs only write rows that changed in the feed
             ngoImportService.importCSV("ngo_darpan_extended.csv");
         };
     }
@@ -6,7 +6,9 @@ import com.example.demo.entity.NGO;
 import com.example.demo.repository.DirectoryEntryRepository;
 import com.example.demo.repository.LawyerRepository;
 import com.example.demo.repository.NGORepository;
+import com.example.demo.service.DirectoryChangedEvent;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -21,7 +23,8 @@ public class SyncExistingUsersToDirectory {
     public CommandLineRunner syncUsers(
             LawyerRepository lawyerRepository,
             NGORepository ngoRepository,
-            DirectoryEntryRepository directoryEntryRepository) {
+            DirectoryEntryRepository directoryEntryRepository,
+            ApplicationEventPublisher eventPublisher) {
         return args -> {
             try {
                 System.out.println("Syncing existing lawyers and NGOs to directory...");
@@ -86,6 +89,11 @@ public class SyncExistingUsersToDirectory {
                     }
                 }
 
+                if (lawyersSynced + ngosSynced > 0) {
+                    // cached directory searches must see the new entries
+                    eventPublisher.publishEvent(DirectoryChangedEvent.bulk());
+                }
+
                 System.out.println("✓ Synced " + lawyersSynced + " lawyers and " + ngosSynced + " NGOs to directory!");
 
             } catch (Exception e) {
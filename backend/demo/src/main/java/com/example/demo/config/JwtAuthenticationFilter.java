@@ -0,0 +1,108 @@
+package com.example.demo.config;
+
+import com.example.demo.service.TokenRevocationService;
+import com.example.demo.util.JwtPrincipal;
+import com.example.demo.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Verifies the bearer token once per request and stores the resulting
+ * {@link JwtPrincipal} in the security context, where handlers pick it up
+ * with {@code @AuthenticationPrincipal}.
+ *
+ * Requests without a valid token pass through anonymously and are left to
+ * the authorization rules in SecurityConfig, so a stale token never blocks
+ * public endpoints such as login, refresh and logout. When the token was
+ * present but invalid, expired or revoked, the reason is kept as a request
+ * attribute and SecurityConfig's entry point sends it with the 401 on
+ * protected paths.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    static final String TOKEN_ERROR_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".TOKEN_ERROR";
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService revocationService;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, TokenRevocationService revocationService) {
+        this.jwtUtil = jwtUtil;
+        this.revocationService = revocationService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        JwtPrincipal principal;
+        try {
+            principal = jwtUtil.verify(header.substring(BEARER_PREFIX.length()));
+        } catch (ExpiredJwtException e) {
+            continueAnonymously(request, response, chain, "Token has expired. Please login again.");
+            return;
+        } catch (JwtException | IllegalArgumentException e) {
+            continueAnonymously(request, response, chain, "Invalid token");
+            return;
+        }
+
+        // Bloom filter lookup; the database is only hit on a positive
+        if (revocationService.isRevoked(principal.getTokenId())) {
+            continueAnonymously(request, response, chain, "Token has been revoked. Please login again.");
+            return;
+        }
+
+        List<SimpleGrantedAuthority> authorities = principal.getRole() != null
+                ? List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole().toUpperCase()))
+                : List.of();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+        SecurityContextHolder.setContext(context);
+
+        chain.doFilter(request, response);
+    }
+
+    private static void continueAnonymously(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain, String tokenError)
+            throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        request.setAttribute(TOKEN_ERROR_ATTRIBUTE, tokenError);
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 401 for a protected path reached without a valid token, naming what was
+     * wrong with the token if one was sent.
+     */
+    static void rejectUnauthenticated(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Object tokenError = request.getAttribute(TOKEN_ERROR_ATTRIBUTE);
+        reject(response, tokenError != null ? tokenError.toString() : "Authorization token required");
+    }
+
+    private static void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(message);
+    }
+}
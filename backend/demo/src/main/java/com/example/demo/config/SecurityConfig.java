@@ -1,17 +1,23 @@
 package com.example.demo.config;
 
+import com.example.demo.service.TokenRevocationService;
+import com.example.demo.util.JwtUtil;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtUtil jwtUtil,
+                                                   TokenRevocationService revocationService) throws Exception {
 
         http
                 .cors(Customizer.withDefaults())
@@ -19,8 +25,18 @@ public class SecurityConfig {
                 .sessionManagement(sm ->
                         sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
+                // Not a bean, so it only runs inside this chain and not again as a servlet filter
+                .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, revocationService), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
-                        .anyRequest().permitAll()   // allow everything for milestone demo
+                        .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // async dispatches only resume a request that was already authorized (streamed uploads)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/cases/**", "/api/profile/**").authenticated()
+                        .anyRequest().permitAll()   // public directory, auth and registration endpoints
+                )
+                .exceptionHandling(ex -> ex
+                        .authenticationEntryPoint((request, response, e) ->
+                                JwtAuthenticationFilter.rejectUnauthenticated(request, response))
                 )
                 .formLogin(form -> form.disable())
                 .httpBasic(basic -> basic.disable());
@@ -8,13 +8,22 @@ import com.example.demo.repository.CitizenRepository;
 import com.example.demo.repository.LawyerRepository;
 import com.example.demo.repository.NGORepository;
 import com.example.demo.repository.AdminRepository;
+import com.example.demo.service.PasswordService;
+import com.example.demo.service.TokenRevocationService;
+import com.example.demo.util.JwtPrincipal;
 import com.example.demo.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -26,167 +35,257 @@ public class AuthController {
     private final NGORepository ngoRepo;
     private final AdminRepository adminRepo;
     private final JwtUtil jwtUtil;
+    private final PasswordService passwordService;
+    private final TokenRevocationService revocationService;
 
     public AuthController(
             CitizenRepository citizenRepo,
             LawyerRepository lawyerRepo,
             NGORepository ngoRepo,
             AdminRepository adminRepo,
-            JwtUtil jwtUtil) {
+            JwtUtil jwtUtil,
+            PasswordService passwordService,
+            TokenRevocationService revocationService) {
         this.citizenRepo = citizenRepo;
         this.lawyerRepo = lawyerRepo;
         this.ngoRepo = ngoRepo;
         this.adminRepo = adminRepo;
         this.jwtUtil = jwtUtil;
+        this.passwordService = passwordService;
+        this.revocationService = revocationService;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> loginRequest) {
         try {
             String email = loginRequest.get("username"); // Frontend sends "username" but it's email
             String password = loginRequest.get("password");
             String role = loginRequest.get("role");
 
             if (email == null || password == null || role == null) {
-                return ResponseEntity
+                return CompletableFuture.completedFuture(ResponseEntity
                         .status(HttpStatus.BAD_REQUEST)
-                        .body("Email, password, and role are required");
+                        .body("Email, password, and role are required"));
             }
 
-            Object user = null;
-            String username = "";
-            Integer userId = null;
+            Object user;
+            String storedPassword;
 
             // Find user based on role
             switch (role.toUpperCase()) {
                 case "CITIZEN":
                     Citizen citizen = citizenRepo.findByEmail(email);
-                    if (citizen == null) {
-                        return ResponseEntity
-                                .status(HttpStatus.UNAUTHORIZED)
-                                .body("Invalid email or password");
-                    }
-                    if (!citizen.getPassword().equals(password)) {
-                        return ResponseEntity
-                                .status(HttpStatus.UNAUTHORIZED)
-                                .body("Invalid email or password");
-                    }
                     user = citizen;
-                    username = citizen.getFullName();
-                    userId = citizen.getId();
+                    storedPassword = citizen != null ? citizen.getPassword() : null;
                     break;
 
                 case "LAWYER":
                     Lawyer lawyer = lawyerRepo.findByEmail(email);
-                    if (lawyer == null) {
-                        return ResponseEntity
-                                .status(HttpStatus.UNAUTHORIZED)
-                                .body("Invalid email or password");
-                    }
-                    if (!lawyer.getPassword().equals(password)) {
-                        return ResponseEntity
-                                .status(HttpStatus.UNAUTHORIZED)
-                                .body("Invalid email or password");
-                    }
                     user = lawyer;
-                    username = lawyer.getFullName();
-                    userId = lawyer.getId();
+                    storedPassword = lawyer != null ? lawyer.getPassword() : null;
                     break;
 
                 case "NGO":
                     NGO ngo = ngoRepo.findByEmail(email);
-                    if (ngo == null) {
-                        return ResponseEntity
-                                .status(HttpStatus.UNAUTHORIZED)
-                                .body("Invalid email or password");
-                    }
-                    if (!ngo.getPassword().equals(password)) {
-                        return ResponseEntity
-                                .status(HttpStatus.UNAUTHORIZED)
-                                .body("Invalid email or password");
-                    }
                     user = ngo;
-                    username = ngo.getNgoName();
-                    userId = ngo.getId();
+                    storedPassword = ngo != null ? ngo.getPassword() : null;
                     break;
 
                 case "ADMIN":
                     Admin admin = adminRepo.findByEmail(email);
-                    if (admin == null) {
-                        return ResponseEntity
-                                .status(HttpStatus.UNAUTHORIZED)
-                                .body("Invalid email or password");
-                    }
-                    if (!admin.getPassword().equals(password)) {
-                        return ResponseEntity
-                                .status(HttpStatus.UNAUTHORIZED)
-                                .body("Invalid email or password");
-                    }
                     user = admin;
-                    username = admin.getFullName();
-                    userId = admin.getId();
+                    storedPassword = admin != null ? admin.getPassword() : null;
                     break;
 
                 default:
-                    return ResponseEntity
+                    return CompletableFuture.completedFuture(ResponseEntity
                             .status(HttpStatus.BAD_REQUEST)
-                            .body("Invalid role. Must be CITIZEN, LAWYER, NGO, or ADMIN");
+                            .body("Invalid role. Must be CITIZEN, LAWYER, NGO, or ADMIN"));
             }
 
-            // Generate JWT token
-            String token = jwtUtil.generateToken(email, role.toUpperCase(), username, userId);
-
-            // Prepare response with all user data (excluding password)
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", token);
-            response.put("email", email);
-            response.put("username", username);
-            response.put("role", role.toUpperCase());
-            response.put("userId", userId);
-            response.put("message", "Login successful");
-
-            // Add user-specific data based on role
-            Map<String, Object> userData = new HashMap<>();
-            String profilePhotoUrl = null;
-            switch (role.toUpperCase()) {
-                case "CITIZEN":
-                    if (user != null) {
-                        userData = buildCitizenData((Citizen) user);
-                        profilePhotoUrl = ((Citizen) user).getProfilePhotoUrl();
-                    }
-                    break;
-                case "LAWYER":
-                    if (user != null) {
-                        userData = buildLawyerData((Lawyer) user);
-                        // Lawyers don't have profile photos yet, but can be added later
-                    }
-                    break;
-                case "NGO":
-                    if (user != null) {
-                        userData = buildNGOData((NGO) user);
-                        // NGOs don't have profile photos yet, but can be added later
-                    }
-                    break;
-                case "ADMIN":
-                    if (user != null) {
-                        userData = buildAdminData((Admin) user);
-                    }
-                    break;
-            }
-            response.put("userData", userData);
-            // Add profilePhotoUrl at top level for easier access (for CITIZEN role)
-            // Always include it, even if null, so frontend can check it
-            if (role.toUpperCase().equals("CITIZEN")) {
-                response.put("profilePhotoUrl", profilePhotoUrl);
+            // Hash check runs on the password pool, not on this request thread.
+            // Unknown emails are checked against a dummy hash so they take just as long.
+            return passwordService.verifyAsync(password, storedPassword)
+                    .<ResponseEntity<?>>thenApply(check -> {
+                        if (user == null || !check.isMatched()) {
+                            return ResponseEntity
+                                    .status(HttpStatus.UNAUTHORIZED)
+                                    .body("Invalid email or password");
+                        }
+                        if (check.getNewHash() != null) {
+                            upgradePassword(user, check.getNewHash());
+                        }
+                        return loginResponse(user, email, role.toUpperCase());
+                    })
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof RejectedExecutionException) {
+                            return ResponseEntity
+                                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                                    .body("Too many login attempts right now. Please try again shortly.");
+                        }
+                        return ResponseEntity
+                                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                .body("Error during login: " + cause.getMessage());
+                    });
+
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error during login: " + e.getMessage()));
+        }
+    }
+
+    // POST /api/auth/refresh  { "refreshToken": "..." }
+    // Rotates the refresh token: the one presented is revoked and can't be used again
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> body) {
+        String refreshToken = body.get("refreshToken");
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("refreshToken is required");
+        }
+
+        JwtPrincipal principal;
+        try {
+            principal = jwtUtil.verifyRefresh(refreshToken);
+        } catch (ExpiredJwtException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Session has expired. Please login again.");
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
+        }
+
+        // atomic insert: of two concurrent refreshes with the same token only one wins
+        if (principal.getTokenId() == null
+                || !revocationService.revoke(principal.getTokenId(), principal.getExpiresAt())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Refresh token has been revoked");
+        }
+
+        String accessToken = jwtUtil.generateToken(
+                principal.getEmail(), principal.getRole(), principal.getUsername(), principal.getUserId());
+        String newRefreshToken = jwtUtil.generateRefreshToken(
+                principal.getEmail(), principal.getRole(), principal.getUsername(), principal.getUserId());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("accessToken", accessToken);
+        response.put("token", accessToken);
+        response.put("refreshToken", newRefreshToken);
+        return ResponseEntity.ok(response);
+    }
+
+    // POST /api/auth/logout  { "refreshToken": "..." }, plus the access token as Bearer if it is
+    // still valid. The refresh token alone is enough: an expired or revoked access token
+    // reaches here anonymously (see JwtAuthenticationFilter) and needs no revoking.
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@AuthenticationPrincipal JwtPrincipal principal,
+                                    @RequestBody(required = false) Map<String, String> body) {
+        if (principal != null && principal.getTokenId() != null) {
+            revocationService.revoke(principal.getTokenId(), principal.getExpiresAt());
+        }
+        String refreshToken = body != null ? body.get("refreshToken") : null;
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            try {
+                JwtPrincipal refresh = jwtUtil.verifyRefresh(refreshToken);
+                revocationService.revoke(refresh.getTokenId(), refresh.getExpiresAt());
+            } catch (JwtException | IllegalArgumentException e) {
+                // expired or invalid: nothing to revoke
             }
+        }
+        return ResponseEntity.ok("Logged out");
+    }
+
+    // GET /api/auth/revocation/stats
+    @GetMapping("/revocation/stats")
+    public Map<String, Object> revocationStats() {
+        return revocationService.stats();
+    }
 
-            return ResponseEntity.ok(response);
+    // GET /api/auth/password/stats
+    @GetMapping("/password/stats")
+    public Map<String, Object> passwordStats() {
+        return passwordService.stats();
+    }
 
+    // Replace a legacy plaintext password or outdated hash after a successful login
+    private void upgradePassword(Object user, String newHash) {
+        try {
+            if (user instanceof Citizen citizen) {
+                citizen.setPassword(newHash);
+                citizenRepo.save(citizen);
+            } else if (user instanceof Lawyer lawyer) {
+                lawyer.setPassword(newHash);
+                lawyerRepo.save(lawyer);
+            } else if (user instanceof NGO ngo) {
+                ngo.setPassword(newHash);
+                ngoRepo.save(ngo);
+            } else if (user instanceof Admin admin) {
+                admin.setPassword(newHash);
+                adminRepo.save(admin);
+            }
         } catch (Exception e) {
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error during login: " + e.getMessage());
+            // the login itself succeeded; the upgrade is retried on the next login
+            System.err.println("Password rehash failed: " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> loginResponse(Object user, String email, String role) {
+        String username = "";
+        Integer userId = null;
+        if (user instanceof Citizen citizen) {
+            username = citizen.getFullName();
+            userId = citizen.getId();
+        } else if (user instanceof Lawyer lawyer) {
+            username = lawyer.getFullName();
+            userId = lawyer.getId();
+        } else if (user instanceof NGO ngo) {
+            username = ngo.getNgoName();
+            userId = ngo.getId();
+        } else if (user instanceof Admin admin) {
+            username = admin.getFullName();
+            userId = admin.getId();
         }
+
+        // Generate JWT tokens: short-lived access token plus a refresh token
+        String token = jwtUtil.generateToken(email, role, username, userId);
+        String refreshToken = jwtUtil.generateRefreshToken(email, role, username, userId);
+
+        // Prepare response with all user data (excluding password)
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", token);
+        response.put("refreshToken", refreshToken);
+        response.put("email", email);
+        response.put("username", username);
+        response.put("role", role);
+        response.put("userId", userId);
+        response.put("message", "Login successful");
+
+        // Add user-specific data based on role
+        Map<String, Object> userData = new HashMap<>();
+        String profilePhotoUrl = null;
+        switch (role) {
+            case "CITIZEN":
+                userData = buildCitizenData((Citizen) user);
+                profilePhotoUrl = ((Citizen) user).getProfilePhotoUrl();
+                break;
+            case "LAWYER":
+                userData = buildLawyerData((Lawyer) user);
+                // Lawyers don't have profile photos yet, but can be added later
+                break;
+            case "NGO":
+                userData = buildNGOData((NGO) user);
+                // NGOs don't have profile photos yet, but can be added later
+                break;
+            case "ADMIN":
+                userData = buildAdminData((Admin) user);
+                break;
+        }
+        response.put("userData", userData);
+        // Add profilePhotoUrl at top level for easier access (for CITIZEN role)
+        // Always include it, even if null, so frontend can check it
+        if (role.equals("CITIZEN")) {
+            response.put("profilePhotoUrl", profilePhotoUrl);
+        }
+
+        return ResponseEntity.ok(response);
     }
 
     // Helper method to build Citizen data (excluding password)
@@ -203,6 +302,7 @@ public class AuthController {
         data.put("city", citizen.getCity());
         data.put("address", citizen.getAddress());
         data.put("profilePhotoUrl", citizen.getProfilePhotoUrl());
+        data.put("profilePhotoThumbnailUrl", citizen.getProfilePhotoThumbnailUrl());
         return data;
     }
 
@@ -274,6 +374,7 @@ public class AuthController {
         data.put("city", admin.getCity());
         data.put("address", admin.getAddress());
         data.put("profilePhotoUrl", admin.getProfilePhotoUrl());
+        data.put("profilePhotoThumbnailUrl", admin.getProfilePhotoThumbnailUrl());
         data.put("createdAt", admin.getCreatedAt() != null ? admin.getCreatedAt().toString() : null);
         data.put("updatedAt", admin.getUpdatedAt() != null ? admin.getUpdatedAt().toString() : null);
         return data;
@@ -2,69 +2,66 @@ package com.example.demo.controller;
 
 import com.example.demo.entity.Case;
 import com.example.demo.repository.CaseRepository;
-import com.example.demo.service.CloudinaryService;
-import com.example.demo.util.JwtUtil;
+import com.example.demo.service.CaseBatchMatcher;
+import com.example.demo.service.CaseDraftService;
+import com.example.demo.service.CaseListService;
+import com.example.demo.service.CaseMatchingService;
+import com.example.demo.service.CaseSummary;
+import com.example.demo.service.CursorPage;
+import com.example.demo.service.DocumentUploadResult;
+import com.example.demo.service.CaseDocumentService;
+import com.example.demo.util.JwtPrincipal;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api/cases")
 @CrossOrigin(
         origins = "http://localhost:5173",
-        methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS}
+        methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE, RequestMethod.OPTIONS}
 )
 public class CaseController {
 
     private final CaseRepository caseRepository;
-    private final JwtUtil jwtUtil;
-    private final CloudinaryService cloudinaryService;
-
-    private static final long MAX_FILE_SIZE = 2 * 1024 * 1024; // 2MB
-
-    public CaseController(CaseRepository caseRepository, JwtUtil jwtUtil, CloudinaryService cloudinaryService) {
+    private final CaseDocumentService caseDocumentService;
+    private final CaseDraftService caseDraftService;
+    private final CaseListService caseListService;
+    private final CaseMatchingService caseMatchingService;
+    private final CaseBatchMatcher caseBatchMatcher;
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final long UPLOAD_STREAM_TIMEOUT_MS = 5 * 60 * 1000;
+
+    public CaseController(CaseRepository caseRepository, CaseDocumentService caseDocumentService,
+                          CaseDraftService caseDraftService, CaseListService caseListService,
+                          CaseMatchingService caseMatchingService, CaseBatchMatcher caseBatchMatcher) {
         this.caseRepository = caseRepository;
-        this.jwtUtil = jwtUtil;
-        this.cloudinaryService = cloudinaryService;
-    }
-
-    // Extract userId from JWT token
-    private Integer extractUserId(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return null;
-        }
-        String token = authHeader.substring(7);
-        try {
-            return jwtUtil.extractClaim(token, claims -> claims.get("userId", Integer.class));
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    // Extract role from JWT token
-    private String extractUserRole(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return null;
-        }
-        String token = authHeader.substring(7);
-        try {
-            return jwtUtil.extractRole(token);
-        } catch (Exception e) {
-            return null;
-        }
+        this.caseDocumentService = caseDocumentService;
+        this.caseDraftService = caseDraftService;
+        this.caseListService = caseListService;
+        this.caseMatchingService = caseMatchingService;
+        this.caseBatchMatcher = caseBatchMatcher;
     }
 
     // Save step data (creates new case or updates existing draft)
     @PostMapping("/save-step")
     public ResponseEntity<?> saveStep(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal JwtPrincipal principal,
             @RequestBody Map<String, Object> requestData) {
         try {
-            Integer citizenId = extractUserId(authHeader);
+            Integer citizenId = principal.getUserId();
             if (citizenId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
@@ -77,14 +74,14 @@ public class CaseController {
 
             // If caseId provided, update that case; otherwise find latest draft or create new
             if (caseId != null) {
-                Optional<Case> existingCase = caseRepository.findByIdAndCitizenId(caseId, citizenId);
+                Optional<Case> existingCase = findCase(caseId, citizenId);
                 if (existingCase.isEmpty()) {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Case not found");
                 }
                 caseEntity = existingCase.get();
             } else {
                 // Find latest draft case for this user or create new
-                Optional<Case> draftCase = caseRepository.findFirstByCitizenIdAndIsSubmittedFalseOrderByUpdatedAtDesc(citizenId);
+                Optional<Case> draftCase = findLatestDraft(citizenId);
                 caseEntity = draftCase.orElseGet(() -> {
                     Case newCase = new Case();
                     newCase.setCitizenId(citizenId);
@@ -105,6 +102,8 @@ public class CaseController {
 
             return ResponseEntity.ok(response);
 
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Case was modified concurrently, please retry");
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -115,10 +114,10 @@ public class CaseController {
     // Submit final case
     @PostMapping("/submit")
     public ResponseEntity<?> submitCase(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal JwtPrincipal principal,
             @RequestBody Map<String, Object> requestData) {
         try {
-            Integer citizenId = extractUserId(authHeader);
+            Integer citizenId = principal.getUserId();
             if (citizenId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
@@ -128,13 +127,13 @@ public class CaseController {
 
             Case caseEntity;
             if (caseId != null) {
-                Optional<Case> existingCase = caseRepository.findByIdAndCitizenId(caseId, citizenId);
+                Optional<Case> existingCase = findCase(caseId, citizenId);
                 if (existingCase.isEmpty()) {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Case not found");
                 }
                 caseEntity = existingCase.get();
             } else {
-                Optional<Case> draftCase = caseRepository.findFirstByCitizenIdAndIsSubmittedFalseOrderByUpdatedAtDesc(citizenId);
+                Optional<Case> draftCase = findLatestDraft(citizenId);
                 if (draftCase.isEmpty()) {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No draft case found");
                 }
@@ -154,24 +153,33 @@ public class CaseController {
 
             return ResponseEntity.ok(response);
 
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Case was modified concurrently, please retry");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error submitting case: " + e.getMessage());
         }
     }
 
-    // Get all cases for logged-in user
+    // Get cases for logged-in user, most recently updated first (summary fields, keyset-paginated)
     @GetMapping("/my-cases")
-    public ResponseEntity<?> getMyCases(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getMyCases(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam(required = false) Boolean submitted,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            Integer citizenId = extractUserId(authHeader);
+            Integer citizenId = principal.getUserId();
             if (citizenId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
 
-            List<Case> cases = caseRepository.findByCitizenIdOrderByUpdatedAtDesc(citizenId);
+            caseDraftService.flushCitizen(citizenId);
+            CursorPage<CaseSummary> cases = caseListService.listForCitizen(citizenId, submitted, cursor, size);
             return ResponseEntity.ok(cases);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error fetching cases: " + e.getMessage());
@@ -180,14 +188,14 @@ public class CaseController {
 
     // Get current draft case (for resuming)
     @GetMapping("/draft")
-    public ResponseEntity<?> getDraftCase(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getDraftCase(@AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            Integer citizenId = extractUserId(authHeader);
+            Integer citizenId = principal.getUserId();
             if (citizenId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
 
-            Optional<Case> draftCase = caseRepository.findFirstByCitizenIdAndIsSubmittedFalseOrderByUpdatedAtDesc(citizenId);
+            Optional<Case> draftCase = findLatestDraft(citizenId);
             if (draftCase.isEmpty()) {
                 return ResponseEntity.ok(null);
             }
@@ -199,11 +207,55 @@ public class CaseController {
         }
     }
 
+    // Autosave: partial update of a draft (merge patch object or JSON Patch list), written after a short debounce
+    @PatchMapping("/{id}/draft")
+    public ResponseEntity<?> patchDraft(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean flush,
+            @RequestBody Object patch) {
+        try {
+            Integer citizenId = principal.getUserId();
+            if (citizenId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+            }
+
+            Set<String> pendingFields = caseDraftService.patch(id, citizenId, patch);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("caseId", id);
+            if (flush) {
+                Case saved = caseDraftService.flush(id);
+                response.put("saved", true);
+                response.put("version", saved != null ? saved.getVersion() : null);
+                return ResponseEntity.ok(response);
+            }
+            response.put("saved", false);
+            response.put("pendingFields", pendingFields);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Case was modified concurrently, please retry");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error saving draft: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/draft/stats")
+    public ResponseEntity<?> draftStats() {
+        return ResponseEntity.ok(caseDraftService.stats());
+    }
+
     // Start a new case (clears any existing draft behavior)
     @PostMapping("/new")
-    public ResponseEntity<?> startNewCase(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> startNewCase(@AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            Integer citizenId = extractUserId(authHeader);
+            Integer citizenId = principal.getUserId();
             if (citizenId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
@@ -228,24 +280,25 @@ public class CaseController {
     // Get case by ID (owner OR admin)
     @GetMapping("/{id}")
     public ResponseEntity<?> getCaseById(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal JwtPrincipal principal,
             @PathVariable Long id) {
         try {
-            Integer citizenId = extractUserId(authHeader);
+            Integer citizenId = principal.getUserId();
             if (citizenId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
 
-            String role = extractUserRole(authHeader);
+            String role = principal.getRole();
 
             Optional<Case> caseEntity;
 
             if ("ADMIN".equalsIgnoreCase(role)) {
                 // Admin can view any case
+                caseDraftService.flush(id);
                 caseEntity = caseRepository.findById(id);
             } else {
                 // Citizen can view only own case
-                caseEntity = caseRepository.findByIdAndCitizenId(id, citizenId);
+                caseEntity = findCase(id, citizenId);
             }
 
             if (caseEntity.isEmpty()) {
@@ -259,70 +312,95 @@ public class CaseController {
         }
     }
 
+    // Top-k lawyers (and NGOs, if requested) for a case (owner OR admin)
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<?> getMatches(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon) {
+        try {
+            Integer citizenId = principal.getUserId();
+            if (citizenId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+            }
+
+            Optional<Case> caseEntity = "ADMIN".equalsIgnoreCase(principal.getRole())
+                    ? caseRepository.findById(id)
+                    : findCase(id, citizenId);
+            if (caseEntity.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Case not found");
+            }
+
+            return ResponseEntity.ok(caseMatchingService.matchCase(caseEntity.get(), lat, lon, k));
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error matching case: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/matching/stats")
+    public ResponseEntity<?> matchingStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(caseMatchingService.stats());
+        stats.put("batch", caseBatchMatcher.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Route the submitted-case backlog now instead of waiting for the schedule (admin only)
+    @PostMapping("/matching/run")
+    public ResponseEntity<?> runBatchMatching(@AuthenticationPrincipal JwtPrincipal principal) {
+        if (!"ADMIN".equalsIgnoreCase(principal.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin access required");
+        }
+        if (!caseBatchMatcher.runAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Batch matching is already running");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body("Batch matching started");
+    }
+
     // Upload documents endpoint
     @PostMapping("/upload-documents")
     public ResponseEntity<?> uploadDocuments(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal JwtPrincipal principal,
             @RequestParam("caseId") Long caseId,
             @RequestParam("documents") MultipartFile[] documents) {
         try {
-            Integer citizenId = extractUserId(authHeader);
+            Integer citizenId = principal.getUserId();
             if (citizenId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
 
-            Optional<Case> existingCase = caseRepository.findByIdAndCitizenId(caseId, citizenId);
-            if (existingCase.isEmpty()) {
+            if (findCase(caseId, citizenId).isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Case not found");
             }
 
+            // Files upload concurrently; results are listed in the order they finished
+            List<DocumentUploadResult> results = Collections.synchronizedList(new ArrayList<>());
+            CompletableFuture.allOf(caseDocumentService.uploadAll(caseId, documents)
+                    .stream()
+                    .map(f -> f.thenAccept(results::add))
+                    .toArray(CompletableFuture[]::new))
+                    .join();
+
             List<String> uploadedUrls = new ArrayList<>();
             List<String> errors = new ArrayList<>();
-
-            for (MultipartFile file : documents) {
-                // Validate file size (2MB max)
-                if (file.getSize() > MAX_FILE_SIZE) {
-                    errors.add(file.getOriginalFilename() + ": File size exceeds 2MB limit");
-                    continue;
+            for (DocumentUploadResult result : results) {
+                if (result.isUploaded()) {
+                    uploadedUrls.add(result.getUrl());
+                } else {
+                    errors.add(result.getFilename() + ": " + result.getError());
                 }
-
-                // Validate file type
-                String contentType = file.getContentType();
-                if (contentType == null || (!contentType.equals("application/pdf")
-                        && !contentType.startsWith("image/"))) {
-                    errors.add(file.getOriginalFilename() + ": Only PDF and image files allowed");
-                    continue;
-                }
-
-                try {
-                    String url;
-                    if (contentType.equals("application/pdf")) {
-                        url = cloudinaryService.uploadFile(file, "cases/" + caseId + "/documents");
-                    } else {
-                        url = cloudinaryService.uploadImage(file, "cases/" + caseId + "/documents");
-                    }
-                    uploadedUrls.add(url);
-                } catch (Exception e) {
-                    errors.add(file.getOriginalFilename() + ": Upload failed - " + e.getMessage());
-                }
-            }
-
-            // Update case with document URLs
-            Case caseEntity = existingCase.get();
-            String existingUrls = caseEntity.getDocumentsUrl();
-            String newUrls = String.join(",", uploadedUrls);
-            if (existingUrls != null && !existingUrls.isEmpty()) {
-                caseEntity.setDocumentsUrl(existingUrls + "," + newUrls);
-            } else {
-                caseEntity.setDocumentsUrl(newUrls);
             }
-            caseRepository.save(caseEntity);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Documents uploaded");
             response.put("uploadedUrls", uploadedUrls);
             response.put("errors", errors);
-            response.put("documentsUrl", caseEntity.getDocumentsUrl());
+            response.put("results", results);
 
             return ResponseEntity.ok(response);
 
@@ -332,20 +410,130 @@ public class CaseController {
         }
     }
 
+    // Same upload, streamed: one JSON line per file as soon as it is stored, then a summary line
+    @PostMapping(value = "/upload-documents", produces = NDJSON)
+    public ResponseEntity<ResponseBodyEmitter> uploadDocumentsStreaming(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam("caseId") Long caseId,
+            @RequestParam("documents") MultipartFile[] documents) {
+        Integer citizenId = principal.getUserId();
+        if (citizenId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (findCase(caseId, citizenId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(UPLOAD_STREAM_TIMEOUT_MS);
+        AtomicInteger uploaded = new AtomicInteger();
+
+        CompletableFuture.allOf(caseDocumentService.uploadAll(caseId, documents)
+                .stream()
+                .map(f -> f.thenAccept(result -> {
+                    if (result.isUploaded()) {
+                        uploaded.incrementAndGet();
+                    }
+                    sendLine(emitter, result);
+                }))
+                .toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    Map<String, Object> summary = new HashMap<>();
+                    summary.put("done", true);
+                    summary.put("uploaded", uploaded.get());
+                    summary.put("failed", documents.length - uploaded.get());
+                    sendLine(emitter, summary);
+                    emitter.complete();
+                });
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(emitter);
+    }
+
+    private static void sendLine(ResponseBodyEmitter emitter, Object line) {
+        // each send writes through to the client; a disconnected client only loses the stream,
+        // the uploads themselves still finish and are recorded
+        synchronized (emitter) {
+            try {
+                emitter.send(line, MediaType.APPLICATION_JSON);
+                emitter.send("\n", MediaType.TEXT_PLAIN);
+            } catch (IOException | IllegalStateException e) {
+                // client went away
+            }
+        }
+    }
+
+    // List a case's documents (owner OR admin)
+    @GetMapping("/{id}/documents")
+    public ResponseEntity<?> getCaseDocuments(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @PathVariable Long id) {
+        try {
+            Integer citizenId = principal.getUserId();
+            if (citizenId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+            }
+
+            boolean visible = "ADMIN".equalsIgnoreCase(principal.getRole())
+                    ? caseRepository.existsById(id)
+                    : caseRepository.existsByIdAndCitizenId(id, citizenId);
+            if (!visible) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Case not found");
+            }
+            return ResponseEntity.ok(caseDocumentService.list(id));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error fetching documents: " + e.getMessage());
+        }
+    }
+
+    // Remove one document from a case (owner OR admin); the stored file is deleted in the background
+    @DeleteMapping("/{id}/documents/{documentId}")
+    public ResponseEntity<?> deleteCaseDocument(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @PathVariable Long id,
+            @PathVariable Long documentId) {
+        try {
+            Integer citizenId = principal.getUserId();
+            if (citizenId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+            }
+
+            boolean visible = "ADMIN".equalsIgnoreCase(principal.getRole())
+                    ? caseRepository.existsById(id)
+                    : caseRepository.existsByIdAndCitizenId(id, citizenId);
+            if (!visible) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Case not found");
+            }
+            if (!caseDocumentService.delete(id, documentId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Document not found");
+            }
+            return ResponseEntity.ok("Document deleted successfully");
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error deleting document: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/documents/stats")
+    public ResponseEntity<?> documentUploadStats() {
+        return ResponseEntity.ok(caseDocumentService.stats());
+    }
+
     // Update case status (mark as completed/pending)
     @PutMapping("/{caseId}/status")
     public ResponseEntity<?> updateCaseStatus(
             @PathVariable Long caseId,
             @RequestBody Map<String, String> body,
-            @RequestHeader("Authorization") String authHeader) {
+            @AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            Integer citizenId = extractUserId(authHeader);
+            Integer citizenId = principal.getUserId();
             if (citizenId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
             }
 
-            Case caseEntity = caseRepository.findById(caseId).orElse(null);
-            if (caseEntity == null || !caseEntity.getCitizenId().equals(citizenId)) {
+            Case caseEntity = findCase(caseId, citizenId).orElse(null);
+            if (caseEntity == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Case not found");
             }
 
@@ -362,6 +550,23 @@ public class CaseController {
         }
     }
 
+    // Buffered autosave patches are written first so reads and full saves never see or overwrite older data
+    private Optional<Case> findCase(Long caseId, Integer citizenId) {
+        caseDraftService.flush(caseId);
+        return caseRepository.findByIdAndCitizenId(caseId, citizenId);
+    }
+
+    private Optional<Case> findLatestDraft(Integer citizenId) {
+        Optional<Case> draft = caseRepository.findFirstByCitizenIdAndIsSubmittedFalseOrderByUpdatedAtDesc(citizenId);
+        if (draft.isPresent()) {
+            Case flushed = caseDraftService.flush(draft.get().getId());
+            if (flushed != null) {
+                return Optional.of(flushed);
+            }
+        }
+        return draft;
+    }
+
     private void updateCaseFields(Case caseEntity, Integer step, Map<String, Object> data) {
         switch (step) {
             case 0: // Applicant Details
@@ -395,8 +600,7 @@ public class CaseController {
                 if (data.get("background") != null) caseEntity.setBackground(data.get("background").toString());
                 if (data.get("relief") != null) caseEntity.setRelief(data.get("relief").toString());
                 break;
-            case 6: // Documents
-                if (data.get("documentsUrl") != null) caseEntity.setDocumentsUrl(data.get("documentsUrl").toString());
+            case 6: // Documents are attached through /upload-documents
                 break;
         }
     }
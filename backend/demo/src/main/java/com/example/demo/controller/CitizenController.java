@@ -2,6 +2,8 @@ package com.example.demo.controller;
 
 import com.example.demo.repository.CitizenRepository;
 import com.example.demo.entity.Citizen;
+import com.example.demo.service.PasswordService;
+import com.example.demo.service.UserIdentityService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,6 +14,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/citizens")
@@ -19,9 +22,14 @@ import java.util.Map;
 public class CitizenController {
 
     private final CitizenRepository repo;
+    private final PasswordService passwordService;
+    private final UserIdentityService userIdentityService;
 
-    public CitizenController(CitizenRepository repo) {
+    public CitizenController(CitizenRepository repo, PasswordService passwordService,
+                             UserIdentityService userIdentityService) {
         this.repo = repo;
+        this.passwordService = passwordService;
+        this.userIdentityService = userIdentityService;
     }
 
     // GET → /citizens
@@ -48,15 +56,20 @@ public class CitizenController {
                         .body("Aadhar number is required");
             }
 
+            // One probe of the identity index for both uniqueness checks
+            Set<String> taken = userIdentityService.findTaken("CITIZEN", Map.of(
+                    UserIdentityService.EMAIL, requestData.get("email").toString(),
+                    UserIdentityService.AADHAAR, requestData.get("aadharNum").toString()));
+
             // EMAIL already exists?
-            if (repo.existsByEmail(requestData.get("email").toString())) {
+            if (taken.contains(UserIdentityService.EMAIL)) {
                 return ResponseEntity
                         .status(HttpStatus.BAD_REQUEST)
                         .body("Email already exists");
             }
 
             // AADHAR already exists?
-            if (repo.existsByAadharNum(requestData.get("aadharNum").toString())) {
+            if (taken.contains(UserIdentityService.AADHAAR)) {
                 return ResponseEntity
                         .status(HttpStatus.BAD_REQUEST)
                         .body("Aadhar number already exists");
@@ -70,7 +83,7 @@ public class CitizenController {
             c.setAadharNum(requestData.get("aadharNum").toString());
             c.setEmail(requestData.get("email").toString());
             c.setMobileNum(requestData.get("mobileNum") != null ? requestData.get("mobileNum").toString() : "");
-            c.setPassword(requestData.get("password") != null ? requestData.get("password").toString() : "");
+            c.setPassword(passwordService.hash(requestData.get("password") != null ? requestData.get("password").toString() : ""));
             
             // Parse date of birth
             if (requestData.get("dateOfBirth") != null) {
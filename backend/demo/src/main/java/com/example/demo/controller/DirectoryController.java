@@ -1,25 +1,34 @@
 package com.example.demo.controller;
 
-import com.example.demo.entity.DirectoryEntry;
+import com.example.demo.service.CursorPage;
+import com.example.demo.service.DirectoryGeoSearchService;
+import com.example.demo.service.DirectoryEntryView;
 import com.example.demo.service.DirectoryService;
+import com.example.demo.service.NearbyResult;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/directory")
 @CrossOrigin(origins = "http://localhost:5173")
 public class DirectoryController {
 
     private final DirectoryService directoryService;
+    private final DirectoryGeoSearchService geoSearchService;
 
-    public DirectoryController(DirectoryService directoryService) {
+    public DirectoryController(DirectoryService directoryService, DirectoryGeoSearchService geoSearchService) {
         this.directoryService = directoryService;
+        this.geoSearchService = geoSearchService;
     }
 
     // GET
     // /api/directory/search?type=LAWYER&name=...&state=...&district=...&specialization=...&page=0&size=10
     @GetMapping("/search")
-    public Page<DirectoryEntry> search(
+    public Page<DirectoryEntryView> search(
             @RequestParam(name = "type", required = false) String type,
             @RequestParam(name = "name", required = false) String name,
             @RequestParam(name = "state", required = false) String state,
@@ -31,9 +40,54 @@ public class DirectoryController {
         return directoryService.search(type, name, state, district, specialization, minExperience, page, size);
     }
 
+    // GET
+    // /api/directory/search/cursor?type=LAWYER&...&cursor=<nextCursor>&size=10
+    // Keyset pagination: omit cursor for the first page
+    @GetMapping("/search/cursor")
+    public ResponseEntity<?> searchWithCursor(
+            @RequestParam(name = "type", required = false) String type,
+            @RequestParam(name = "name", required = false) String name,
+            @RequestParam(name = "state", required = false) String state,
+            @RequestParam(name = "district", required = false) String district,
+            @RequestParam(name = "specialization", required = false) String specialization,
+            @RequestParam(name = "minExperience", required = false) Integer minExperience,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size) {
+        try {
+            CursorPage<DirectoryEntryView> result = directoryService.searchAfter(
+                    type, name, state, district, specialization, minExperience, cursor, size);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // GET /api/directory/nearby?lat=28.61&lng=77.21&radiusKm=10&type=LAWYER&limit=20
+    // Omit radiusKm for the nearest `limit` entries; results are sorted by distance
+    @GetMapping("/nearby")
+    public ResponseEntity<?> nearby(
+            @RequestParam(name = "lat") double lat,
+            @RequestParam(name = "lng") double lng,
+            @RequestParam(name = "radiusKm", required = false) Double radiusKm,
+            @RequestParam(name = "type", required = false) String type,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        try {
+            List<NearbyResult> results = geoSearchService.nearby(lat, lng, radiusKm, type, limit);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // GET /api/directory/cache/stats
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return directoryService.cacheStats();
+    }
+
     // GET /api/directory/{id}
     @GetMapping("/{id}")
-    public DirectoryEntry getById(@PathVariable("id") Long id) {
+    public DirectoryEntryView getById(@PathVariable("id") Long id) {
         return directoryService.getById(id);
     }
 }
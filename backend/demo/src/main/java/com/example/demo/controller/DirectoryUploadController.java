@@ -1,26 +1,58 @@
 package com.example.demo.controller;
 
-import com.example.demo.service.DirectoryService;
+import com.example.demo.service.DirectoryImportJobService;
+import com.example.demo.service.ImportJob;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/directory")
 @CrossOrigin(origins = "http://localhost:5173")
 public class DirectoryUploadController {
 
-    private final DirectoryService directoryService;
+    private final DirectoryImportJobService importJobService;
 
-    public DirectoryUploadController(DirectoryService directoryService) {
-        this.directoryService = directoryService;
+    public DirectoryUploadController(DirectoryImportJobService importJobService) {
+        this.importJobService = importJobService;
     }
 
+    // Queues the file for a background import; poll the returned job for progress
     @PostMapping("/upload")
-    public ResponseEntity<String> uploadDirectory(
+    public ResponseEntity<?> uploadDirectory(
             @RequestParam("file") MultipartFile file) {
+        try {
+            ImportJob job = importJobService.submit(file);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Directory import queued");
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus());
+            response.put("statusUrl", "/api/directory/import-jobs/" + job.getId());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Import queue is full, please try again later");
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to read uploaded file: " + e.getMessage());
+        }
+    }
 
-        directoryService.uploadFile(file);
-        return ResponseEntity.ok("Directory uploaded successfully");
+    // GET /api/directory/import-jobs/{id}
+    @GetMapping("/import-jobs/{id}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable("id") String id) {
+        return importJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -0,0 +1,166 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.LocalBlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves files kept by {@link LocalBlobStore} (storage.backend=local), with
+ * single byte-range requests so PDF viewers can fetch pages on demand and
+ * interrupted downloads can resume.
+ *
+ * Large bodies are handed to Tomcat's sendfile when the connector supports
+ * it, so the kernel copies file to socket directly; otherwise they go
+ * through FileChannel.transferTo. Keys are random, so responses are cached as
+ * immutable. Like Cloudinary URLs, these URLs are public.
+ */
+@RestController
+@RequestMapping("/api/files")
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class FileController {
+
+    private static final String PREFIX = "/api/files/";
+
+    // below this the sendfile hand-off costs more than it saves (Tomcat's DefaultServlet uses the same cut-off)
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final long[] WHOLE_FILE = new long[0];
+
+    private final LocalBlobStore blobStore;
+
+    public FileController(LocalBlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @RequestMapping(value = "/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void download(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length());
+
+        Path file;
+        try {
+            file = blobStore.resolve(key);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(file);
+        String contentType = Files.probeContentType(file);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, Files.getLastModifiedTime(file).toMillis());
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null) {
+            long[] range = parseRange(rangeHeader, length);
+            if (range == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range.length == 2) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count <= 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES
+                && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1); // exclusive
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break; // file shrank underneath us
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Parse a Range header against a file of the given length.
+     * @return {start, end} (inclusive) for one satisfiable range; an empty
+     *         array to ignore the header and send the whole file (malformed,
+     *         not bytes, or several ranges, all of which RFC 9110 lets a server
+     *         ignore); null if the range is unsatisfiable
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=")) {
+            return WHOLE_FILE;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return WHOLE_FILE;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // suffix range: the last N bytes
+                if (last.isEmpty()) {
+                    return WHOLE_FILE;
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                start = Math.max(length - suffix, 0);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+                if (start < 0 || (!last.isEmpty() && end < start)) {
+                    return WHOLE_FILE;
+                }
+                if (start >= length) {
+                    return null;
+                }
+                end = Math.min(end, length - 1);
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return WHOLE_FILE;
+        }
+    }
+}
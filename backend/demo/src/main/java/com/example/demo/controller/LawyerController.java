@@ -4,14 +4,22 @@ import com.example.demo.entity.Lawyer;
 import com.example.demo.repository.DirectoryEntryRepository;
 import com.example.demo.repository.LawyerRepository;
 import com.example.demo.service.CloudinaryService;
+import com.example.demo.service.DirectoryChangedEvent;
 import com.example.demo.service.LawyerImportService;
 import com.example.demo.service.BarCouncilImportService;
+import com.example.demo.service.BarCouncilImportReport;
+import com.example.demo.service.PasswordService;
+import com.example.demo.service.ProviderAccountService;
+import com.example.demo.service.UserIdentityService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/lawyers")
@@ -23,18 +31,30 @@ public class LawyerController {
     private final LawyerImportService lawyerImportService;
     private final DirectoryEntryRepository directoryEntryRepository;
     private final BarCouncilImportService barCouncilImportService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordService passwordService;
+    private final UserIdentityService userIdentityService;
+    private final ProviderAccountService providerAccountService;
 
     public LawyerController(
             LawyerRepository lawyerRepository,
             CloudinaryService cloudinaryService,
             LawyerImportService lawyerImportService,
             DirectoryEntryRepository directoryEntryRepository,
-            BarCouncilImportService barCouncilImportService) {
+            BarCouncilImportService barCouncilImportService,
+            ApplicationEventPublisher eventPublisher,
+            PasswordService passwordService,
+            UserIdentityService userIdentityService,
+            ProviderAccountService providerAccountService) {
         this.lawyerRepository = lawyerRepository;
         this.cloudinaryService = cloudinaryService;
         this.lawyerImportService = lawyerImportService;
         this.directoryEntryRepository = directoryEntryRepository;
         this.barCouncilImportService = barCouncilImportService;
+        this.eventPublisher = eventPublisher;
+        this.passwordService = passwordService;
+        this.userIdentityService = userIdentityService;
+        this.providerAccountService = providerAccountService;
     }
 
     // Citizens: see all lawyers (verified + unverified)
@@ -90,13 +110,18 @@ public class LawyerController {
             @RequestParam(value = "longitude", required = false) String longitude,
             @RequestParam("password") String password) {
         try {
-            if (lawyerRepository.existsByEmail(email)) {
+            // One probe of the identity index for all uniqueness checks
+            Set<String> taken = userIdentityService.findTaken("LAWYER", Map.of(
+                    UserIdentityService.EMAIL, email,
+                    UserIdentityService.AADHAAR, aadhar,
+                    UserIdentityService.BAR_COUNCIL_ID, barId));
+            if (taken.contains(UserIdentityService.EMAIL)) {
                 return ResponseEntity.badRequest().body("Email already exists");
             }
-            if (lawyerRepository.existsByAadharNum(aadhar)) {
+            if (taken.contains(UserIdentityService.AADHAAR)) {
                 return ResponseEntity.badRequest().body("Aadhar number already exists");
             }
-            if (lawyerRepository.existsByBarCouncilId(barId)) {
+            if (taken.contains(UserIdentityService.BAR_COUNCIL_ID)) {
                 return ResponseEntity.badRequest().body("Bar Council ID already exists");
             }
 
@@ -114,7 +139,7 @@ public class LawyerController {
             lawyer.setDistrict(district);
             lawyer.setCity(city);
             lawyer.setState(state);
-            lawyer.setPassword(password);
+            lawyer.setPassword(passwordService.hash(password));
 
             if (latitude != null && !latitude.isEmpty()) {
                 lawyer.setLatitude(Double.parseDouble(latitude));
@@ -168,6 +193,7 @@ public class LawyerController {
             entry.setApproved(false); // New registrations need approval
 
             directoryEntryRepository.save(entry);
+            eventPublisher.publishEvent(new DirectoryChangedEvent(entry.getId()));
 
             return ResponseEntity.ok(savedLawyer);
         } catch (Exception e) {
@@ -179,10 +205,9 @@ public class LawyerController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteLawyer(@PathVariable Integer id) {
-        if (!lawyerRepository.existsById(id)) {
+        if (!providerAccountService.deleteLawyer(id)) {
             return ResponseEntity.notFound().build();
         }
-        lawyerRepository.deleteById(id);
         return ResponseEntity.ok("Lawyer deleted successfully");
     }
 
@@ -195,10 +220,10 @@ public class LawyerController {
     }
 
     @PostMapping("/admin/import-bar-council")
-    public ResponseEntity<String> importBarCouncilData() {
+    public ResponseEntity<?> importBarCouncilData() {
         try {
-            barCouncilImportService.importCSV("bar_council_data.csv");
-            return ResponseEntity.ok("Bar Council Data imported successfully.");
+            BarCouncilImportReport report = barCouncilImportService.importCSV("bar_council_data.csv");
+            return ResponseEntity.ok(report);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error importing Bar Council data: " + e.getMessage());
@@ -239,6 +264,7 @@ public class LawyerController {
                             System.out.println("DEBUG: Found directory entry, setting approved=true");
                             entry.setApproved(true);
                             directoryEntryRepository.save(entry);
+                            eventPublisher.publishEvent(new DirectoryChangedEvent(entry.getId()));
                             System.out.println("DEBUG: Directory entry updated successfully");
                         } else {
                             System.out.println("DEBUG: WARNING - No directory entry found for Bar Council ID: "
@@ -291,6 +317,7 @@ public class LawyerController {
                 if (lawyer.getLongitude() != null)
                     entry.setLongitude(lawyer.getLongitude());
                 directoryEntryRepository.save(entry);
+                eventPublisher.publishEvent(new DirectoryChangedEvent(entry.getId()));
             }
 
             return ResponseEntity.ok(updatedLawyer);
@@ -4,6 +4,11 @@ import com.example.demo.entity.NGO;
 import com.example.demo.repository.DirectoryEntryRepository;
 import com.example.demo.repository.NGORepository;
 import com.example.demo.service.CloudinaryService;
+import com.example.demo.service.DirectoryChangedEvent;
+import com.example.demo.service.PasswordService;
+import com.example.demo.service.ProviderAccountService;
+import com.example.demo.service.UserIdentityService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,6 +16,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/ngos")
@@ -20,13 +27,25 @@ public class NGOController {
     private final NGORepository repo;
     private final CloudinaryService cloudinaryService;
     private final DirectoryEntryRepository directoryEntryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordService passwordService;
+    private final UserIdentityService userIdentityService;
+    private final ProviderAccountService providerAccountService;
 
     public NGOController(NGORepository repo,
             CloudinaryService cloudinaryService,
-            DirectoryEntryRepository directoryEntryRepository) {
+            DirectoryEntryRepository directoryEntryRepository,
+            ApplicationEventPublisher eventPublisher,
+            PasswordService passwordService,
+            UserIdentityService userIdentityService,
+            ProviderAccountService providerAccountService) {
         this.repo = repo;
         this.cloudinaryService = cloudinaryService;
         this.directoryEntryRepository = directoryEntryRepository;
+        this.eventPublisher = eventPublisher;
+        this.passwordService = passwordService;
+        this.userIdentityService = userIdentityService;
+        this.providerAccountService = providerAccountService;
     }
 
     // Citizens: see all NGOs (verified + unverified)
@@ -55,13 +74,17 @@ public class NGOController {
             @RequestParam(value = "longitude", required = false) String longitude,
             @RequestParam("password") String password) {
         try {
-            if (repo.existsByEmail(email)) {
+            // One probe of the identity index for all uniqueness checks
+            Set<String> taken = userIdentityService.findTaken("NGO", Map.of(
+                    UserIdentityService.EMAIL, email,
+                    UserIdentityService.REGISTRATION_NUMBER, registrationNumber));
+            if (taken.contains(UserIdentityService.EMAIL)) {
                 return ResponseEntity
                         .status(HttpStatus.BAD_REQUEST)
                         .body("Email already exists");
             }
 
-            if (repo.existsByRegistrationNumber(registrationNumber)) {
+            if (taken.contains(UserIdentityService.REGISTRATION_NUMBER)) {
                 return ResponseEntity
                         .status(HttpStatus.BAD_REQUEST)
                         .body("Registration Number already exists");
@@ -99,7 +122,7 @@ public class NGOController {
                 }
             }
 
-            ngo.setPassword(password);
+            ngo.setPassword(passwordService.hash(password));
 
             if (registrationCertificate != null && !registrationCertificate.isEmpty()) {
                 try {
@@ -137,6 +160,7 @@ public class NGOController {
                 entry.setSource("USER_REGISTRATION");
             }
             entry.setName(ngoName);
+            entry.setSpecialization(ngoType); // NGO type is what cases are matched on
             entry.setContactPhone(contact);
             entry.setContactEmail(email);
             entry.setState(state);
@@ -149,6 +173,7 @@ public class NGOController {
             entry.setVerified(verified);
             entry.setApproved(false); // New registrations need approval
             directoryEntryRepository.save(entry);
+            eventPublisher.publishEvent(new DirectoryChangedEvent(entry.getId()));
 
             return ResponseEntity.ok(saved);
 
@@ -161,10 +186,9 @@ public class NGOController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteNGO(@PathVariable Integer id) {
-        if (!repo.existsById(id)) {
+        if (!providerAccountService.deleteNgo(id)) {
             return ResponseEntity.notFound().build();
         }
-        repo.deleteById(id);
         return ResponseEntity.ok("NGO deleted successfully");
     }
 
@@ -195,6 +219,7 @@ public class NGOController {
                         System.out.println("DEBUG: Found directory entry, setting approved=true");
                         entry.setApproved(true);
                         directoryEntryRepository.save(entry);
+                        eventPublisher.publishEvent(new DirectoryChangedEvent(entry.getId()));
                         System.out.println("DEBUG: Directory entry updated successfully");
                     } else {
                         System.out.println("DEBUG: WARNING - No directory entry found for Registration Number: "
@@ -230,6 +255,7 @@ public class NGOController {
                     .findByTypeAndRegistrationNumber("NGO", ngo.getRegistrationNumber());
             if (entry != null) {
                 entry.setName(ngo.getNgoName());
+                entry.setSpecialization(ngo.getNgoType());
                 entry.setContactPhone(ngo.getContact());
                 entry.setState(ngo.getState());
                 entry.setDistrict(ngo.getDistrict());
@@ -239,6 +265,7 @@ public class NGOController {
                 if (ngo.getLongitude() != null)
                     entry.setLongitude(ngo.getLongitude());
                 directoryEntryRepository.save(entry);
+                eventPublisher.publishEvent(new DirectoryChangedEvent(entry.getId()));
             }
 
             return ResponseEntity.ok(updatedNgo);
@@ -5,12 +5,14 @@ import com.example.demo.entity.Admin;
 import com.example.demo.repository.CitizenRepository;
 import com.example.demo.repository.AdminRepository;
 import com.example.demo.service.CloudinaryService;
-import com.example.demo.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.example.demo.service.ImageProcessingService;
+import com.example.demo.service.ProfilePhoto;
+import com.example.demo.util.JwtPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -30,38 +32,24 @@ public class ProfileController {
     private AdminRepository adminRepository;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private CloudinaryService cloudinaryService;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ImageProcessingService imageProcessingService;
 
     @GetMapping("/me")
-    public ResponseEntity<?> getProfile(HttpServletRequest request) {
+    public ResponseEntity<?> getProfile(@AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            // Get token from Authorization header
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Authorization token required");
-            }
-
-            String token = authHeader.substring(7);
-
-            // Validate token is not expired
-            if (jwtUtil.isTokenExpired(token)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Token has expired. Please login again.");
-            }
-
+            // Token already verified by JwtAuthenticationFilter
             // Extract email from token
-            String email = jwtUtil.extractEmail(token);
+            String email = principal.getEmail();
             if (email == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body("Invalid token");
             }
 
             // Extract role from token
-            String role = jwtUtil.extractRole(token);
+            String role = principal.getRole();
             System.out.println("DEBUG ROLE FROM TOKEN = " + role);
 
             if (role == null) {
@@ -93,6 +81,7 @@ public class ProfileController {
                 profileData.put("address", citizen.getAddress());
                 profileData.put("role", "CITIZEN");
                 profileData.put("photoUrl", citizen.getProfilePhotoUrl());
+                profileData.put("photoThumbnailUrl", citizen.getProfilePhotoThumbnailUrl());
             } else if ("ADMIN".equals(role)) {
                 Admin admin = adminRepository.findByEmail(email);
                 if (admin == null) {
@@ -115,6 +104,7 @@ public class ProfileController {
                 profileData.put("address", admin.getAddress());
                 profileData.put("role", "ADMIN");
                 profileData.put("photoUrl", admin.getProfilePhotoUrl());
+                profileData.put("photoThumbnailUrl", admin.getProfilePhotoThumbnailUrl());
             } else {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("This endpoint is for citizens and admins only");
@@ -131,7 +121,7 @@ public class ProfileController {
 
     @PutMapping(value = "/me", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     public ResponseEntity<?> updateProfile(
-            HttpServletRequest request,
+            @AuthenticationPrincipal JwtPrincipal principal,
             @RequestParam(value = "fullName", required = false) String fullName,
             @RequestParam(value = "aadhaar", required = false) String aadhaar,
             @RequestParam(value = "mobile", required = false) String mobile,
@@ -142,30 +132,16 @@ public class ProfileController {
             @RequestParam(value = "address", required = false) String address,
             @RequestParam(value = "profilePhoto", required = false) MultipartFile profilePhoto) {
         try {
-            // Get token from Authorization header
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Authorization token required");
-            }
-
-            String token = authHeader.substring(7);
-
-            // Validate token is not expired
-            if (jwtUtil.isTokenExpired(token)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Token has expired. Please login again.");
-            }
-
+            // Token already verified by JwtAuthenticationFilter
             // Extract email from token
-            String email = jwtUtil.extractEmail(token);
+            String email = principal.getEmail();
             if (email == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body("Invalid token");
             }
 
             // Extract role from token
-            String role = jwtUtil.extractRole(token);
+            String role = principal.getRole();
             if (role == null) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("Invalid role");
@@ -226,10 +202,13 @@ public class ProfileController {
                     citizen.setAddress(address.trim());
                 }
 
+                String previousPhotoUrl = citizen.getProfilePhotoUrl();
+                String previousThumbnailUrl = citizen.getProfilePhotoThumbnailUrl();
                 if (profilePhoto != null && !profilePhoto.isEmpty()) {
                     try {
-                        String photoUrl = cloudinaryService.uploadImage(profilePhoto, "citizens/profile-photos");
-                        citizen.setProfilePhotoUrl(photoUrl);
+                        ProfilePhoto photo = cloudinaryService.uploadProfilePhoto(profilePhoto, "citizens/profile-photos");
+                        citizen.setProfilePhotoUrl(photo.getUrl());
+                        citizen.setProfilePhotoThumbnailUrl(photo.getThumbnailUrl());
                     } catch (IOException e) {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                 .body("Failed to upload profile photo: " + e.getMessage());
@@ -240,6 +219,13 @@ public class ProfileController {
                 }
 
                 Citizen updatedCitizen = citizenRepository.save(citizen);
+                if (previousPhotoUrl != null && !previousPhotoUrl.equals(updatedCitizen.getProfilePhotoUrl())) {
+                    // the replaced photo is removed in the background
+                    cloudinaryService.deleteFile(previousPhotoUrl, "profile-photo");
+                }
+                if (previousThumbnailUrl != null && !previousThumbnailUrl.equals(updatedCitizen.getProfilePhotoThumbnailUrl())) {
+                    cloudinaryService.deleteFile(previousThumbnailUrl, "profile-photo");
+                }
 
                 profileData.put("id", updatedCitizen.getId());
                 profileData.put("fullName", updatedCitizen.getFullName());
@@ -256,6 +242,7 @@ public class ProfileController {
                 profileData.put("address", updatedCitizen.getAddress());
                 profileData.put("role", "CITIZEN");
                 profileData.put("photoUrl", updatedCitizen.getProfilePhotoUrl());
+                profileData.put("photoThumbnailUrl", updatedCitizen.getProfilePhotoThumbnailUrl());
             } else if ("ADMIN".equals(role)) {
                 Admin admin = adminRepository.findByEmail(email);
                 if (admin == null) {
@@ -309,10 +296,13 @@ public class ProfileController {
                     admin.setAddress(address.trim());
                 }
 
+                String previousPhotoUrl = admin.getProfilePhotoUrl();
+                String previousThumbnailUrl = admin.getProfilePhotoThumbnailUrl();
                 if (profilePhoto != null && !profilePhoto.isEmpty()) {
                     try {
-                        String photoUrl = cloudinaryService.uploadImage(profilePhoto, "admins/profile-photos");
-                        admin.setProfilePhotoUrl(photoUrl);
+                        ProfilePhoto photo = cloudinaryService.uploadProfilePhoto(profilePhoto, "admins/profile-photos");
+                        admin.setProfilePhotoUrl(photo.getUrl());
+                        admin.setProfilePhotoThumbnailUrl(photo.getThumbnailUrl());
                     } catch (IOException e) {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                 .body("Failed to upload profile photo: " + e.getMessage());
@@ -323,6 +313,13 @@ public class ProfileController {
                 }
 
                 Admin updatedAdmin = adminRepository.save(admin);
+                if (previousPhotoUrl != null && !previousPhotoUrl.equals(updatedAdmin.getProfilePhotoUrl())) {
+                    // the replaced photo is removed in the background
+                    cloudinaryService.deleteFile(previousPhotoUrl, "profile-photo");
+                }
+                if (previousThumbnailUrl != null && !previousThumbnailUrl.equals(updatedAdmin.getProfilePhotoThumbnailUrl())) {
+                    cloudinaryService.deleteFile(previousThumbnailUrl, "profile-photo");
+                }
 
                 profileData.put("id", updatedAdmin.getId());
                 profileData.put("fullName", updatedAdmin.getFullName());
@@ -339,6 +336,7 @@ public class ProfileController {
                 profileData.put("address", updatedAdmin.getAddress());
                 profileData.put("role", "ADMIN");
                 profileData.put("photoUrl", updatedAdmin.getProfilePhotoUrl());
+                profileData.put("photoThumbnailUrl", updatedAdmin.getProfilePhotoThumbnailUrl());
             } else {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("This endpoint is for citizens and admins only");
@@ -356,4 +354,9 @@ public class ProfileController {
                     .body("Error updating profile: " + e.getMessage());
         }
     }
+
+    @GetMapping("/photos/stats")
+    public ResponseEntity<?> photoProcessingStats() {
+        return ResponseEntity.ok(imageProcessingService.stats());
+    }
 }
@@ -56,6 +56,9 @@ public class Admin {
     @Column(name = "profile_photo_url", length = 500)
     private String profilePhotoUrl;
 
+    @Column(name = "profile_photo_thumbnail_url", length = 500)
+    private String profilePhotoThumbnailUrl;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -170,6 +173,14 @@ public class Admin {
         this.profilePhotoUrl = profilePhotoUrl;
     }
 
+    public String getProfilePhotoThumbnailUrl() {
+        return profilePhotoThumbnailUrl;
+    }
+
+    public void setProfilePhotoThumbnailUrl(String profilePhotoThumbnailUrl) {
+        this.profilePhotoThumbnailUrl = profilePhotoThumbnailUrl;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -2,10 +2,20 @@ package com.example.demo.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/**
+ * A citizen's case, filled in step by step through the filing wizard.
+ *
+ * Updates only write the columns that changed (the wizard autosaves a few
+ * fields at a time, and the TEXT columns are the bulk of the row), and the
+ * version column turns concurrent writes into an optimistic lock failure
+ * instead of a silent lost update.
+ */
 @Entity
+@DynamicUpdate
 @Table(name = "citizen_cases")
 public class Case {
 
@@ -82,9 +92,19 @@ public class Case {
     @Column(name = "relief", columnDefinition = "TEXT")
     private String relief;
 
-    // Step 6: Documents
-    @Column(name = "documents_url", columnDefinition = "TEXT")
-    private String documentsUrl;
+    // Assignment (directory entry ids of the matched providers)
+    @Column(name = "assigned_lawyer_id")
+    private Integer assignedLawyerId;
+
+    @Column(name = "assigned_ngo_id")
+    private Integer assignedNgoId;
+
+    @Column(name = "assigned_at")
+    private LocalDateTime assignedAt;
+
+    // last time the batch matcher tried and found no available provider
+    @Column(name = "match_attempted_at")
+    private LocalDateTime matchAttemptedAt;
 
     // Metadata
     @Column(name = "current_step")
@@ -102,6 +122,10 @@ public class Case {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -183,8 +207,17 @@ public class Case {
     public String getRelief() { return relief; }
     public void setRelief(String relief) { this.relief = relief; }
 
-    public String getDocumentsUrl() { return documentsUrl; }
-    public void setDocumentsUrl(String documentsUrl) { this.documentsUrl = documentsUrl; }
+    public Integer getAssignedLawyerId() { return assignedLawyerId; }
+    public void setAssignedLawyerId(Integer assignedLawyerId) { this.assignedLawyerId = assignedLawyerId; }
+
+    public Integer getAssignedNgoId() { return assignedNgoId; }
+    public void setAssignedNgoId(Integer assignedNgoId) { this.assignedNgoId = assignedNgoId; }
+
+    public LocalDateTime getAssignedAt() { return assignedAt; }
+    public void setAssignedAt(LocalDateTime assignedAt) { this.assignedAt = assignedAt; }
+
+    public LocalDateTime getMatchAttemptedAt() { return matchAttemptedAt; }
+    public void setMatchAttemptedAt(LocalDateTime matchAttemptedAt) { this.matchAttemptedAt = matchAttemptedAt; }
 
     public Integer getCurrentStep() { return currentStep; }
     public void setCurrentStep(Integer currentStep) { this.currentStep = currentStep; }
@@ -200,5 +233,7 @@ public class Case {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
-}
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -55,6 +55,9 @@ public class Citizen {
     @Column(name = "profile_photo_url", length = 500)
     private String profilePhotoUrl;
 
+    @Column(name = "profile_photo_thumbnail_url", length = 500)
+    private String profilePhotoThumbnailUrl;
+
     // GETTERS & SETTERS
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
@@ -91,4 +94,7 @@ public class Citizen {
 
     public String getProfilePhotoUrl() { return profilePhotoUrl; }
     public void setProfilePhotoUrl(String profilePhotoUrl) { this.profilePhotoUrl = profilePhotoUrl; }
+
+    public String getProfilePhotoThumbnailUrl() { return profilePhotoThumbnailUrl; }
+    public void setProfilePhotoThumbnailUrl(String profilePhotoThumbnailUrl) { this.profilePhotoThumbnailUrl = profilePhotoThumbnailUrl; }
 }
@@ -1,5 +1,7 @@
 package com.example.demo.entity;
 
+import com.example.demo.util.GeoHash;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -48,12 +50,30 @@ public class DirectoryEntry {
     private Double latitude;
     private Double longitude;
 
+    // Derived from latitude/longitude; B-tree indexed for proximity search
+    @JsonIgnore
+    @Column(length = 12)
+    private String geohash;
+
+    // SHA-256 of the imported source row; lets feed re-imports skip unchanged rows
+    @JsonIgnore
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @PrePersist
+    @PreUpdate
+    protected void updateGeohash() {
+        geohash = latitude != null && longitude != null
+                ? GeoHash.encode(latitude, longitude, GeoHash.MAX_PRECISION)
+                : null;
+    }
+
     // Getters and setters
 
     public Integer getId() {
@@ -215,4 +235,16 @@ public class DirectoryEntry {
     public void setApproved(boolean approved) {
         this.approved = approved;
     }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getGeohash() {
+        return geohash;
+    }
 }
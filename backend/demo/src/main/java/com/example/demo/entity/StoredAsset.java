@@ -0,0 +1,93 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A file already in blob storage, keyed by the SHA-256 of its content.
+ * Uploading the same bytes again reuses this row's URL instead of storing
+ * another copy.
+ *
+ * The id is assigned (the hash), so the entity tells Spring Data whether it
+ * is new: save() then inserts a new asset instead of merging it, and a
+ * concurrent upload of the same content fails on the primary key rather than
+ * overwriting the row that was recorded first.
+ */
+@Entity
+@Table(name = "stored_assets")
+public class StoredAsset implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String url;
+
+    @Column(name = "storage_key", length = 512)
+    private String storageKey;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // set by AssetCleanupService.markReused on every dedup hit
+    @Column(name = "last_used_at")
+    private LocalDateTime lastUsedAt;
+
+    @Transient
+    private boolean isNew;
+
+    public StoredAsset() {
+    }
+
+    public StoredAsset(String sha256, String url, String storageKey, String contentType, long sizeBytes) {
+        this.sha256 = sha256;
+        this.url = url;
+        this.storageKey = storageKey;
+        this.contentType = contentType;
+        this.sizeBytes = sizeBytes;
+        this.createdAt = LocalDateTime.now();
+        this.isNew = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public String getId() { return sha256; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getStorageKey() { return storageKey; }
+    public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getLastUsedAt() { return lastUsedAt; }
+    public void setLastUsedAt(LocalDateTime lastUsedAt) { this.lastUsedAt = lastUsedAt; }
+}
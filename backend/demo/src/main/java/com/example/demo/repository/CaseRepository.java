@@ -10,12 +10,14 @@ import java.util.Optional;
 @Repository
 public interface CaseRepository extends JpaRepository<Case, Long> {
     
-    List<Case> findByCitizenIdOrderByUpdatedAtDesc(Integer citizenId);
-    
     Optional<Case> findFirstByCitizenIdAndIsSubmittedFalseOrderByUpdatedAtDesc(Integer citizenId);
     
     List<Case> findByCitizenIdAndIsSubmittedTrue(Integer citizenId);
     
     Optional<Case> findByIdAndCitizenId(Long id, Integer citizenId);
+
+    boolean existsByIdAndCitizenIdAndIsSubmittedFalse(Long id, Integer citizenId);
+
+    boolean existsByIdAndCitizenId(Long id, Integer citizenId);
 }
 
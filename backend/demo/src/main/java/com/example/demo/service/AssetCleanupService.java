@@ -0,0 +1,407 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URLConnection;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes stored files in the background through a durable outbox.
+ *
+ * Code that replaces or removes a file only inserts an asset_deletions row
+ * (enqueue), so requests never wait on the storage provider and a crash or
+ * outage loses nothing. A worker claims due rows in batches, drops the ones
+ * whose URL is still referenced somewhere (uploads are deduplicated, so one
+ * stored file can back several rows), forgets the stored_assets entry so no
+ * new upload reuses the URL, and deletes the rest from the {@link BlobStore}
+ * in bulk. Failures are retried with exponential backoff up to
+ * storage.cleanup.max-attempts, then left in the table for inspection.
+ *
+ * A daily reconcile queues stored assets that nothing references any more
+ * (created or last reused more than storage.cleanup.orphan-grace-hours ago,
+ * so an upload whose row is still being written is not mistaken for one).
+ *
+ * A dedup hit hands out an existing URL before the caller has written the
+ * row that references it. To keep the worker from deleting the file in that
+ * window, the hit stamps the stored_assets row (markReused) and the worker
+ * only forgets rows that were not reused within the grace period. Both are
+ * single statements on the same row, so Postgres serializes them: either the
+ * stamp lands first and the delete skips the row, or the delete lands first
+ * and the stamp finds nothing, which the caller treats as a miss.
+ */
+@Service
+public class AssetCleanupService {
+
+    // every column that holds a stored file's URL
+    private static final String[][] REFERENCES = {
+            {"case_documents", "url"},
+            {"citizens", "profile_photo_url"},
+            {"citizens", "profile_photo_thumbnail_url"},
+            {"admins", "profile_photo_url"},
+            {"admins", "profile_photo_thumbnail_url"},
+            {"lawyers", "aadhar_proof_url"},
+            {"lawyers", "bar_certificate_url"},
+            {"ngos", "registration_certificate_url"},
+    };
+
+    // how long a claimed row is hidden from other claims while it is being processed
+    private static final long CLAIM_LEASE_SECONDS = 300;
+    private static final long BASE_BACKOFF_SECONDS = 30;
+    private static final long MAX_BACKOFF_SECONDS = 6 * 60 * 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long orphanGraceHours;
+
+    private final ExecutorService runner;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder skippedInUse = new LongAdder();
+    private final LongAdder unresolvable = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder orphansQueued = new LongAdder();
+    private final AtomicLong lastRunAt = new AtomicLong();
+
+    public AssetCleanupService(JdbcTemplate jdbcTemplate,
+                               BlobStore blobStore,
+                               @Value("${storage.cleanup.enabled:true}") boolean enabled,
+                               @Value("${storage.cleanup.batch-size:100}") int batchSize,
+                               @Value("${storage.cleanup.max-attempts:8}") int maxAttempts,
+                               @Value("${storage.cleanup.orphan-grace-hours:24}") long orphanGraceHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.orphanGraceHours = Math.max(orphanGraceHours, 1);
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "asset-cleanup");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queue a stored file for deletion. Joins the caller's transaction if
+     * there is one, so the row is written together with the change that
+     * dropped the reference.
+     * @param url the file's URL; null or blank is ignored
+     * @param storageKey the store's key if known, otherwise derived from the URL or stored_assets
+     * @param contentType the type it was stored with if known
+     * @param reason short label for inspection, e.g. "profile-photo"
+     */
+    public void enqueue(String url, String storageKey, String contentType, String reason) {
+        if (url == null || url.isBlank()) {
+            return;
+        }
+        jdbcTemplate.update(
+                "INSERT INTO asset_deletions (url, storage_key, content_type, reason) VALUES (?, ?, ?, ?)",
+                url, storageKey, contentType, reason);
+        enqueued.increment();
+    }
+
+    public void enqueue(String url, String reason) {
+        enqueue(url, null, null, reason);
+    }
+
+    /**
+     * Record that a stored asset is being handed out again.
+     * @return false if cleanup has already forgotten it, in which case its
+     *         URL must not be used
+     */
+    public boolean markReused(String sha256) {
+        return jdbcTemplate.update("UPDATE stored_assets SET last_used_at = now() WHERE sha256 = ?", sha256) > 0;
+    }
+
+    // only hands off to the cleanup thread, so slow provider calls never hold up other scheduled jobs
+    @Scheduled(fixedDelayString = "${storage.cleanup.interval-ms:60000}",
+            initialDelayString = "${storage.cleanup.interval-ms:60000}")
+    public void scheduledRun() {
+        if (enabled) {
+            submit(this::drain);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${storage.cleanup.reconcile-ms:86400000}",
+            initialDelayString = "${storage.cleanup.reconcile-ms:86400000}")
+    public void scheduledReconcile() {
+        if (enabled) {
+            submit(() -> {
+                reconcile();
+                drain();
+            });
+        }
+    }
+
+    private void submit(Runnable job) {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        runner.execute(() -> {
+            try {
+                job.run();
+            } catch (RuntimeException e) {
+                System.err.println("Asset cleanup failed: " + e.getMessage());
+            } finally {
+                lastRunAt.set(System.currentTimeMillis());
+                running.set(false);
+            }
+        });
+    }
+
+    // process due batches until none are left (or a whole batch failed, e.g. the provider is down)
+    private void drain() {
+        while (true) {
+            List<Deletion> batch = claim();
+            if (batch.isEmpty()) {
+                return;
+            }
+            int done = process(batch);
+            if (done == 0 || batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private List<Deletion> claim() {
+        return jdbcTemplate.query(
+                "UPDATE asset_deletions d " +
+                        "SET attempts = d.attempts + 1, next_attempt_at = now() + make_interval(secs => ?) " +
+                        "FROM (SELECT id FROM asset_deletions " +
+                        "WHERE next_attempt_at <= now() AND attempts < ? " +
+                        "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) due " +
+                        "WHERE d.id = due.id " +
+                        "RETURNING d.id, d.url, d.storage_key, d.content_type, d.attempts",
+                (rs, rowNum) -> new Deletion(rs.getLong("id"), rs.getString("url"),
+                        rs.getString("storage_key"), rs.getString("content_type"), rs.getInt("attempts")),
+                CLAIM_LEASE_SECONDS, maxAttempts, batchSize);
+    }
+
+    /**
+     * @return the number of rows settled (deleted, in use or unresolvable)
+     */
+    private int process(List<Deletion> batch) {
+        Set<String> urls = new HashSet<>();
+        for (Deletion d : batch) {
+            urls.add(d.url);
+        }
+
+        Set<String> inUse = referenced(urls);
+        Set<String> unused = new HashSet<>(urls);
+        unused.removeAll(inUse);
+        Map<String, String[]> assets = Collections.emptyMap();
+        if (!unused.isEmpty()) {
+            // stop handing these URLs to new uploads, then check again for a reference made in between
+            Set<String> reused = new HashSet<>();
+            assets = forgetStoredAssets(unused, reused);
+            inUse.addAll(reused);
+            inUse.addAll(referenced(unused));
+        }
+
+        List<Long> settled = new ArrayList<>();
+        Map<String, Map<String, List<Deletion>>> byType = new HashMap<>();
+        for (Deletion d : batch) {
+            if (inUse.contains(d.url)) {
+                skippedInUse.increment();
+                settled.add(d.id);
+                continue;
+            }
+            String[] asset = assets.get(d.url);
+            String key = d.storageKey != null ? d.storageKey
+                    : asset != null && asset[0] != null ? asset[0]
+                    : blobStore.storageKeyOf(d.url);
+            if (key == null) {
+                // not a file this store handed out (e.g. an external link); nothing to delete
+                unresolvable.increment();
+                settled.add(d.id);
+                continue;
+            }
+            String contentType = d.contentType != null ? d.contentType
+                    : asset != null && asset[1] != null ? asset[1]
+                    : URLConnection.guessContentTypeFromName(d.url);
+            byType.computeIfAbsent(contentType, t -> new LinkedHashMap<>())
+                    .computeIfAbsent(key, k -> new ArrayList<>())
+                    .add(d);
+        }
+
+        List<Deletion> failed = new ArrayList<>();
+        String error = null;
+        for (Map.Entry<String, Map<String, List<Deletion>>> group : byType.entrySet()) {
+            String contentType = group.getKey(); // null when unknown
+            Map<String, List<Deletion>> byKey = group.getValue();
+            Set<String> removed;
+            try {
+                removed = blobStore.deleteAll(byKey.keySet(), contentType);
+            } catch (Exception e) {
+                removed = Collections.emptySet();
+                error = e.getMessage();
+            }
+            for (Map.Entry<String, List<Deletion>> entry : byKey.entrySet()) {
+                if (removed.contains(entry.getKey())) {
+                    deleted.increment();
+                    for (Deletion d : entry.getValue()) {
+                        settled.add(d.id);
+                    }
+                } else {
+                    failed.addAll(entry.getValue());
+                }
+            }
+        }
+
+        if (!settled.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM asset_deletions WHERE id = ?", settled, settled.size(),
+                    (ps, id) -> ps.setLong(1, id));
+        }
+        if (!failed.isEmpty()) {
+            failures.add(failed.size());
+            String lastError = error != null ? error : "not deleted by " + blobStore.name();
+            jdbcTemplate.batchUpdate(
+                    "UPDATE asset_deletions SET next_attempt_at = ?, last_error = ? WHERE id = ?",
+                    failed, failed.size(), (ps, d) -> {
+                        ps.setTimestamp(1, Timestamp.from(Instant.now().plusSeconds(backoffSeconds(d.attempts))));
+                        ps.setString(2, lastError);
+                        ps.setLong(3, d.id);
+                    });
+            System.err.println("Asset cleanup: " + failed.size() + " deletes failed, will retry: " + lastError);
+        }
+        return settled.size();
+    }
+
+    static long backoffSeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(BASE_BACKOFF_SECONDS << exponent, MAX_BACKOFF_SECONDS);
+    }
+
+    /**
+     * Removes the stored_assets rows for the URLs unless a dedup hit reused
+     * them within the grace period; those URLs are added to reused (reconcile
+     * queues them again if nothing ends up referencing them).
+     * @return {storage_key, content_type} of the removed rows by URL
+     */
+    private Map<String, String[]> forgetStoredAssets(Set<String> urls, Set<String> reused) {
+        String in = placeholders(urls.size());
+        List<Object> args = new ArrayList<>(urls);
+        args.add((int) orphanGraceHours);
+        args.addAll(urls);
+        Map<String, String[]> assets = new HashMap<>();
+        // the SELECT sees the rows as of statement start, so a row the DELETE skipped is one still in use
+        jdbcTemplate.query(
+                "WITH gone AS (DELETE FROM stored_assets WHERE url IN (" + in + ") " +
+                        "AND (last_used_at IS NULL OR last_used_at < now() - make_interval(hours => ?)) " +
+                        "RETURNING url, storage_key, content_type) " +
+                        "SELECT url, storage_key, content_type, false AS kept FROM gone " +
+                        "UNION ALL " +
+                        "SELECT s.url, NULL, NULL, true FROM stored_assets s WHERE s.url IN (" + in + ") " +
+                        "AND NOT EXISTS (SELECT 1 FROM gone g WHERE g.url = s.url)",
+                rs -> {
+                    if (rs.getBoolean("kept")) {
+                        reused.add(rs.getString("url"));
+                    } else {
+                        assets.put(rs.getString("url"),
+                                new String[] {rs.getString("storage_key"), rs.getString("content_type")});
+                    }
+                },
+                args.toArray());
+        return assets;
+    }
+
+    private Set<String> referenced(Set<String> urls) {
+        String in = placeholders(urls.size());
+        List<String> selects = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        for (String[] ref : REFERENCES) {
+            selects.add("SELECT " + ref[1] + " FROM " + ref[0] + " WHERE " + ref[1] + " IN (" + in + ")");
+            args.addAll(urls);
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(String.join(" UNION ", selects), String.class, args.toArray()));
+    }
+
+    private static String placeholders(int n) {
+        return String.join(", ", Collections.nCopies(n, "?"));
+    }
+
+    /**
+     * Queue stored assets that no row references.
+     * @return the number queued
+     */
+    public int reconcile() {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO asset_deletions (url, storage_key, content_type, reason) " +
+                        "SELECT s.url, s.storage_key, s.content_type, 'orphan' FROM stored_assets s " +
+                        "WHERE COALESCE(s.last_used_at, s.created_at) < now() - make_interval(hours => ?) " +
+                        "AND NOT EXISTS (SELECT 1 FROM asset_deletions q WHERE q.url = s.url)");
+        for (String[] ref : REFERENCES) {
+            sql.append(" AND NOT EXISTS (SELECT 1 FROM ").append(ref[0]).append(" r WHERE r.")
+                    .append(ref[1]).append(" = s.url)");
+        }
+        int queued = jdbcTemplate.update(sql.toString(), (int) orphanGraceHours);
+        orphansQueued.add(queued);
+        if (queued > 0) {
+            System.out.println("Asset cleanup: queued " + queued + " orphaned assets");
+        }
+        return queued;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", blobStore.name());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("deleted", deleted.sum());
+        stats.put("skippedInUse", skippedInUse.sum());
+        stats.put("unresolvable", unresolvable.sum());
+        stats.put("failures", failures.sum());
+        stats.put("orphansQueued", orphansQueued.sum());
+        stats.put("running", running.get());
+        stats.put("lastRunAt", lastRunAt.get() == 0 ? null : Instant.ofEpochMilli(lastRunAt.get()).toString());
+        stats.put("pending", jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM asset_deletions WHERE attempts < ?", Long.class, maxAttempts));
+        stats.put("deadLetters", jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM asset_deletions WHERE attempts >= ?", Long.class, maxAttempts));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private static final class Deletion {
+
+        private final long id;
+        private final String url;
+        private final String storageKey;
+        private final String contentType;
+        private final int attempts;
+
+        Deletion(long id, String url, String storageKey, String contentType, int attempts) {
+            this.id = id;
+            this.url = url;
+            this.storageKey = storageKey;
+            this.contentType = contentType;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.service;
+
+/**
+ * {@link ImportReport} for Bar Council imports, with the reconciliation
+ * counters produced by the set-based stage.
+ */
+public class BarCouncilImportReport extends ImportReport {
+
+    private long duplicateRows;
+    private long alreadyInDirectory;
+    private long lawyersVerified;
+
+    public long getDuplicateRows() {
+        return duplicateRows;
+    }
+
+    public void setDuplicateRows(long duplicateRows) {
+        this.duplicateRows = duplicateRows;
+    }
+
+    public long getAlreadyInDirectory() {
+        return alreadyInDirectory;
+    }
+
+    public void setAlreadyInDirectory(long alreadyInDirectory) {
+        this.alreadyInDirectory = alreadyInDirectory;
+    }
+
+    public long getLawyersVerified() {
+        return lawyersVerified;
+    }
+
+    public void setLawyersVerified(long lawyersVerified) {
+        this.lawyersVerified = lawyersVerified;
+    }
+}
@@ -1,108 +1,156 @@
 package com.example.demo.service;
 
-import com.example.demo.entity.DirectoryEntry;
-import com.example.demo.repository.DirectoryEntryRepository;
+import com.example.demo.util.CsvReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class BarCouncilImportService {
 
-    private final DirectoryEntryRepository directoryEntryRepository;
-    private final com.example.demo.repository.LawyerRepository lawyerRepository;
-
-    public BarCouncilImportService(DirectoryEntryRepository directoryEntryRepository,
-            com.example.demo.repository.LawyerRepository lawyerRepository) {
-        this.directoryEntryRepository = directoryEntryRepository;
-        this.lawyerRepository = lawyerRepository;
+    // Per-transaction staging table; bar_council_key is the case-insensitive ID
+    private static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE bar_council_staging ("
+            + "bar_council_key VARCHAR(255) PRIMARY KEY, "
+            + "bar_council_id VARCHAR(255) NOT NULL, "
+            + "name VARCHAR(255) NOT NULL, "
+            + "state VARCHAR(255), "
+            + "district VARCHAR(255), "
+            + "specialization VARCHAR(255)"
+            + ") ON COMMIT DROP";
+
+    private static final String STAGE_SQL = "INSERT INTO bar_council_staging "
+            + "(bar_council_key, bar_council_id, name, state, district, specialization) "
+            + "VALUES (upper(?), ?, ?, ?, ?, ?) ON CONFLICT (bar_council_key) DO NOTHING";
+
+    // These entries are "Authoritative": simply existing in directory_entries with
+    // type LAWYER makes them a source of truth for lawyer verification. They still
+    // need admin approval before they show up in citizen search.
+    private static final String INSERT_NEW_ENTRIES_SQL = "INSERT INTO directory_entries "
+            + "(name, type, source, bar_council_id, state, district, specialization, verified, approved, created_at) "
+            + "SELECT s.name, 'LAWYER', 'BAR_COUNCIL', s.bar_council_id, s.state, s.district, s.specialization, "
+            + "true, false, LOCALTIMESTAMP "
+            + "FROM bar_council_staging s "
+            + "WHERE NOT EXISTS (SELECT 1 FROM directory_entries d "
+            + "WHERE d.type = 'LAWYER' AND upper(d.bar_council_id) = s.bar_council_key)";
+
+    private static final String VERIFY_LAWYERS_SQL = "UPDATE lawyers l SET verification_status = true "
+            + "FROM bar_council_staging s "
+            + "WHERE upper(l.bar_council_id) = s.bar_council_key AND l.verification_status = false";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public BarCouncilImportService(JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${directory.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
     }
 
     /**
      * Import Lawyers from a CSV file on the classpath (simulating Bar Council DB).
      * Expected header:
      * barCouncilId,name,state,district,specialization,year
+     *
+     * Rows are staged in bulk into a temp table, then new directory entries and
+     * lawyer verification are applied with one set-based statement each, joined
+     * on upper(bar_council_id) (indexed by DatabaseMigration). Cost is linear in
+     * file size instead of rows x lawyers.
      */
-    public void importCSV(String filename) {
-        try {
-            ClassPathResource resource = new ClassPathResource(filename);
-
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-
-                String line;
-                boolean first = true;
-
-                while ((line = reader.readLine()) != null) {
-                    // skip header
-                    if (first) {
-                        first = false;
-                        continue;
-                    }
-
-                    if (line.isBlank()) {
-                        continue;
-                    }
-
-                    String[] parts = line.split(",", -1);
-
-                    // Guard if the row is shorter than expected
-                    if (parts.length < 5) {
-                        continue;
-                    }
-
-                    String barCouncilId = parts[0].trim();
-                    String name = parts[1].trim();
-                    String state = parts[2].trim();
-                    String district = parts[3].trim();
-                    String specialization = parts[4].trim();
-                    // year is parts[5] if needed
-
-                    // Avoid duplicates if needed, or just insert
-                    if (directoryEntryRepository.existsByTypeAndBarCouncilId("LAWYER", barCouncilId)) {
-                        continue;
-                    }
-
-                    DirectoryEntry entry = new DirectoryEntry();
-                    entry.setType("LAWYER");
-                    entry.setSource("BAR_COUNCIL");
-                    entry.setBarCouncilId(barCouncilId);
-                    entry.setName(name);
-                    entry.setState(state);
-                    entry.setDistrict(district);
-                    entry.setSpecialization(specialization);
-
-                    // These entries are "Authoritative" so effectively they define who is verified
-                    // But in our DirectoryEntry logic, 'verified' usually means "Has this entry
-                    // been verified by admin?"
-                    // For the purpose of *matching*, the LawyerController checks
-                    // "existsByTypeAndBarCouncilId".
-                    // So simply existing in this table with Type=LAWYER makes them a "source of
-                    // truth".
-                    entry.setVerified(true);
-
-                    // Imported entries from Bar Council are pre-approved (authoritative source)
-                    entry.setApproved(false);
-
-                    directoryEntryRepository.save(entry);
-
-                    // Update existing lawyers who match this ID
-                    java.util.List<com.example.demo.entity.Lawyer> matchingLawyers = lawyerRepository.findAll();
-                    // Inefficient but safe for now - better to have findByBarCouncilId in repo
-                    // Assuming findAll is okay for small demo
-                    for (com.example.demo.entity.Lawyer lawyer : matchingLawyers) {
-                        if (barCouncilId.equalsIgnoreCase(lawyer.getBarCouncilId())) {
-                            lawyer.setVerificationStatus(true);
-                            lawyerRepository.save(lawyer);
-                        }
-                    }
+    @Transactional
+    public BarCouncilImportReport importCSV(String filename) {
+        BarCouncilImportReport report = new BarCouncilImportReport();
+        long start = System.currentTimeMillis();
+
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+
+        long accepted = 0;
+        ClassPathResource resource = new ClassPathResource(filename);
+        try (CsvReader reader = new CsvReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+
+            // skip header
+            if (reader.readRecord() == null) {
+                return report;
+            }
+
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            List<String> parts;
+            while ((parts = reader.readRecord()) != null) {
+                long row = reader.getRecordLine();
+
+                if (parts.size() == 1 && parts.get(0).isBlank()) {
+                    continue;
+                }
+
+                report.rowParsed();
+
+                // Guard if the row is shorter than expected
+                if (parts.size() < 5) {
+                    report.reject(row, "Expected at least 5 columns, found " + parts.size());
+                    continue;
+                }
+
+                String barCouncilId = parts.get(0).trim();
+                String name = parts.get(1).trim();
+                String state = parts.get(2).trim();
+                String district = parts.get(3).trim();
+                String specialization = parts.get(4).trim();
+                // year is parts[5] if needed
+
+                if (barCouncilId.isEmpty() || name.isEmpty()) {
+                    report.reject(row, "Bar Council ID and name are required");
+                    continue;
+                }
+
+                batch.add(new Object[] { barCouncilId, barCouncilId, name, state, district, specialization });
+                accepted++;
+
+                if (batch.size() >= batchSize) {
+                    jdbcTemplate.batchUpdate(STAGE_SQL, batch);
+                    batch.clear();
                 }
             }
-        } catch (Exception e) {
+
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(STAGE_SQL, batch);
+            }
+        } catch (IOException e) {
             throw new RuntimeException("Failed to import Bar Council CSV", e);
         }
+
+        // temp tables are never auto-analyzed; give the planner real row counts for the joins
+        jdbcTemplate.execute("ANALYZE bar_council_staging");
+
+        Long staged = jdbcTemplate.queryForObject("SELECT count(*) FROM bar_council_staging", Long.class);
+        long stagedRows = staged != null ? staged : 0;
+
+        int inserted = jdbcTemplate.update(INSERT_NEW_ENTRIES_SQL);
+        int verified = jdbcTemplate.update(VERIFY_LAWYERS_SQL);
+
+        report.rowsInserted(inserted);
+        report.setDuplicateRows(accepted - stagedRows);
+        report.setAlreadyInDirectory(stagedRows - inserted);
+        report.setLawyersVerified(verified);
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+
+        // delivered after commit, see DirectoryService
+        eventPublisher.publishEvent(DirectoryChangedEvent.bulk());
+
+        System.out.println("Bar Council import: " + inserted + " new directory entries, "
+                + verified + " lawyers newly verified");
+
+        return report;
     }
 }
@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Where uploaded files are kept. One implementation is active, chosen by
+ * storage.backend: {@link CloudinaryBlobStore} ("cloudinary", the default) or
+ * {@link LocalBlobStore} ("local", files on this server's disk).
+ *
+ * Callers go through {@link StoredAssetService}, which skips the store
+ * entirely for content it has already seen.
+ */
+public interface BlobStore {
+
+    /**
+     * Store a local file and return where it can be fetched from. The file
+     * is left in place; the caller deletes it.
+     * @param contentType MIME type of the file, e.g. "application/pdf"
+     * @param folder logical folder, e.g. "lawyers/aadhar-proof"
+     * @param filename original file name, used as the base of the stored name
+     */
+    UploadedFile put(Path file, String contentType, String folder, String filename) throws IOException;
+
+    /**
+     * Remove a stored file.
+     * @param storageKey the key returned by {@link #put}
+     * @param contentType the type it was stored with
+     * @return true if the file was removed or was already gone
+     * @throws IOException if the store could not be reached; the delete can be retried
+     */
+    boolean delete(String storageKey, String contentType) throws IOException;
+
+    /**
+     * Remove several files stored with the same content type, in as few
+     * calls as the store allows.
+     * @return the keys that were removed or already gone
+     * @throws IOException if the store could not be reached; nothing is known to be removed
+     */
+    default Set<String> deleteAll(Collection<String> storageKeys, String contentType) throws IOException {
+        Set<String> removed = new HashSet<>();
+        for (String key : storageKeys) {
+            if (delete(key, contentType)) {
+                removed.add(key);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * The storage key of a URL this store handed out, for rows that only
+     * kept the URL.
+     * @return null if the URL does not belong to this store
+     */
+    String storageKeyOf(String url);
+
+    /**
+     * Short name for logs and stats.
+     */
+    String name();
+}
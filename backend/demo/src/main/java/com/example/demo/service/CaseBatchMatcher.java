@@ -0,0 +1,326 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Case;
+import com.example.demo.util.CapacitatedAssignment;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Routes the backlog of submitted, unassigned cases to lawyers (and NGOs,
+ * where asked for).
+ *
+ * Cases are read in id-ordered chunks of matching.batch.chunk-size. Each
+ * chunk is scored in parallel on a dedicated fork-join pool (top
+ * matching.batch.candidates providers per case, from the in-memory
+ * {@link ProviderIndex}), then assigned with {@link CapacitatedAssignment}:
+ * a minimum-cost assignment over those candidates where each provider takes
+ * at most its spare capacity (matching.provider-capacity minus its open
+ * cases). Unlike first-come greedy routing, an early case does not take the
+ * only suitable provider of a later one when it had a nearly as good
+ * alternative. Urgent cases cost twice as much to leave unassigned, so they
+ * win contested slots.
+ *
+ * Assignments are written with one batched UPDATE per chunk. Cases with no
+ * available candidate are stamped with match_attempted_at and retried after
+ * matching.batch.retry-minutes. Incident places are not geocoded here, so
+ * proximity comes from district / city names.
+ */
+@Service
+public class CaseBatchMatcher {
+
+    private static final String SELECT_BACKLOG =
+            "SELECT id, specialization, case_type, incident_place, seeking_ngo_help, ngo_type, urgency " +
+                    "FROM citizen_cases " +
+                    "WHERE is_submitted = true AND status = 'SUBMITTED' AND assigned_at IS NULL " +
+                    "AND (match_attempted_at IS NULL OR match_attempted_at < ?) AND id > ? " +
+                    "ORDER BY id LIMIT ?";
+
+    private static final String ASSIGN =
+            "UPDATE citizen_cases SET assigned_lawyer_id = ?, assigned_ngo_id = ?, " +
+                    "assigned_at = now(), match_attempted_at = now(), version = version + 1 " +
+                    "WHERE id = ? AND assigned_at IS NULL";
+
+    private static final String MARK_ATTEMPTED =
+            "UPDATE citizen_cases SET match_attempted_at = now() WHERE id = ? AND assigned_at IS NULL";
+
+    // leaving a case unassigned must cost more than any chain of reassignments it could trigger
+    private static final long UNASSIGNED_COST = 1_000_000_000_000L;
+    private static final double COST_SCALE = 1_000_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CaseMatchingService matchingService;
+    private final ProviderIndex index;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int candidatesPerCase;
+    private final long retryMinutes;
+    private final ForkJoinPool scoringPool;
+    private final ExecutorService runner;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public CaseBatchMatcher(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            CaseMatchingService matchingService,
+                            ProviderIndex index,
+                            @Value("${matching.batch.enabled:true}") boolean enabled,
+                            @Value("${matching.batch.chunk-size:2000}") int chunkSize,
+                            @Value("${matching.batch.candidates:10}") int candidatesPerCase,
+                            @Value("${matching.batch.retry-minutes:60}") long retryMinutes,
+                            @Value("${matching.batch.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.matchingService = matchingService;
+        this.index = index;
+        this.enabled = enabled;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.candidatesPerCase = Math.max(candidatesPerCase, 1);
+        this.retryMinutes = retryMinutes;
+        this.scoringPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "case-batch-matcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // only hands off to the matcher's own thread, so a long backlog never holds up other scheduled jobs
+    @Scheduled(fixedDelayString = "${matching.batch.interval-ms:300000}",
+            initialDelayString = "${matching.batch.interval-ms:300000}")
+    public void scheduledRun() {
+        if (enabled) {
+            runAsync();
+        }
+    }
+
+    /**
+     * @return false if a run is already in progress
+     */
+    public boolean runAsync() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        runner.execute(() -> {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                System.err.println("Case batch matching failed: " + e.getMessage());
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void run() {
+        if (!index.isReady()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Timestamp retryBefore = Timestamp.valueOf(LocalDateTime.now().minusMinutes(retryMinutes));
+        RunTotals totals = new RunTotals();
+
+        long afterId = 0;
+        while (true) {
+            List<Case> chunk = jdbcTemplate.query(SELECT_BACKLOG, (rs, rowNum) -> {
+                Case c = new Case();
+                c.setId(rs.getLong("id"));
+                c.setSpecialization(rs.getString("specialization"));
+                c.setCaseType(rs.getString("case_type"));
+                c.setIncidentPlace(rs.getString("incident_place"));
+                c.setSeekingNgoHelp(rs.getString("seeking_ngo_help"));
+                c.setNgoType(rs.getString("ngo_type"));
+                c.setUrgency(rs.getString("urgency"));
+                return c;
+            }, retryBefore, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            processChunk(chunk, totals);
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", start);
+        report.put("cases", totals.cases);
+        report.put("chunks", totals.chunks);
+        report.put("lawyersAssigned", totals.lawyersAssigned);
+        report.put("ngosAssigned", totals.ngosAssigned);
+        report.put("unassigned", totals.unassigned);
+        report.put("scoringMillis", totals.scoringMillis);
+        report.put("assignmentMillis", totals.assignmentMillis);
+        report.put("writeMillis", totals.writeMillis);
+        report.put("totalMillis", System.currentTimeMillis() - start);
+        lastRun = report;
+        if (totals.cases > 0) {
+            System.out.println("Case batch matching: " + report);
+        }
+    }
+
+    private void processChunk(List<Case> chunk, RunTotals totals) {
+        long t0 = System.currentTimeMillis();
+        List<List<ProviderMatch>> lawyerCandidates = score(chunk, c -> MatchQuery.lawyersFor(c, null, null));
+        List<List<ProviderMatch>> ngoCandidates = score(chunk,
+                c -> MatchQuery.wantsNgo(c) ? MatchQuery.ngosFor(c, null, null) : null);
+        long t1 = System.currentTimeMillis();
+
+        Integer[] lawyers = assign(chunk, lawyerCandidates);
+        Integer[] ngos = assign(chunk, ngoCandidates);
+        long t2 = System.currentTimeMillis();
+
+        List<Object[]> assignments = new ArrayList<>();
+        List<Object[]> attempts = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Long caseId = chunk.get(i).getId();
+            if (lawyers[i] != null || ngos[i] != null) {
+                assignments.add(new Object[] {lawyers[i], ngos[i], caseId});
+            } else {
+                attempts.add(new Object[] {caseId});
+            }
+        }
+
+        int[] written = transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(MARK_ATTEMPTED, attempts, new int[] {Types.BIGINT});
+            return jdbcTemplate.batchUpdate(ASSIGN, assignments, new int[] {Types.INTEGER, Types.INTEGER, Types.BIGINT});
+        });
+        long t3 = System.currentTimeMillis();
+
+        // count load only for rows we actually won (another path may have assigned the case meanwhile)
+        for (int i = 0; i < assignments.size(); i++) {
+            if (written[i] > 0 || written[i] == Statement.SUCCESS_NO_INFO) {
+                Object[] row = assignments.get(i);
+                if (row[0] != null) {
+                    index.adjustLoad((Integer) row[0], 1);
+                    totals.lawyersAssigned++;
+                }
+                if (row[1] != null) {
+                    index.adjustLoad((Integer) row[1], 1);
+                    totals.ngosAssigned++;
+                }
+            }
+        }
+
+        totals.cases += chunk.size();
+        totals.chunks++;
+        totals.unassigned += attempts.size();
+        totals.scoringMillis += t1 - t0;
+        totals.assignmentMillis += t2 - t1;
+        totals.writeMillis += t3 - t2;
+    }
+
+    /**
+     * Top candidates per case, computed on the scoring pool; null entries for
+     * cases the query function skips.
+     */
+    private List<List<ProviderMatch>> score(List<Case> chunk, Function<Case, MatchQuery> queryFor) {
+        return scoringPool.submit(() -> chunk.parallelStream()
+                .map(c -> {
+                    MatchQuery query = queryFor.apply(c);
+                    // a full provider can take no case here, so it must not use up a candidate slot
+                    return query != null ? matchingService.topK(query, candidatesPerCase, true) : null;
+                })
+                .collect(Collectors.toList()))
+                .join();
+    }
+
+    /**
+     * Minimum-cost capacitated assignment of the chunk's cases to their candidates.
+     * @return the assigned provider (directory entry id) per case, or null
+     */
+    private Integer[] assign(List<Case> chunk, List<List<ProviderMatch>> candidates) {
+        Map<Integer, Integer> workerOf = new HashMap<>();
+        List<Integer> providers = new ArrayList<>();
+        for (List<ProviderMatch> matches : candidates) {
+            if (matches == null) {
+                continue;
+            }
+            for (ProviderMatch m : matches) {
+                if (workerOf.putIfAbsent(m.getEntryId(), providers.size()) == null) {
+                    providers.add(m.getEntryId());
+                }
+            }
+        }
+
+        int capacity = matchingService.getProviderCapacity();
+        int[] spare = new int[providers.size()];
+        for (int w = 0; w < spare.length; w++) {
+            spare[w] = capacity - index.load(providers.get(w));
+        }
+
+        CapacitatedAssignment assignment = new CapacitatedAssignment(spare);
+        int[] taskOf = new int[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            List<ProviderMatch> matches = candidates.get(i);
+            if (matches == null) {
+                taskOf[i] = -1;
+                continue;
+            }
+            int[] workers = new int[matches.size()];
+            long[] costs = new long[matches.size()];
+            for (int e = 0; e < matches.size(); e++) {
+                workers[e] = workerOf.get(matches.get(e).getEntryId());
+                // scores are at most ~1.05, so costs stay positive; higher score, lower cost
+                costs[e] = Math.round((2.0 - matches.get(e).getScore()) * COST_SCALE);
+            }
+            long unassigned = "High".equalsIgnoreCase(chunk.get(i).getUrgency()) ? 2 * UNASSIGNED_COST : UNASSIGNED_COST;
+            taskOf[i] = assignment.add(workers, costs, unassigned);
+        }
+
+        Integer[] result = new Integer[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            int worker = taskOf[i] >= 0 ? assignment.workerOf(taskOf[i]) : -1;
+            result[i] = worker >= 0 ? providers.get(worker) : null;
+        }
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("chunkSize", chunkSize);
+        stats.put("parallelism", scoringPool.getParallelism());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        scoringPool.shutdownNow();
+    }
+
+    private static final class RunTotals {
+        private int cases;
+        private int chunks;
+        private int lawyersAssigned;
+        private int ngosAssigned;
+        private int unassigned;
+        private long scoringMillis;
+        private long assignmentMillis;
+        private long writeMillis;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CaseDocument;
+import com.example.demo.entity.StoredAsset;
+import com.example.demo.repository.CaseDocumentRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Uploads the files of one multipart request concurrently and records each
+ * as a case_documents row.
+ *
+ * Each part is validated and moved to a temp file on the request thread
+ * (a rename for parts the container already spooled to disk), then handed to
+ * a bounded pool that stores it through {@link StoredAssetService} (hashed,
+ * and streamed to Cloudinary from the file unless the content is already
+ * stored) and inserts its row. The request therefore waits for its slowest file
+ * rather than the sum of all of them, no upload holds a whole file in heap,
+ * and concurrent uploads to the same case cannot overwrite each other.
+ *
+ * When the pool and its queue are full the submitting request thread runs
+ * the upload itself, which slows that client down instead of failing its
+ * files.
+ */
+@Service
+public class CaseDocumentService {
+
+    public static final long MAX_FILE_SIZE = 2 * 1024 * 1024; // 2MB
+
+    private final StoredAssetService storedAssetService;
+    private final AssetCleanupService assetCleanupService;
+    private final CaseDocumentRepository caseDocumentRepository;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder uploaded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytesUploaded = new LongAdder();
+    private final LongAdder uploadMillis = new LongAdder();
+    private final LongAdder ranOnCaller = new LongAdder();
+
+    public CaseDocumentService(StoredAssetService storedAssetService,
+                               AssetCleanupService assetCleanupService,
+                               CaseDocumentRepository caseDocumentRepository,
+                               @Value("${case.documents.upload-threads:8}") int threads,
+                               @Value("${case.documents.queue-capacity:64}") int queueCapacity) {
+        this.storedAssetService = storedAssetService;
+        this.assetCleanupService = assetCleanupService;
+        this.caseDocumentRepository = caseDocumentRepository;
+
+        int poolSize = Math.max(threads, 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                r -> {
+                    Thread t = new Thread(r, "document-upload-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Document upload pool is shut down");
+                    }
+                    ranOnCaller.increment();
+                    r.run();
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Start uploading every file to the case. Files that fail validation or
+     * cannot be spooled come back as already-completed failures; the returned
+     * futures never complete exceptionally. The caller checks case ownership.
+     * @return one future per file, in request order
+     */
+    public List<CompletableFuture<DocumentUploadResult>> uploadAll(Long caseId, MultipartFile[] files) {
+        String folder = "cases/" + caseId + "/documents";
+        List<CompletableFuture<DocumentUploadResult>> futures = new ArrayList<>(files.length);
+        for (MultipartFile file : files) {
+            futures.add(submit(caseId, file, folder));
+        }
+        return futures;
+    }
+
+    private CompletableFuture<DocumentUploadResult> submit(Long caseId, MultipartFile file, String folder) {
+        String filename = file.getOriginalFilename();
+        String contentType = file.getContentType();
+        long size = file.getSize();
+
+        String invalid = validate(file);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(fail(filename, contentType, size, invalid, 0));
+        }
+
+        Path temp;
+        try {
+            temp = CloudinaryService.spool(file);
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(
+                    fail(filename, contentType, size, "Upload failed - " + e.getMessage(), 0));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    StoredAsset stored = storedAssetService.store(temp, contentType, folder, filename);
+
+                    CaseDocument document = new CaseDocument();
+                    document.setCaseId(caseId);
+                    document.setUrl(stored.getUrl());
+                    document.setStorageKey(stored.getStorageKey());
+                    document.setFilename(filename);
+                    document.setContentType(contentType);
+                    document.setSizeBytes(size);
+                    document.setChecksum(stored.getSha256());
+                    document = caseDocumentRepository.save(document);
+
+                    long millis = (System.nanoTime() - start) / 1_000_000;
+                    uploaded.increment();
+                    bytesUploaded.add(size);
+                    uploadMillis.add(millis);
+                    return DocumentUploadResult.uploaded(document, millis);
+                } catch (Exception e) {
+                    return fail(filename, contentType, size, "Upload failed - " + e.getMessage(),
+                            (System.nanoTime() - start) / 1_000_000);
+                } finally {
+                    deleteQuietly(temp);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(temp);
+            return CompletableFuture.completedFuture(
+                    fail(filename, contentType, size, "Upload failed - server is shutting down", 0));
+        }
+    }
+
+    private static String validate(MultipartFile file) {
+        if (file.isEmpty()) {
+            return "File is empty";
+        }
+        if (file.getSize() > MAX_FILE_SIZE) {
+            return "File size exceeds 2MB limit";
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || (!contentType.equals("application/pdf")
+                && !contentType.startsWith("image/"))) {
+            return "Only PDF and image files allowed";
+        }
+        return null;
+    }
+
+    /**
+     * The case's documents, oldest first (an index range scan on idx_case_documents_case).
+     */
+    public List<CaseDocument> list(Long caseId) {
+        return caseDocumentRepository.findByCaseIdOrderByIdAsc(caseId);
+    }
+
+    /**
+     * Delete one document of the case and queue its file for removal. The
+     * row and the outbox entry commit together, so a file is never orphaned
+     * by a crash in between; the file itself survives while another row
+     * (a deduplicated upload) still uses it.
+     * @return false if the case has no such document
+     */
+    @Transactional
+    public boolean delete(Long caseId, Long documentId) {
+        CaseDocument document = caseDocumentRepository.findById(documentId).orElse(null);
+        if (document == null || !document.getCaseId().equals(caseId)) {
+            return false;
+        }
+        caseDocumentRepository.delete(document);
+        caseDocumentRepository.flush();
+        assetCleanupService.enqueue(document.getUrl(), document.getStorageKey(),
+                document.getContentType(), "case-document");
+        return true;
+    }
+
+    private DocumentUploadResult fail(String filename, String contentType, long size, String error, long millis) {
+        failed.increment();
+        return DocumentUploadResult.failed(filename, contentType, size, error, millis);
+    }
+
+    private static void deleteQuietly(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            System.err.println("Could not delete upload temp file " + temp + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long n = uploaded.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("uploaded", n);
+        stats.put("failed", failed.sum());
+        stats.put("bytesUploaded", bytesUploaded.sum());
+        stats.put("avgUploadMillis", n == 0 ? 0 : uploadMillis.sum() / n);
+        stats.put("ranOnCaller", ranOnCaller.sum());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("dedup", storedAssetService.stats());
+        stats.put("cleanup", assetCleanupService.stats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
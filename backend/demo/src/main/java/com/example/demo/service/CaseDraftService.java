@@ -0,0 +1,374 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Case;
+import com.example.demo.repository.CaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Autosave for draft cases.
+ *
+ * The wizard sends partial updates (a JSON merge patch of changed fields, or a
+ * JSON Patch list of replace/add/remove operations). Patches are validated
+ * immediately but held in memory per case and merged, newest value winning,
+ * until the case has been quiet for case.draft.debounce-ms or
+ * case.draft.max-delay-ms has passed since the first unsaved patch. The flush
+ * loads the row, sets only the patched fields and lets Hibernate write the
+ * dirty columns (Case is @DynamicUpdate) under a version check. On a version
+ * conflict the patch is reapplied once to the fresh row, which is what patch
+ * semantics ask for anyway.
+ *
+ * Anything that reads or writes a case through another path must call
+ * {@link #flush(Long)} first, so an older buffered patch can never land on
+ * top of a newer save.
+ */
+@Service
+public class CaseDraftService {
+
+    private static final Map<String, Field> FIELDS = Map.ofEntries(
+            Map.entry("applicantName", text(Case::setApplicantName)),
+            Map.entry("email", text(Case::setEmail)),
+            Map.entry("mobile", text(Case::setMobile)),
+            Map.entry("aadhaar", text(Case::setAadhaar)),
+            Map.entry("victimName", text(Case::setVictimName)),
+            Map.entry("relation", text(Case::setRelation)),
+            Map.entry("victimGender", text(Case::setVictimGender)),
+            Map.entry("victimAge", integer(Case::setVictimAge)),
+            Map.entry("caseTitle", text(Case::setCaseTitle)),
+            Map.entry("caseType", text(Case::setCaseType)),
+            Map.entry("incidentDate", date(Case::setIncidentDate)),
+            Map.entry("incidentPlace", text(Case::setIncidentPlace)),
+            Map.entry("urgency", text(Case::setUrgency)),
+            Map.entry("specialization", text(Case::setSpecialization)),
+            Map.entry("courtType", text(Case::setCourtType)),
+            Map.entry("seekingNgoHelp", text(Case::setSeekingNgoHelp)),
+            Map.entry("ngoType", text(Case::setNgoType)),
+            Map.entry("background", text(Case::setBackground)),
+            Map.entry("relief", text(Case::setRelief)),
+            Map.entry("currentStep", integer(Case::setCurrentStep)));
+
+    // a scheduled flush that keeps failing is retried this many times before the patch is dropped
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final CaseRepository caseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private final ConcurrentHashMap<Long, PendingDraft> pending = new ConcurrentHashMap<>();
+    // flushes of the same case are serialized so buffered patches land in order
+    private final Object[] flushLocks = new Object[64];
+
+    private final LongAdder patches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder fieldsWritten = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public CaseDraftService(CaseRepository caseRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${case.draft.debounce-ms:2000}") long debounceMillis,
+                            @Value("${case.draft.max-delay-ms:10000}") long maxDelayMillis) {
+        this.caseRepository = caseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = Math.max(maxDelayMillis, debounceMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "case-draft-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < flushLocks.length; i++) {
+            flushLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Buffer a partial update of a draft case.
+     * @param body a merge patch object (field -> value, null clears the field)
+     *             or a JSON Patch operation list
+     * @return the fields now waiting to be written for this case
+     * @throws IllegalArgumentException if the body or a field is invalid
+     * @throws NoSuchElementException if the case is not an unsubmitted draft of this citizen
+     */
+    public Set<String> patch(Long caseId, Integer citizenId, Object body) {
+        Map<String, Object> values = parse(body);
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Patch contains no fields");
+        }
+
+        PendingDraft current = pending.get(caseId);
+        if ((current == null || !current.citizenId.equals(citizenId))
+                && !caseRepository.existsByIdAndCitizenIdAndIsSubmittedFalse(caseId, citizenId)) {
+            throw new NoSuchElementException("Draft case not found");
+        }
+
+        long now = System.currentTimeMillis();
+        PendingDraft[] created = new PendingDraft[1];
+        List<Set<String>> pendingFields = new ArrayList<>(1);
+        pending.compute(caseId, (id, existing) -> {
+            if (existing == null) {
+                existing = new PendingDraft(citizenId, now);
+                created[0] = existing;
+            } else {
+                coalesced.increment();
+            }
+            existing.merge(values, now);
+            pendingFields.add(Set.copyOf(existing.values.keySet()));
+            return existing;
+        });
+        patches.increment();
+
+        if (created[0] != null) {
+            scheduleCheck(caseId, created[0], debounceMillis);
+        }
+        return pendingFields.get(0);
+    }
+
+    /**
+     * Write any buffered patch for the case now.
+     * @return the updated case, or null if nothing was pending
+     */
+    public Case flush(Long caseId) {
+        synchronized (flushLocks[Math.floorMod(caseId.hashCode(), flushLocks.length)]) {
+            PendingDraft draft = pending.remove(caseId);
+            if (draft == null) {
+                return null;
+            }
+            try {
+                return write(caseId, draft);
+            } catch (RuntimeException e) {
+                failures.increment();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Write every buffered patch belonging to this citizen, before listing their cases.
+     */
+    public void flushCitizen(Integer citizenId) {
+        for (Map.Entry<Long, PendingDraft> entry : pending.entrySet()) {
+            if (entry.getValue().citizenId.equals(citizenId)) {
+                flush(entry.getKey());
+            }
+        }
+    }
+
+    private Case write(Long caseId, PendingDraft draft) {
+        try {
+            return writeOnce(caseId, draft);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // someone else updated the row between our read and write; apply the patch to their version
+            conflicts.increment();
+            return writeOnce(caseId, draft);
+        }
+    }
+
+    private Case writeOnce(Long caseId, PendingDraft draft) {
+        Case saved = transactionTemplate.execute(status -> {
+            Case caseEntity = caseRepository.findByIdAndCitizenId(caseId, draft.citizenId).orElse(null);
+            if (caseEntity == null || Boolean.TRUE.equals(caseEntity.getIsSubmitted())) {
+                return null;
+            }
+            // managed entity: only the columns these setters actually change are updated on commit
+            draft.values.forEach((name, value) -> FIELDS.get(name).setter.accept(caseEntity, value));
+            return caseEntity;
+        });
+        if (saved != null) {
+            flushes.increment();
+            fieldsWritten.add(draft.values.size());
+        }
+        return saved;
+    }
+
+    private void scheduleCheck(Long caseId, PendingDraft draft, long delayMillis) {
+        scheduler.schedule(() -> checkDue(caseId, draft), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkDue(Long caseId, PendingDraft draft) {
+        if (pending.get(caseId) != draft) {
+            return; // already flushed, or replaced by a newer draft with its own timer
+        }
+        long now = System.currentTimeMillis();
+        long dueAt = Math.min(draft.lastPatchAt + debounceMillis, draft.firstPatchAt + maxDelayMillis);
+        if (now < dueAt) {
+            scheduleCheck(caseId, draft, dueAt - now);
+            return;
+        }
+
+        try {
+            flush(caseId);
+        } catch (RuntimeException e) {
+            System.err.println("Draft autosave failed for case " + caseId + ": " + e.getMessage());
+            requeue(caseId, draft);
+        }
+    }
+
+    /**
+     * Put a failed patch back underneath anything buffered since, so the newer
+     * values still win, and try again after the debounce interval.
+     */
+    private void requeue(Long caseId, PendingDraft failed) {
+        if (++failed.attempts >= MAX_FLUSH_ATTEMPTS) {
+            System.err.println("Dropping autosave for case " + caseId + " after " + failed.attempts + " attempts");
+            return;
+        }
+        PendingDraft merged = pending.merge(caseId, failed, (newer, older) -> {
+            Map<String, Object> values = new LinkedHashMap<>(older.values);
+            values.putAll(newer.values);
+            newer.values.clear();
+            newer.values.putAll(values);
+            return newer;
+        });
+        if (merged == failed) {
+            scheduleCheck(caseId, failed, debounceMillis);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingCases", pending.size());
+        stats.put("patches", patches.sum());
+        stats.put("coalescedPatches", coalesced.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("fieldsWritten", fieldsWritten.sum());
+        stats.put("versionConflicts", conflicts.sum());
+        stats.put("failures", failures.sum());
+        stats.put("debounceMs", debounceMillis);
+        stats.put("maxDelayMs", maxDelayMillis);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (Long caseId : new ArrayList<>(pending.keySet())) {
+            try {
+                flush(caseId);
+            } catch (RuntimeException e) {
+                System.err.println("Draft autosave failed for case " + caseId + " on shutdown: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Turn a merge patch object or a JSON Patch operation list into validated
+     * field values.
+     */
+    static Map<String, Object> parse(Object body) {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        if (body instanceof Map<?, ?> map) {
+            map.forEach((k, v) -> raw.put(String.valueOf(k), v));
+        } else if (body instanceof List<?> operations) {
+            for (Object item : operations) {
+                if (!(item instanceof Map<?, ?> operation)) {
+                    throw new IllegalArgumentException("Invalid patch operation");
+                }
+                Object op = operation.get("op");
+                Object path = operation.get("path");
+                if (!(path instanceof String p) || !p.startsWith("/") || p.indexOf('/', 1) >= 0) {
+                    throw new IllegalArgumentException("Invalid patch path: " + path);
+                }
+                if ("replace".equals(op) || "add".equals(op)) {
+                    raw.put(p.substring(1), operation.get("value"));
+                } else if ("remove".equals(op)) {
+                    raw.put(p.substring(1), null);
+                } else {
+                    throw new IllegalArgumentException("Unsupported patch operation: " + op);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Patch must be an object or an operation list");
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        raw.forEach((name, value) -> {
+            Field field = FIELDS.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown or read-only field: " + name);
+            }
+            try {
+                values.put(name, value == null ? null : field.parser.apply(value));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid value for " + name);
+            }
+        });
+        return values;
+    }
+
+    private static Field text(BiConsumer<Case, String> setter) {
+        return new Field(Object::toString, (c, v) -> setter.accept(c, (String) v));
+    }
+
+    private static Field integer(BiConsumer<Case, Integer> setter) {
+        return new Field(v -> blank(v) ? null : Integer.valueOf(v.toString().trim()),
+                (c, v) -> setter.accept(c, (Integer) v));
+    }
+
+    private static Field date(BiConsumer<Case, LocalDate> setter) {
+        return new Field(v -> blank(v) ? null : LocalDate.parse(v.toString().trim()),
+                (c, v) -> setter.accept(c, (LocalDate) v));
+    }
+
+    private static boolean blank(Object value) {
+        return value.toString().isBlank();
+    }
+
+    private static final class Field {
+
+        private final Function<Object, Object> parser;
+        private final BiConsumer<Case, Object> setter;
+
+        Field(Function<Object, Object> parser, BiConsumer<Case, Object> setter) {
+            this.parser = parser;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * Buffered values for one case. Only mutated inside ConcurrentHashMap
+     * compute/merge, which also publishes them to the flushing thread.
+     */
+    private static final class PendingDraft {
+
+        private final Integer citizenId;
+        private final long firstPatchAt;
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private volatile long lastPatchAt;
+        private int attempts;
+
+        PendingDraft(Integer citizenId, long now) {
+            this.citizenId = citizenId;
+            this.firstPatchAt = now;
+            this.lastPatchAt = now;
+        }
+
+        void merge(Map<String, Object> patch, long now) {
+            values.putAll(patch);
+            lastPatchAt = now;
+        }
+    }
+}
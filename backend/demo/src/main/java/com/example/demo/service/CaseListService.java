@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Query engine behind /api/cases/my-cases.
+ *
+ * Selects a {@link CaseSummary} projection, so the TEXT columns are never read,
+ * ordered by (updated_at DESC, id DESC). That order matches
+ * idx_citizen_cases_citizen_updated and idx_citizen_cases_citizen_submitted
+ * (see DatabaseMigration), so every page, however deep, is one index range
+ * scan that stops after size + 1 rows.
+ */
+@Service
+public class CaseListService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SELECT_SUMMARY =
+            "SELECT new com.example.demo.service.CaseSummary(" +
+                    "c.id, c.caseNumber, c.caseTitle, c.caseType, c.victimName, c.incidentPlace, " +
+                    "c.urgency, c.courtType, c.status, c.isSubmitted, c.currentStep, " +
+                    // two index probes per row on idx_case_documents_case
+                    "(SELECT d.url FROM CaseDocument d WHERE d.id = " +
+                    "(SELECT MIN(f.id) FROM CaseDocument f WHERE f.caseId = c.id)), " +
+                    "(SELECT COUNT(n) FROM CaseDocument n WHERE n.caseId = c.id), " +
+                    "c.createdAt, c.updatedAt) " +
+                    "FROM Case c WHERE c.citizenId = :citizenId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param submitted null for all cases, otherwise only submitted or only draft cases
+     * @param cursor null for the first page, otherwise the nextCursor of the previous page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPage<CaseSummary> listForCitizen(Integer citizenId, Boolean submitted, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Cursor after = decodeCursor(cursor);
+
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARY);
+        if (submitted != null) {
+            jpql.append(" AND c.isSubmitted = :submitted");
+        }
+        if (after != null) {
+            // the redundant <= bound gives the planner a plain range on the index
+            jpql.append(" AND c.updatedAt <= :afterUpdatedAt")
+                    .append(" AND (c.updatedAt < :afterUpdatedAt OR c.id < :afterId)");
+        }
+        jpql.append(" ORDER BY c.updatedAt DESC, c.id DESC");
+
+        TypedQuery<CaseSummary> query = entityManager.createQuery(jpql.toString(), CaseSummary.class)
+                .setParameter("citizenId", citizenId);
+        if (submitted != null) {
+            query.setParameter("submitted", submitted);
+        }
+        if (after != null) {
+            query.setParameter("afterUpdatedAt", after.updatedAt)
+                    .setParameter("afterId", after.id);
+        }
+
+        // fetch one extra row to learn whether another page exists
+        List<CaseSummary> rows = query.setMaxResults(pageSize + 1).getResultList();
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            CaseSummary last = rows.get(rows.size() - 1);
+            nextCursor = encodeCursor(last.getUpdatedAt(), last.getId());
+        }
+
+        return new CursorPage<>(rows, nextCursor, pageSize);
+    }
+
+    private static String encodeCursor(LocalDateTime updatedAt, Long id) {
+        String raw = updatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = decoded.indexOf('|');
+            return new Cursor(LocalDateTime.parse(decoded.substring(0, sep)),
+                    Long.valueOf(decoded.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static final class Cursor {
+
+        private final LocalDateTime updatedAt;
+        private final Long id;
+
+        Cursor(LocalDateTime updatedAt, Long id) {
+            this.updatedAt = updatedAt;
+            this.id = id;
+        }
+    }
+}
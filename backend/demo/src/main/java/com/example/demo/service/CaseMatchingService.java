@@ -0,0 +1,290 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Case;
+import com.example.demo.util.GeoHash;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Ranks approved lawyers and NGOs for a case.
+ *
+ * Candidates come from {@link ProviderIndex} postings: providers with a
+ * wanted specialization, else the fallback specialization, else providers in
+ * the incident's district or city, else every provider of the type. Each
+ * candidate is scored in [0, 1] on
+ * <ul>
+ *   <li>specialization fit (1 for a wanted phrase, 0.6 for a fallback one),</li>
+ *   <li>proximity (1 / (1 + km / matching.proximity-scale-km) with coordinates,
+ *       otherwise district / city / state agreement with the incident place),</li>
+ *   <li>experience (years capped at 25; NGOs are neutral),</li>
+ *   <li>spare capacity (1 - open cases / matching.provider-capacity),</li>
+ * </ul>
+ * weighted and kept in a size-k min-heap, so a query costs one pass over the
+ * candidate set and allocates only for the top k.
+ */
+@Service
+public class CaseMatchingService {
+
+    private static final double SPECIALIZATION_WEIGHT = 0.40;
+    private static final double PROXIMITY_WEIGHT = 0.30;
+    private static final double EXPERIENCE_WEIGHT = 0.15;
+    private static final double CAPACITY_WEIGHT = 0.15;
+    private static final double VERIFIED_BONUS = 0.05;
+    private static final int EXPERIENCE_CAP_YEARS = 25;
+
+    public static final int MAX_K = 50;
+
+    private final ProviderIndex index;
+    private final GeocodingService geocodingService;
+    private final int providerCapacity;
+    private final double proximityScaleKm;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder candidatesScored = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public CaseMatchingService(ProviderIndex index,
+                               GeocodingService geocodingService,
+                               @Value("${matching.provider-capacity:25}") int providerCapacity,
+                               @Value("${matching.proximity-scale-km:25}") double proximityScaleKm) {
+        this.index = index;
+        this.geocodingService = geocodingService;
+        this.providerCapacity = Math.max(providerCapacity, 1);
+        this.proximityScaleKm = proximityScaleKm;
+    }
+
+    /**
+     * Top-k lawyers, and NGOs if the case asked for NGO help.
+     * @param latitude incident coordinates; when null the incident place is geocoded (cached)
+     * @throws IllegalStateException if the provider index has not finished loading
+     */
+    public Map<String, Object> matchCase(Case c, Double latitude, Double longitude, int k) {
+        if (!index.isReady()) {
+            throw new IllegalStateException("Matching index is still loading");
+        }
+        int limit = Math.min(Math.max(k, 1), MAX_K);
+
+        if (latitude == null || longitude == null) {
+            double[] point = geocode(c.getIncidentPlace());
+            latitude = point != null ? point[0] : null;
+            longitude = point != null ? point[1] : null;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("caseId", c.getId());
+        result.put("lawyers", topK(MatchQuery.lawyersFor(c, latitude, longitude), limit));
+        if (MatchQuery.wantsNgo(c)) {
+            result.put("ngos", topK(MatchQuery.ngosFor(c, latitude, longitude), limit));
+        }
+        return result;
+    }
+
+    /**
+     * The k best providers for the query, best first. Providers at capacity
+     * are skipped only for urgent cases.
+     */
+    public List<ProviderMatch> topK(MatchQuery query, int k) {
+        return topK(query, k, query.isUrgent());
+    }
+
+    /**
+     * The k best providers for the query, best first.
+     * @param availableOnly skip providers already at capacity, e.g. when the
+     *                      caller assigns from the result rather than showing it
+     */
+    public List<ProviderMatch> topK(MatchQuery query, int k, boolean availableOnly) {
+        long start = System.nanoTime();
+
+        Set<Integer> candidates = candidates(query);
+        PriorityQueue<ProviderMatch> heap = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(ProviderMatch::getScore));
+        int scored = 0;
+
+        for (Integer id : candidates) {
+            ProviderIndex.Provider provider = index.get(id);
+            if (provider == null) {
+                continue; // removed since the postings were read
+            }
+            int load = index.load(id);
+            if (availableOnly && load >= providerCapacity) {
+                continue;
+            }
+            scored++;
+
+            double specialization = specializationScore(query, provider);
+            Double distanceKm = distanceKm(query, provider);
+            double proximity = distanceKm != null
+                    ? 1.0 / (1.0 + distanceKm / proximityScaleKm)
+                    : placeScore(query, provider);
+            double score = SPECIALIZATION_WEIGHT * specialization
+                    + PROXIMITY_WEIGHT * proximity
+                    + EXPERIENCE_WEIGHT * experienceScore(provider)
+                    + CAPACITY_WEIGHT * capacityScore(load)
+                    + (provider.isVerified() ? VERIFIED_BONUS : 0);
+
+            if (heap.size() < k) {
+                heap.add(new ProviderMatch(provider, distanceKm, load, score, specialization, proximity));
+            } else if (score > heap.peek().getScore()) {
+                heap.poll();
+                heap.add(new ProviderMatch(provider, distanceKm, load, score, specialization, proximity));
+            }
+        }
+
+        List<ProviderMatch> ranked = new ArrayList<>(heap);
+        ranked.sort(Comparator.comparingDouble(ProviderMatch::getScore).reversed());
+
+        long elapsed = System.nanoTime() - start;
+        queries.increment();
+        candidatesScored.add(scored);
+        totalNanos.add(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+        return ranked;
+    }
+
+    public int getProviderCapacity() {
+        return providerCapacity;
+    }
+
+    private Set<Integer> candidates(MatchQuery query) {
+        String type = query.getType();
+
+        Set<Integer> ids = union(query.getSpecializations(), p -> ProviderIndex.specializationKey(type, p));
+        if (ids.isEmpty()) {
+            ids = union(query.getFallbackSpecializations(), p -> ProviderIndex.specializationKey(type, p));
+        }
+        if (ids.isEmpty()) {
+            Set<String> placeKeys = new HashSet<>();
+            for (String place : query.getPlaces()) {
+                placeKeys.add(ProviderIndex.placeKey(type, "d", place));
+                placeKeys.add(ProviderIndex.placeKey(type, "c", place));
+            }
+            ids = union(placeKeys, key -> key);
+        }
+        if (ids.isEmpty()) {
+            ids = index.postings(ProviderIndex.allKey(type));
+        }
+        return ids;
+    }
+
+    private Set<Integer> union(Set<String> phrases, Function<String, String> toKey) {
+        Set<Integer> single = null;
+        Set<Integer> merged = null;
+        for (String phrase : phrases) {
+            Set<Integer> ids = index.postings(toKey.apply(phrase));
+            if (ids.isEmpty()) {
+                continue;
+            }
+            if (single == null) {
+                single = ids; // common case: one phrase, no copy
+            } else {
+                if (merged == null) {
+                    merged = new HashSet<>(single);
+                }
+                merged.addAll(ids);
+            }
+        }
+        if (merged != null) {
+            return merged;
+        }
+        return single != null ? single : Collections.emptySet();
+    }
+
+    private static double specializationScore(MatchQuery query, ProviderIndex.Provider provider) {
+        if (query.getSpecializations().isEmpty()) {
+            return 0.5; // no preference stated
+        }
+        for (String phrase : query.getSpecializations()) {
+            if (provider.getSpecializations().contains(phrase)) {
+                return 1.0;
+            }
+        }
+        for (String phrase : query.getFallbackSpecializations()) {
+            if (provider.getSpecializations().contains(phrase)) {
+                return 0.6;
+            }
+        }
+        return 0.0;
+    }
+
+    private static Double distanceKm(MatchQuery query, ProviderIndex.Provider provider) {
+        if (!query.hasCoordinates() || !provider.hasCoordinates()) {
+            return null;
+        }
+        return GeoHash.distanceKm(query.getLatitude(), query.getLongitude(),
+                provider.getLatitude(), provider.getLongitude());
+    }
+
+    private static double placeScore(MatchQuery query, ProviderIndex.Provider provider) {
+        Set<String> places = query.getPlaces();
+        if (provider.getNormalizedDistrict() != null && places.contains(provider.getNormalizedDistrict())) {
+            return 1.0;
+        }
+        if (provider.getNormalizedCity() != null && places.contains(provider.getNormalizedCity())) {
+            return 0.9;
+        }
+        if (provider.getNormalizedState() != null && places.contains(provider.getNormalizedState())) {
+            return 0.5;
+        }
+        return 0.0;
+    }
+
+    private static double experienceScore(ProviderIndex.Provider provider) {
+        if (ProviderIndex.NGO.equals(provider.getType())) {
+            return 0.5;
+        }
+        Integer years = provider.getExperienceYears();
+        if (years == null) {
+            return 0.3;
+        }
+        return Math.min(Math.max(years, 0), EXPERIENCE_CAP_YEARS) / (double) EXPERIENCE_CAP_YEARS;
+    }
+
+    private double capacityScore(int load) {
+        return load >= providerCapacity ? 0.0 : 1.0 - (double) load / providerCapacity;
+    }
+
+    private double[] geocode(String place) {
+        if (place == null || place.isBlank()) {
+            return null;
+        }
+        try {
+            GeocodeResult result = geocodingService.geocode(place);
+            if (!result.isFound()) {
+                return null;
+            }
+            return new double[] {
+                    Double.parseDouble(result.getLatitude()),
+                    Double.parseDouble(result.getLongitude())
+            };
+        } catch (RuntimeException e) {
+            // fall back to matching on district / city names
+            return null;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long n = queries.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queries", n);
+        stats.put("avgCandidates", n == 0 ? 0 : candidatesScored.sum() / n);
+        stats.put("avgMicros", n == 0 ? 0 : totalNanos.sum() / n / 1000);
+        stats.put("maxMicros", maxNanos.get() / 1000);
+        stats.put("providerCapacity", providerCapacity);
+        stats.put("index", index.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * List-view projection of a case: everything the My Cases cards show, without
+ * the TEXT columns (background, relief) or the documents list. The full case
+ * and its documents are fetched when its details are opened.
+ */
+public class CaseSummary {
+
+    private final Long id;
+    private final String caseNumber;
+    private final String caseTitle;
+    private final String caseType;
+    private final String victimName;
+    private final String incidentPlace;
+    private final String urgency;
+    private final String courtType;
+    private final String status;
+    private final Boolean isSubmitted;
+    private final Integer currentStep;
+    private final String firstDocumentUrl;
+    private final long documentCount;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public CaseSummary(Long id, String caseNumber, String caseTitle, String caseType, String victimName,
+                       String incidentPlace, String urgency, String courtType, String status,
+                       Boolean isSubmitted, Integer currentStep, String firstDocumentUrl,
+                       Long documentCount,
+                       LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.caseNumber = caseNumber;
+        this.caseTitle = caseTitle;
+        this.caseType = caseType;
+        this.victimName = victimName;
+        this.incidentPlace = incidentPlace;
+        this.urgency = urgency;
+        this.courtType = courtType;
+        this.status = status;
+        this.isSubmitted = isSubmitted;
+        this.currentStep = currentStep;
+        this.firstDocumentUrl = firstDocumentUrl;
+        this.documentCount = documentCount != null ? documentCount : 0;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+
+    public String getCaseNumber() { return caseNumber; }
+
+    public String getCaseTitle() { return caseTitle; }
+
+    public String getCaseType() { return caseType; }
+
+    public String getVictimName() { return victimName; }
+
+    public String getIncidentPlace() { return incidentPlace; }
+
+    public String getUrgency() { return urgency; }
+
+    public String getCourtType() { return courtType; }
+
+    public String getStatus() { return status; }
+
+    public Boolean getIsSubmitted() { return isSubmitted; }
+
+    public Integer getCurrentStep() { return currentStep; }
+
+    public String getFirstDocumentUrl() { return firstDocumentUrl; }
+
+    public long getDocumentCount() { return documentCount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores files in Cloudinary: PDFs as "raw" resources, everything else as
+ * images. The SDK streams the file from disk. Bulk deletes go through the
+ * Admin API, up to 100 public ids per call.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryBlobStore implements BlobStore {
+
+    // Admin API limit for delete_resources
+    private static final int DELETE_BATCH = 100;
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryBlobStore(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+
+    @Override
+    public UploadedFile put(Path file, String contentType, String folder, String filename) throws IOException {
+        Map<String, Object> uploadOptions = ObjectUtils.asMap(
+            "resource_type", resourceType(contentType),
+            "folder", folder,
+            "use_filename", true,
+            "unique_filename", true,
+            "overwrite", false
+        );
+        if (filename != null && !filename.isBlank()) {
+            // the SDK would otherwise name the asset after the temp file
+            uploadOptions.put("filename_override", filename);
+        }
+
+        Map<?, ?> uploadResult = cloudinary.uploader().upload(file.toFile(), uploadOptions);
+
+        return new UploadedFile((String) uploadResult.get("secure_url"), (String) uploadResult.get("public_id"));
+    }
+
+    @Override
+    public boolean delete(String storageKey, String contentType) throws IOException {
+        Map<?, ?> result = cloudinary.uploader().destroy(storageKey,
+                ObjectUtils.asMap("resource_type", resourceType(contentType), "invalidate", true));
+        Object outcome = result.get("result");
+        return "ok".equals(outcome) || "not found".equals(outcome);
+    }
+
+    @Override
+    public Set<String> deleteAll(Collection<String> storageKeys, String contentType) throws IOException {
+        Set<String> removed = new HashSet<>();
+        List<String> keys = new ArrayList<>(storageKeys);
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH) {
+            List<String> batch = keys.subList(from, Math.min(from + DELETE_BATCH, keys.size()));
+            Map<?, ?> result;
+            try {
+                result = cloudinary.api().deleteResources(batch,
+                        ObjectUtils.asMap("resource_type", resourceType(contentType), "invalidate", true));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                // the SDK reports rate limits and server errors as plain Exceptions
+                throw new IOException(e.getMessage(), e);
+            }
+            if (result.get("deleted") instanceof Map<?, ?> deleted) {
+                for (String key : batch) {
+                    Object outcome = deleted.get(key);
+                    if ("deleted".equals(outcome) || "not_found".equals(outcome)) {
+                        removed.add(key);
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * The public id in a delivery URL such as
+     * https://res.cloudinary.com/demo/raw/upload/v1712/lawyers/aadhar-proof/scan_ab12.pdf,
+     * keeping the folder path ("lawyers/aadhar-proof/scan_ab12.pdf"). Raw
+     * public ids include the extension; image ones do not.
+     */
+    @Override
+    public String storageKeyOf(String url) {
+        if (url == null || !url.contains("res.cloudinary.com/")) {
+            return null;
+        }
+        int upload = url.indexOf("/upload/");
+        if (upload < 0) {
+            return null;
+        }
+        String path = url.substring(upload + "/upload/".length());
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+
+        // everything after the version segment, if there is one (transformations come before it)
+        String[] segments = path.split("/");
+        int first = 0;
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (segments[i].matches("v\\d+")) {
+                first = i + 1;
+                break;
+            }
+        }
+        String publicId = URLDecoder.decode(
+                String.join("/", Arrays.copyOfRange(segments, first, segments.length)),
+                StandardCharsets.UTF_8);
+
+        boolean raw = url.substring(0, upload).endsWith("/raw");
+        if (!raw) {
+            int slash = publicId.lastIndexOf('/');
+            int dot = publicId.lastIndexOf('.');
+            if (dot > slash) {
+                publicId = publicId.substring(0, dot);
+            }
+        }
+        return publicId.isEmpty() ? null : publicId;
+    }
+
+    @Override
+    public String name() {
+        return "cloudinary";
+    }
+
+    static String resourceType(String contentType) {
+        return contentType != null && contentType.startsWith("image/") ? "image" : "raw";
+    }
+}
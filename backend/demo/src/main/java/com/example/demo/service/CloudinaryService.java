@@ -1,22 +1,26 @@
 package com.example.demo.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Map;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @Service
 public class CloudinaryService {
 
-    private final Cloudinary cloudinary;
+    private final StoredAssetService storedAssetService;
+    private final AssetCleanupService assetCleanupService;
+    private final ImageProcessingService imageProcessingService;
 
     @Autowired
-    public CloudinaryService(Cloudinary cloudinary) {
-        this.cloudinary = cloudinary;
+    public CloudinaryService(StoredAssetService storedAssetService, AssetCleanupService assetCleanupService,
+                             ImageProcessingService imageProcessingService) {
+        this.storedAssetService = storedAssetService;
+        this.assetCleanupService = assetCleanupService;
+        this.imageProcessingService = imageProcessingService;
     }
 
     /**
@@ -44,114 +48,100 @@ public class CloudinaryService {
         }
 
         try {
-            // Upload options
-            Map<String, Object> uploadOptions = ObjectUtils.asMap(
-                "resource_type", "raw", // Use "raw" for PDF files
-                "folder", folder != null ? folder : "lawyers",
-                "use_filename", true,
-                "unique_filename", true,
-                "overwrite", false
-            );
-
-            // Upload file to Cloudinary
-            Map<?, ?> uploadResult = cloudinary.uploader().upload(
-                file.getBytes(),
-                uploadOptions
-            );
-
-            // Return the secure URL
-            return (String) uploadResult.get("secure_url");
-
+            return upload(file, folder != null ? folder : "lawyers");
         } catch (IOException e) {
             throw new IOException("Failed to upload file to Cloudinary: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Upload an image file to Cloudinary
-     * @param file The multipart file to upload
-     * @param folder Optional folder name in Cloudinary (e.g., "citizens/profile-photos")
-     * @return The public URL of the uploaded image
-     * @throws IOException if upload fails
+     * Upload a profile photo as a downscaled display image and a square
+     * thumbnail (see ImageProcessingService); the original is not stored.
+     * @param file The multipart image to upload
+     * @param folder Folder name in Cloudinary (e.g., "citizens/profile-photos")
+     * @return The URLs of both renditions
+     * @throws IllegalArgumentException if the file is not an acceptable image
+     * @throws IOException if processing or upload fails
      */
-    public String uploadImage(MultipartFile file, String folder) throws IOException {
+    public ProfilePhoto uploadProfilePhoto(MultipartFile file, String folder) throws IOException {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be null or empty");
         }
 
-        // Validate file type - only images
         String contentType = file.getContentType();
         if (contentType == null || !contentType.startsWith("image/")) {
             throw new IllegalArgumentException("Only image files are allowed. Received: " + contentType);
         }
 
-        // Validate file size - max 5MB
         long maxSize = 5 * 1024 * 1024; // 5MB
         if (file.getSize() > maxSize) {
             throw new IllegalArgumentException("Image size must be less than 5MB");
         }
 
+        String name = baseName(file.getOriginalFilename());
+        Path temp = spool(file);
+        ImageRenditions renditions = null;
         try {
-            // Upload options for images
-            Map<String, Object> uploadOptions = ObjectUtils.asMap(
-                "resource_type", "image", // Use "image" for image files
-                "folder", folder != null ? folder : "citizens/profile-photos",
-                "use_filename", true,
-                "unique_filename", true,
-                "overwrite", false
-            );
-
-            // Upload file to Cloudinary
-            Map<?, ?> uploadResult = cloudinary.uploader().upload(
-                file.getBytes(),
-                uploadOptions
-            );
-
-            // Return the secure URL
-            return (String) uploadResult.get("secure_url");
-
+            renditions = imageProcessingService.process(temp);
+            String url = storedAssetService.store(renditions.getDisplay(), "image/jpeg",
+                    folder, name + ".jpg").getUrl();
+            String thumbnailUrl = storedAssetService.store(renditions.getThumbnail(), "image/jpeg",
+                    folder, name + "-thumb.jpg").getUrl();
+            return new ProfilePhoto(url, thumbnailUrl);
         } catch (IOException e) {
             throw new IOException("Failed to upload image to Cloudinary: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(temp);
+            if (renditions != null) {
+                Files.deleteIfExists(renditions.getDisplay());
+                Files.deleteIfExists(renditions.getThumbnail());
+            }
         }
     }
 
-    /**
-     * Delete a file from Cloudinary using its public ID or URL
-     * @param publicIdOrUrl The public ID or URL of the file to delete
-     * @return true if deletion was successful
-     */
-    public boolean deleteFile(String publicIdOrUrl) {
-        try {
-            // Extract public ID from URL if URL is provided
-            String publicId = extractPublicId(publicIdOrUrl);
-            
-            Map<?, ?> result = cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
-            return "ok".equals(result.get("result"));
-        } catch (Exception e) {
-            System.err.println("Error deleting file from Cloudinary: " + e.getMessage());
-            return false;
+    private static String baseName(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "photo";
         }
+        String name = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
     }
 
     /**
-     * Extract public ID from Cloudinary URL
+     * Move a multipart part to a temp file. Parts above the multipart size
+     * threshold are already on disk, so this is usually a rename rather than a
+     * copy; the caller deletes the file when done with it.
      */
-    private String extractPublicId(String url) {
-        if (url == null || url.isEmpty()) {
-            return url;
+    public static Path spool(MultipartFile file) throws IOException {
+        Path temp = Files.createTempFile("upload-", ".part");
+        try {
+            file.transferTo(temp);
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
         }
-        
-        // Cloudinary URL format: https://res.cloudinary.com/{cloud_name}/raw/upload/{version}/{public_id}
-        // Extract public_id from URL
+    }
+
+    // identical content that is already stored comes back without another upload (see StoredAssetService)
+    private String upload(MultipartFile file, String folder) throws IOException {
+        Path temp = spool(file);
         try {
-            String[] parts = url.split("/");
-            String publicIdWithExt = parts[parts.length - 1];
-            // Remove file extension if present
-            return publicIdWithExt.substring(0, publicIdWithExt.lastIndexOf('.'));
-        } catch (Exception e) {
-            // If extraction fails, return as is (might be a public ID already)
-            return url;
+            return storedAssetService.store(temp, file.getContentType(), folder, file.getOriginalFilename()).getUrl();
+        } finally {
+            Files.deleteIfExists(temp);
         }
     }
-}
 
+    /**
+     * Queue a stored file for deletion. The file is removed in the background
+     * once nothing references its URL any more (see AssetCleanupService), so
+     * this never waits on Cloudinary.
+     * @param url The URL returned when the file was uploaded
+     * @param reason Short label for the outbox row, e.g. "profile-photo"
+     */
+    public void deleteFile(String url, String reason) {
+        assetCleanupService.enqueue(url, reason);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result. Pass {@link #getNextCursor()} back as
+ * the cursor to fetch the following page; it is null on the last page.
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final int size;
+
+    public CursorPage(List<T> content, String nextCursor, int size) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.size = size;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
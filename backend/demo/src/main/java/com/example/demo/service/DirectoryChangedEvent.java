@@ -0,0 +1,23 @@
+package com.example.demo.service;
+
+/**
+ * Published whenever directory_entries changes, so cached search results and
+ * entries can be dropped. {@code entryId} is null for bulk changes such as
+ * imports.
+ */
+public class DirectoryChangedEvent {
+
+    private final Integer entryId;
+
+    public DirectoryChangedEvent(Integer entryId) {
+        this.entryId = entryId;
+    }
+
+    public static DirectoryChangedEvent bulk() {
+        return new DirectoryChangedEvent(null);
+    }
+
+    public Integer getEntryId() {
+        return entryId;
+    }
+}
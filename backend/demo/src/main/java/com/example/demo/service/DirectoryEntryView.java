@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DirectoryEntry;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a directory entry as the public API returns it (the same
+ * JSON as the entity). {@link DirectoryService} caches these rather than
+ * managed entities, so a cached value can neither be changed by a later
+ * persistence context nor hold one open.
+ */
+public final class DirectoryEntryView {
+
+    private final Integer id;
+    private final String name;
+    private final String type;
+    private final String source;
+    private final String registrationNumber;
+    private final String specialization;
+    private final String barCouncilId;
+    private final String contactPhone;
+    private final String contactEmail;
+    private final String country;
+    private final String state;
+    private final String district;
+    private final String city;
+    private final boolean verified;
+    private final Integer experienceYears;
+    private final boolean approved;
+    private final Double latitude;
+    private final Double longitude;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    private DirectoryEntryView(DirectoryEntry e) {
+        this.id = e.getId();
+        this.name = e.getName();
+        this.type = e.getType();
+        this.source = e.getSource();
+        this.registrationNumber = e.getRegistrationNumber();
+        this.specialization = e.getSpecialization();
+        this.barCouncilId = e.getBarCouncilId();
+        this.contactPhone = e.getContactPhone();
+        this.contactEmail = e.getContactEmail();
+        this.country = e.getCountry();
+        this.state = e.getState();
+        this.district = e.getDistrict();
+        this.city = e.getCity();
+        this.verified = e.isVerified();
+        this.experienceYears = e.getExperienceYears();
+        this.approved = e.isApproved();
+        this.latitude = e.getLatitude();
+        this.longitude = e.getLongitude();
+        this.createdAt = e.getCreatedAt();
+        this.updatedAt = e.getUpdatedAt();
+    }
+
+    public static DirectoryEntryView of(DirectoryEntry entry) {
+        return new DirectoryEntryView(entry);
+    }
+
+    public Integer getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getType() { return type; }
+
+    public String getSource() { return source; }
+
+    public String getRegistrationNumber() { return registrationNumber; }
+
+    public String getSpecialization() { return specialization; }
+
+    public String getBarCouncilId() { return barCouncilId; }
+
+    public String getContactPhone() { return contactPhone; }
+
+    public String getContactEmail() { return contactEmail; }
+
+    public String getCountry() { return country; }
+
+    public String getState() { return state; }
+
+    public String getDistrict() { return district; }
+
+    public String getCity() { return city; }
+
+    public boolean isVerified() { return verified; }
+
+    public Integer getExperienceYears() { return experienceYears; }
+
+    public boolean isApproved() { return approved; }
+
+    public Double getLatitude() { return latitude; }
+
+    public Double getLongitude() { return longitude; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
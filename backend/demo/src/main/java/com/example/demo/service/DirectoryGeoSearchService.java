@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DirectoryEntry;
+import com.example.demo.util.GeoHash;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Proximity search over approved directory entries.
+ *
+ * Candidates come from the geohash column: the 3x3 block of cells around the
+ * search point, at a precision whose cells are at least the radius across, is
+ * a handful of prefix ranges on idx_directory_entries_geohash. Postgres then
+ * computes the haversine distance for those candidates only, drops the ones
+ * outside the radius and returns the nearest {@code limit} in order, so the
+ * result is exact however dense the cells are.
+ */
+@Service
+public class DirectoryGeoSearchService {
+
+    public static final int MAX_LIMIT = 100;
+
+    // same formula and earth radius as GeoHash.distanceKm
+    private static final String DISTANCE_SQL = "2 * 6371.0088 * asin(least(1, sqrt("
+            + "power(sin(radians(d.latitude - :lat) / 2), 2) + "
+            + "cos(radians(:lat)) * cos(radians(d.latitude)) * power(sin(radians(d.longitude - :lon) / 2), 2))))";
+
+    private static final double KNN_START_RADIUS_KM = 2.0;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final double maxRadiusKm;
+
+    public DirectoryGeoSearchService(@Value("${directory.geo.max-radius-km:500}") double maxRadiusKm) {
+        this.maxRadiusKm = maxRadiusKm;
+    }
+
+    /**
+     * Entries within radiusKm of the point, nearest first. With no radius, the
+     * {@code limit} nearest entries within the configured maximum radius.
+     * @throws IllegalArgumentException for out-of-range coordinates or radius
+     */
+    public List<NearbyResult> nearby(double latitude, double longitude, Double radiusKm, String type, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be in [-90, 90] and longitude in [-180, 180]");
+        }
+        if (radiusKm != null && (radiusKm <= 0 || radiusKm > maxRadiusKm)) {
+            throw new IllegalArgumentException("radiusKm must be greater than 0 and at most " + maxRadiusKm);
+        }
+        int max = Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        if (radiusKm != null) {
+            return withinRadius(latitude, longitude, radiusKm, type, max);
+        }
+
+        // k-nearest: widen the search circle until it holds enough entries
+        double radius = Math.min(KNN_START_RADIUS_KM, maxRadiusKm);
+        while (true) {
+            List<NearbyResult> results = withinRadius(latitude, longitude, radius, type, max);
+            if (results.size() >= max || radius >= maxRadiusKm) {
+                return results;
+            }
+            radius = Math.min(radius * 4, maxRadiusKm);
+        }
+    }
+
+    private List<NearbyResult> withinRadius(double latitude, double longitude, double radiusKm,
+                                            String type, int limit) {
+        int precision = GeoHash.precisionForRadius(radiusKm, latitude);
+        Set<String> cells = GeoHash.coveringCells(latitude, longitude, precision);
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT d.* FROM directory_entries d WHERE d.approved = true AND (");
+        int i = 0;
+        for (String ignored : cells) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append("d.geohash LIKE :c").append(i++);
+        }
+        sql.append(") AND d.latitude IS NOT NULL AND d.longitude IS NOT NULL");
+        sql.append(" AND ").append(DISTANCE_SQL).append(" <= :radius");
+        boolean filterType = type != null && !type.isBlank();
+        if (filterType) {
+            sql.append(" AND d.type = :type");
+        }
+        sql.append(" ORDER BY ").append(DISTANCE_SQL).append(", d.id");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), DirectoryEntry.class);
+        i = 0;
+        for (String cell : cells) {
+            // geohash alphabet has no LIKE wildcards, so no escaping needed
+            query.setParameter("c" + i++, cell + "%");
+        }
+        if (filterType) {
+            query.setParameter("type", type.trim());
+        }
+        query.setParameter("lat", latitude);
+        query.setParameter("lon", longitude);
+        query.setParameter("radius", radiusKm);
+        query.setMaxResults(limit);
+
+        @SuppressWarnings("unchecked")
+        List<DirectoryEntry> nearest = query.getResultList();
+
+        List<NearbyResult> results = new ArrayList<>(nearest.size());
+        for (DirectoryEntry entry : nearest) {
+            double distance = GeoHash.distanceKm(latitude, longitude, entry.getLatitude(), entry.getLongitude());
+            results.add(new NearbyResult(entry, distance));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs directory uploads as background jobs.
+ *
+ * The upload is spooled to a temp file (the multipart file disappears once the
+ * request ends) and imported on a small bounded pool. At most
+ * {@code directory.import.max-concurrent-jobs} imports run at once and at most
+ * {@code directory.import.queue-capacity} wait, so imports cannot take over the
+ * connection pool from interactive traffic.
+ */
+@Service
+public class DirectoryImportJobService {
+
+    private final DirectoryImportService importService;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final long retentionMinutes;
+
+    public DirectoryImportJobService(DirectoryImportService importService,
+            @Value("${directory.import.max-concurrent-jobs:1}") int maxConcurrentJobs,
+            @Value("${directory.import.queue-capacity:10}") int queueCapacity,
+            @Value("${directory.import.job-retention-minutes:60}") long retentionMinutes) {
+        this.importService = importService;
+        this.retentionMinutes = retentionMinutes;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrentJobs,
+                maxConcurrentJobs,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "directory-import-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queue an uploaded CSV or JSON file for import.
+     * @return the queued job
+     * @throws IllegalArgumentException if the file type is not supported
+     * @throws RejectedExecutionException if the import queue is full
+     * @throws IOException if the upload cannot be spooled to disk
+     */
+    public ImportJob submit(MultipartFile file) throws IOException {
+        String filename = file.getOriginalFilename();
+        if (filename == null) {
+            throw new IllegalArgumentException("Filename is missing");
+        }
+
+        String lower = filename.toLowerCase();
+        boolean csv = lower.endsWith(".csv");
+        if (!csv && !lower.endsWith(".json")) {
+            throw new IllegalArgumentException("Only CSV or JSON allowed");
+        }
+
+        purgeFinishedJobs();
+
+        Path spool = Files.createTempFile("directory-import-", csv ? ".csv" : ".json");
+        try {
+            file.transferTo(spool);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), filename);
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job, spool, csv));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(ImportJob job, Path spool, boolean csv) {
+        job.markRunning();
+        try (InputStream in = Files.newInputStream(spool)) {
+            if (csv) {
+                importService.importCsv(in, job.getReport());
+            } else {
+                importService.importJson(in, job.getReport());
+            }
+            job.markCompleted();
+        } catch (Exception e) {
+            System.err.println("Directory import " + job.getId() + " failed: " + e.getMessage());
+            job.markFailed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                System.err.println("Could not delete import spool file " + spool + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DirectoryEntry;
+import com.example.demo.util.CsvReader;
+import com.example.demo.util.GeoHash;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming bulk import of directory entries.
+ *
+ * Both CSV and JSON input are parsed one row at a time and written to
+ * directory_entries in fixed-size JDBC batches, so heap use does not grow
+ * with file size and a 200k-row file costs a few hundred round trips instead
+ * of one per row. Rows that fail validation or insertion are recorded in the
+ * returned {@link ImportReport} instead of aborting the whole import.
+ */
+@Service
+public class DirectoryImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO directory_entries ("
+            + "name, type, source, registration_number, specialization, bar_council_id, "
+            + "contact_phone, contact_email, country, state, district, city, "
+            + "verified, experience_years, approved, latitude, longitude, geohash, created_at, updated_at"
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public DirectoryImportService(JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${directory.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import entries from CSV.
+     * Expected header:
+     * name,type,specialization,state,district,phone
+     */
+    public ImportReport importCsv(InputStream in) {
+        return importCsv(in, new ImportReport());
+    }
+
+    /**
+     * Import entries from CSV, recording progress into the given report as rows are processed.
+     */
+    public ImportReport importCsv(InputStream in, ImportReport report) {
+        long start = System.currentTimeMillis();
+        BatchWriter writer = new BatchWriter(report);
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+
+            // skip header
+            if (reader.readRecord() == null) {
+                return report;
+            }
+
+            List<String> data;
+            while ((data = reader.readRecord()) != null) {
+                long row = reader.getRecordLine();
+
+                // blank line
+                if (data.size() == 1 && data.get(0).isBlank()) {
+                    continue;
+                }
+
+                report.rowParsed();
+
+                if (data.size() < 6) {
+                    report.reject(row, "Expected at least 6 columns, found " + data.size());
+                    continue;
+                }
+
+                DirectoryEntry d = new DirectoryEntry();
+                d.setName(data.get(0).trim());
+                d.setType(data.get(1).trim()); // NGO / LAWYER
+                d.setSpecialization(data.get(2).trim());
+                d.setState(data.get(3).trim());
+                d.setDistrict(data.get(4).trim());
+                d.setContactPhone(data.get(5).trim());
+                d.setSource("INTERNAL");
+
+                String error = validate(d);
+                if (error == null && (isBlank(d.getState()) || isBlank(d.getDistrict()))) {
+                    error = "State and district are required";
+                }
+                if (error != null) {
+                    report.reject(row, error);
+                    continue;
+                }
+
+                writer.add(row, d);
+            }
+
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to import CSV", e);
+        } finally {
+            report.setElapsedMillis(System.currentTimeMillis() - start);
+            if (report.getRowsInserted() > 0) {
+                eventPublisher.publishEvent(DirectoryChangedEvent.bulk());
+            }
+        }
+
+        return report;
+    }
+
+    /**
+     * Import entries from a JSON array of directory entry objects.
+     */
+    public ImportReport importJson(InputStream in) {
+        return importJson(in, new ImportReport());
+    }
+
+    /**
+     * Import entries from JSON, recording progress into the given report as rows are processed.
+     */
+    public ImportReport importJson(InputStream in, ImportReport report) {
+        long start = System.currentTimeMillis();
+        BatchWriter writer = new BatchWriter(report);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON upload must be an array of directory entries");
+            }
+
+            long row = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                row++;
+                report.rowParsed();
+
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    report.reject(row, "Expected an object, found " + token);
+                    continue;
+                }
+
+                // Read one element as a tree so a bad value does not desync the parser
+                JsonNode node = objectMapper.readTree(parser);
+
+                DirectoryEntry d;
+                try {
+                    d = objectMapper.treeToValue(node, DirectoryEntry.class);
+                } catch (JsonProcessingException e) {
+                    report.reject(row, "Invalid entry: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                if (isBlank(d.getSource())) {
+                    d.setSource("INTERNAL");
+                }
+
+                String error = validate(d);
+                if (error != null) {
+                    report.reject(row, error);
+                    continue;
+                }
+
+                writer.add(row, d);
+            }
+
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to import JSON", e);
+        } finally {
+            report.setElapsedMillis(System.currentTimeMillis() - start);
+            if (report.getRowsInserted() > 0) {
+                eventPublisher.publishEvent(DirectoryChangedEvent.bulk());
+            }
+        }
+
+        return report;
+    }
+
+    private String validate(DirectoryEntry d) {
+        if (isBlank(d.getName())) {
+            return "Name is required";
+        }
+        if (isBlank(d.getType())) {
+            return "Type is required";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static void bind(PreparedStatement ps, DirectoryEntry d) throws SQLException {
+        ps.setString(1, d.getName());
+        ps.setString(2, d.getType());
+        ps.setString(3, d.getSource());
+        ps.setString(4, d.getRegistrationNumber());
+        ps.setString(5, d.getSpecialization());
+        ps.setString(6, d.getBarCouncilId());
+        ps.setString(7, d.getContactPhone());
+        ps.setString(8, d.getContactEmail());
+        ps.setString(9, d.getCountry());
+        ps.setString(10, d.getState());
+        ps.setString(11, d.getDistrict());
+        ps.setString(12, d.getCity());
+        ps.setBoolean(13, d.isVerified());
+        ps.setObject(14, d.getExperienceYears(), Types.INTEGER);
+        ps.setBoolean(15, d.isApproved());
+        ps.setObject(16, d.getLatitude(), Types.DOUBLE);
+        ps.setObject(17, d.getLongitude(), Types.DOUBLE);
+        ps.setString(18, d.getLatitude() != null && d.getLongitude() != null
+                ? GeoHash.encode(d.getLatitude(), d.getLongitude(), GeoHash.MAX_PRECISION)
+                : null);
+        ps.setTimestamp(19, d.getCreatedAt() != null ? Timestamp.valueOf(d.getCreatedAt()) : new Timestamp(System.currentTimeMillis()));
+        ps.setTimestamp(20, d.getUpdatedAt() != null ? Timestamp.valueOf(d.getUpdatedAt()) : null);
+    }
+
+    /**
+     * Buffers parsed rows and writes them with one JDBC batch per
+     * {@code batchSize} rows. If a batch fails, its rows are retried one by one
+     * so only the offending rows end up rejected.
+     */
+    private class BatchWriter {
+
+        private final ImportReport report;
+        private final List<Long> rows = new ArrayList<>();
+        private final List<DirectoryEntry> entries = new ArrayList<>();
+
+        BatchWriter(ImportReport report) {
+            this.report = report;
+        }
+
+        void add(long row, DirectoryEntry entry) {
+            rows.add(row);
+            entries.add(entry);
+            if (entries.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (entries.isEmpty()) {
+                return;
+            }
+
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), DirectoryImportService::bind);
+                report.rowsInserted(entries.size());
+            } catch (DataAccessException batchError) {
+                for (int i = 0; i < entries.size(); i++) {
+                    DirectoryEntry entry = entries.get(i);
+                    try {
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, entry));
+                        report.rowsInserted(1);
+                    } catch (DataAccessException e) {
+                        report.reject(rows.get(i), "Insert failed: " + e.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+
+            rows.clear();
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+/**
+ * Optional filters for the public directory search. A null or blank filter is
+ * simply left out of the generated query.
+ */
+public class DirectorySearchCriteria {
+
+    private String type;
+    private String name;
+    private String state;
+    private String district;
+    private String specialization;
+    private Integer minExperience;
+
+    public DirectorySearchCriteria() {
+    }
+
+    public DirectorySearchCriteria(String type, String name, String state, String district,
+            String specialization, Integer minExperience) {
+        this.type = type;
+        this.name = name;
+        this.state = state;
+        this.district = district;
+        this.specialization = specialization;
+        this.minExperience = minExperience;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public void setDistrict(String district) {
+        this.district = district;
+    }
+
+    public String getSpecialization() {
+        return specialization;
+    }
+
+    public void setSpecialization(String specialization) {
+        this.specialization = specialization;
+    }
+
+    public Integer getMinExperience() {
+        return minExperience;
+    }
+
+    public void setMinExperience(Integer minExperience) {
+        this.minExperience = minExperience;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DirectoryEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Query engine behind /api/directory/search.
+ *
+ * Predicates are generated only for the filters that were supplied, so the
+ * planner sees a plain equality prefix it can match against
+ * idx_directory_entries_search (approved, type, state, district,
+ * specialization, id) instead of a chain of "(:x IS NULL OR ...)" terms.
+ * Results are ordered by id, which makes keyset pagination ("id > last id")
+ * a single index range scan no matter how deep the page is.
+ */
+@Service
+public class DirectorySearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Offset-paginated search, kept for clients that need total counts.
+     */
+    public Page<DirectoryEntry> search(DirectorySearchCriteria criteria, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), clampSize(size));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DirectoryEntry> query = cb.createQuery(DirectoryEntry.class);
+        Root<DirectoryEntry> d = query.from(DirectoryEntry.class);
+        query.select(d)
+                .where(predicates(cb, d, criteria).toArray(new Predicate[0]))
+                .orderBy(cb.asc(d.get("id")));
+
+        List<DirectoryEntry> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        // count query only runs when the total cannot be derived from this page
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(criteria));
+    }
+
+    /**
+     * Keyset-paginated search.
+     * @param cursor null for the first page, otherwise the nextCursor of the previous page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPage<DirectoryEntry> searchAfter(DirectorySearchCriteria criteria, String cursor, int size) {
+        int pageSize = clampSize(size);
+        Integer afterId = decodeCursor(cursor);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DirectoryEntry> query = cb.createQuery(DirectoryEntry.class);
+        Root<DirectoryEntry> d = query.from(DirectoryEntry.class);
+
+        List<Predicate> predicates = predicates(cb, d, criteria);
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(d.<Integer>get("id"), afterId));
+        }
+        query.select(d)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(d.get("id")));
+
+        // fetch one extra row to learn whether another page exists
+        List<DirectoryEntry> rows = entityManager.createQuery(query)
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            nextCursor = encodeCursor(rows.get(rows.size() - 1).getId());
+        }
+
+        return new CursorPage<>(rows, nextCursor, pageSize);
+    }
+
+    private long count(DirectorySearchCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<DirectoryEntry> d = query.from(DirectoryEntry.class);
+        query.select(cb.count(d)).where(predicates(cb, d, criteria).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<Predicate> predicates(CriteriaBuilder cb, Root<DirectoryEntry> d, DirectorySearchCriteria c) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isTrue(d.<Boolean>get("approved")));
+
+        if (hasText(c.getType())) {
+            predicates.add(cb.equal(d.get("type"), c.getType().trim()));
+        }
+        if (hasText(c.getState())) {
+            predicates.add(cb.equal(d.get("state"), c.getState().trim()));
+        }
+        if (hasText(c.getDistrict())) {
+            predicates.add(cb.equal(d.get("district"), c.getDistrict().trim()));
+        }
+        if (hasText(c.getSpecialization())) {
+            predicates.add(cb.equal(d.get("specialization"), c.getSpecialization().trim()));
+        }
+        if (c.getMinExperience() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(d.<Integer>get("experienceYears"), c.getMinExperience()));
+        }
+        if (hasText(c.getName())) {
+            // case-insensitive prefix match; only cursor paging gets here (page searches with a
+            // name use DirectoryTextSearchService), filtered within the keyset scan
+            String pattern = escapeLike(c.getName().trim().toLowerCase()) + "%";
+            predicates.add(cb.like(cb.lower(d.<String>get("name")), pattern, '\\'));
+        }
+
+        return predicates;
+    }
+
+    private static int clampSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank();
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String encodeCursor(Integer id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Integer decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Integer.valueOf(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -2,131 +2,150 @@ package com.example.demo.service;
 
 import com.example.demo.entity.DirectoryEntry;
 import com.example.demo.repository.DirectoryEntryRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.util.Arrays;
-import java.util.List;
-
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read side of the public directory.
+ *
+ * Search pages and single approved entries are served through bounded
+ * in-memory caches, since the approved directory only changes on admin
+ * approval, profile updates, deletions, imports and the startup sync. Every
+ * one of those paths publishes a {@link DirectoryChangedEvent}, which drops
+ * the affected entry and every cached search page once the change has
+ * committed. The caches hold immutable {@link DirectoryEntryView}s, never
+ * managed entities.
+ */
 @Service
 public class DirectoryService {
 
     private final DirectoryEntryRepository repository;
-
-    public DirectoryService(DirectoryEntryRepository repository) {
+    private final DirectorySearchService searchService;
+    private final DirectoryTextSearchService textSearchService;
+
+    private final BoundedCache<String, Page<DirectoryEntryView>> searchCache;
+    private final BoundedCache<String, CursorPage<DirectoryEntryView>> cursorCache;
+    private final BoundedCache<Long, DirectoryEntryView> entryCache;
+
+    public DirectoryService(DirectoryEntryRepository repository,
+            DirectorySearchService searchService,
+            DirectoryTextSearchService textSearchService,
+            @Value("${directory.cache.max-entries:1000}") int maxEntries,
+            @Value("${directory.cache.ttl-seconds:300}") long ttlSeconds) {
         this.repository = repository;
-    }
+        this.searchService = searchService;
+        this.textSearchService = textSearchService;
 
-    // ---------------- FILE UPLOAD (CSV / JSON) ----------------
+        long ttlMillis = ttlSeconds * 1000;
+        this.searchCache = new BoundedCache<>(maxEntries, ttlMillis);
+        this.cursorCache = new BoundedCache<>(maxEntries, ttlMillis);
+        this.entryCache = new BoundedCache<>(maxEntries, ttlMillis);
+    }
 
-    public void uploadFile(MultipartFile file) {
+    // ---------------- SEARCH + DETAILS ----------------
 
-        String filename = file.getOriginalFilename();
-        if (filename == null) {
-            throw new RuntimeException("Filename is missing");
-        }
+    public Page<DirectoryEntryView> search(
+            String type,
+            String name,
+            String state,
+            String district,
+            String specialization,
+            Integer minExperience,
+            int page,
+            int size) {
+        DirectorySearchCriteria criteria = new DirectorySearchCriteria(
+                type, name, state, district, specialization, minExperience);
+        String key = cacheKey(criteria, page, size);
+
+        return searchCache.get(key, k -> {
+            // A name query switches to relevance-ranked, typo-tolerant text search
+            Page<DirectoryEntry> result = name != null && !name.isBlank()
+                    ? textSearchService.search(criteria, page, size)
+                    : searchService.search(criteria, page, size);
+            return result.map(DirectoryEntryView::of);
+        });
+    }
 
-        if (filename.endsWith(".csv")) {
-            readCSV(file);
-        } else if (filename.endsWith(".json")) {
-            readJSON(file);
-        } else {
-            throw new RuntimeException("Only CSV or JSON allowed");
-        }
+    public CursorPage<DirectoryEntryView> searchAfter(
+            String type,
+            String name,
+            String state,
+            String district,
+            String specialization,
+            Integer minExperience,
+            String cursor,
+            int size) {
+        DirectorySearchCriteria criteria = new DirectorySearchCriteria(
+                type, name, state, district, specialization, minExperience);
+        String key = cacheKey(criteria, cursor, size);
+
+        return cursorCache.get(key, k -> {
+            CursorPage<DirectoryEntry> result = searchService.searchAfter(criteria, cursor, size);
+            return new CursorPage<>(result.getContent().stream().map(DirectoryEntryView::of).toList(),
+                    result.getNextCursor(), result.getSize());
+        });
     }
 
-    private void readCSV(MultipartFile file) {
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-
-            String line;
-            int row = 0;
-
-            // skip header
-            br.readLine();
-            row++;
-
-            while ((line = br.readLine()) != null) {
-                row++;
-
-                String[] data = line.split(",", -1);
-                if (data.length < 6) {
-                    continue;
-                }
-
-                String name = data[0].trim();
-                String type = data[1].trim(); // NGO / LAWYER
-                String specialization = data[2].trim();
-                String state = data[3].trim();
-                String district = data[4].trim();
-                String phone = data[5].trim();
-
-                if (name.isEmpty() || type.isEmpty() || state.isEmpty() || district.isEmpty()) {
-                    continue;
-                }
-
-                DirectoryEntry d = new DirectoryEntry();
-                d.setName(name);
-                d.setType(type);
-                d.setSpecialization(specialization);
-                d.setState(state);
-                d.setDistrict(district);
-                d.setContactPhone(phone);
-                d.setSource("INTERNAL");
-
-                repository.save(d);
+    public DirectoryEntryView getById(Long id) {
+        // only approved entries are cached; the loader hands an unapproved one back
+        // through the holder and returns null, which the cache does not store
+        DirectoryEntryView[] unapproved = new DirectoryEntryView[1];
+        DirectoryEntryView cached = entryCache.get(id, k -> {
+            DirectoryEntryView view = repository.findById(k).map(DirectoryEntryView::of).orElse(null);
+            if (view != null && !view.isApproved()) {
+                unapproved[0] = view;
+                return null;
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to import CSV", e);
+            return view;
+        });
+        if (cached != null) {
+            return cached;
         }
+        if (unapproved[0] != null) {
+            return unapproved[0];
+        }
+        throw new RuntimeException("Directory entry not found with id " + id);
     }
 
-    private void readJSON(MultipartFile file) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            List<DirectoryEntry> list = Arrays.asList(mapper.readValue(file.getBytes(), DirectoryEntry[].class));
-
-            for (DirectoryEntry d : list) {
-                if (d.getSource() == null || d.getSource().isBlank()) {
-                    d.setSource("INTERNAL");
-                }
-            }
+    // ---------------- CACHE ----------------
 
-            repository.saveAll(list);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to import JSON", e);
+    // fallbackExecution: non-transactional publishers (controllers) invalidate immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectoryChanged(DirectoryChangedEvent event) {
+        if (event.getEntryId() != null) {
+            entryCache.invalidate(event.getEntryId().longValue());
+        } else {
+            entryCache.invalidateAll();
         }
+        // any change can move an entry in or out of any search result
+        searchCache.invalidateAll();
+        cursorCache.invalidateAll();
     }
 
-    // ---------------- SEARCH + DETAILS ----------------
-
-    public Page<DirectoryEntry> search(
-            String type,
-            String name,
-            String state,
-            String district,
-            String specialization,
-            Integer minExperience,
-            int page,
-            int size) {
-        Pageable pageable = PageRequest.of(page, size);
-
-        return repository.searchDirectory(
-                type,
-                state,
-                district,
-                specialization,
-                minExperience,
-                pageable);
+    public Map<String, Object> cacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("search", searchCache.stats());
+        stats.put("cursorSearch", cursorCache.stats());
+        stats.put("entries", entryCache.stats());
+        return stats;
     }
 
-    public DirectoryEntry getById(Long id) {
-        return repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Directory entry not found with id " + id));
+    private static String cacheKey(DirectorySearchCriteria c, Object page, int size) {
+        // unit separator cannot appear in query parameters typed by users
+        return String.join("\u001F",
+                String.valueOf(c.getType()),
+                String.valueOf(c.getName()),
+                String.valueOf(c.getState()),
+                String.valueOf(c.getDistrict()),
+                String.valueOf(c.getSpecialization()),
+                String.valueOf(c.getMinExperience()),
+                String.valueOf(page),
+                String.valueOf(size));
     }
 }
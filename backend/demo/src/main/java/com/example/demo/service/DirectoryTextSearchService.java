@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DirectoryEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Relevance-ranked text search over approved directory entries.
+ *
+ * Matches either the search_vector tsvector column (name, specialization and
+ * city, with per-word prefix matching for as-you-type queries) or a trigram
+ * word similarity on name, which catches typos. Both are GIN-indexed (see
+ * DatabaseMigration), so the planner combines them with a BitmapOr instead of
+ * scanning the table. Results are ordered by ts_rank plus name similarity.
+ */
+@Service
+public class DirectoryTextSearchService {
+
+    private static final String MATCH = "(d.search_vector @@ to_tsquery('simple', :tsq) OR :q <% d.name)";
+
+    private static final String RANK = "ts_rank(d.search_vector, to_tsquery('simple', :tsq)) "
+            + "+ word_similarity(:q, d.name)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param criteria filters; {@code criteria.getName()} is the free-text query
+     */
+    public Page<DirectoryEntry> search(DirectorySearchCriteria criteria, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), DirectorySearchService.MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize);
+
+        String text = criteria.getName() != null ? criteria.getName().trim() : "";
+        String tsQuery = toPrefixQuery(text);
+        if (tsQuery == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("q", text);
+        params.put("tsq", tsQuery);
+        String where = whereClause(criteria, params);
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT d.* FROM directory_entries d " + where
+                        + " ORDER BY " + RANK + " DESC, d.id",
+                DirectoryEntry.class);
+        params.forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageSize);
+
+        @SuppressWarnings("unchecked")
+        List<DirectoryEntry> content = query.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            Query count = entityManager.createNativeQuery(
+                    "SELECT count(*) FROM directory_entries d " + where);
+            params.forEach(count::setParameter);
+            return ((Number) count.getSingleResult()).longValue();
+        });
+    }
+
+    private String whereClause(DirectorySearchCriteria c, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder("WHERE d.approved = true AND ").append(MATCH);
+
+        if (hasText(c.getType())) {
+            where.append(" AND d.type = :type");
+            params.put("type", c.getType().trim());
+        }
+        if (hasText(c.getState())) {
+            where.append(" AND d.state = :state");
+            params.put("state", c.getState().trim());
+        }
+        if (hasText(c.getDistrict())) {
+            where.append(" AND d.district = :district");
+            params.put("district", c.getDistrict().trim());
+        }
+        if (hasText(c.getSpecialization())) {
+            where.append(" AND d.specialization = :specialization");
+            params.put("specialization", c.getSpecialization().trim());
+        }
+        if (c.getMinExperience() != null) {
+            where.append(" AND d.experience_years >= :minExperience");
+            params.put("minExperience", c.getMinExperience());
+        }
+
+        return where.toString();
+    }
+
+    /**
+     * Turn free text into a to_tsquery expression where every word is a prefix
+     * match, e.g. "legal aid" -> "legal:* & aid:*". Only letters and digits
+     * survive, so user input can never produce tsquery syntax.
+     * @return null if the text has no searchable words
+     */
+    static String toPrefixQuery(String text) {
+        StringJoiner joiner = new StringJoiner(" & ");
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                joiner.add(token + ":*");
+            }
+        }
+        return joiner.length() == 0 ? null : joiner.toString();
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CaseDocument;
+
+/**
+ * Outcome of one file in a multi-file upload. Either document (the saved
+ * case_documents row) or error is set.
+ */
+public class DocumentUploadResult {
+
+    private final String filename;
+    private final String contentType;
+    private final long size;
+    private final CaseDocument document;
+    private final String error;
+    private final long millis;
+
+    private DocumentUploadResult(String filename, String contentType, long size,
+                                 CaseDocument document, String error, long millis) {
+        this.filename = filename;
+        this.contentType = contentType;
+        this.size = size;
+        this.document = document;
+        this.error = error;
+        this.millis = millis;
+    }
+
+    public static DocumentUploadResult uploaded(CaseDocument document, long millis) {
+        return new DocumentUploadResult(document.getFilename(), document.getContentType(),
+                document.getSizeBytes(), document, null, millis);
+    }
+
+    public static DocumentUploadResult failed(String filename, String contentType, long size,
+                                              String error, long millis) {
+        return new DocumentUploadResult(filename, contentType, size, null, error, millis);
+    }
+
+    public boolean isUploaded() { return document != null; }
+
+    public String getFilename() { return filename; }
+
+    public String getContentType() { return contentType; }
+
+    public long getSize() { return size; }
+
+    public CaseDocument getDocument() { return document; }
+
+    public String getUrl() { return document != null ? document.getUrl() : null; }
+
+    public String getError() { return error; }
+
+    public long getMillis() { return millis; }
+}
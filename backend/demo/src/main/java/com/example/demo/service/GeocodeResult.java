@@ -0,0 +1,40 @@
+package com.example.demo.service;
+
+/**
+ * Outcome of geocoding one address. A result that is not found is a definite
+ * "no match" from a provider, and is cached like a hit.
+ */
+public class GeocodeResult {
+
+    private static final GeocodeResult NOT_FOUND = new GeocodeResult(null, null, null);
+
+    private final String latitude;
+    private final String longitude;
+    private final String provider;
+
+    public GeocodeResult(String latitude, String longitude, String provider) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.provider = provider;
+    }
+
+    public static GeocodeResult notFound() {
+        return NOT_FOUND;
+    }
+
+    public boolean isFound() {
+        return latitude != null && longitude != null;
+    }
+
+    public String getLatitude() {
+        return latitude;
+    }
+
+    public String getLongitude() {
+        return longitude;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
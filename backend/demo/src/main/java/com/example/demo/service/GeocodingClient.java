@@ -0,0 +1,319 @@
+package com.example.demo.service;
+
+import com.example.demo.util.CircuitBreaker;
+import com.example.demo.util.TokenBucket;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Calls the external geocoding providers without blocking on them.
+ *
+ * Providers in order of preference:
+ * 1. LocationIQ (if LOCATIONIQ_API_KEY env var is set) - Free: 60 req/day
+ * 2. OpenCage (if OPENCAGE_API_KEY env var is set) - Free: 2,500 req/day
+ * 3. Nominatim (always available, no API key needed) - Free but rate limited (1 req/sec)
+ *
+ * To use LocationIQ or OpenCage:
+ * - Get free API key from https://locationiq.com/free-tier or https://opencagedata.com/api
+ * - Set environment variable: LOCATIONIQ_API_KEY or OPENCAGE_API_KEY
+ * - Or add to application.properties: geocoding.locationiq.key=your_key_here
+ *
+ * Each provider has its own token bucket (requests wait for a token on a
+ * timer instead of sleeping a thread) and circuit breaker (a provider that
+ * keeps failing is skipped until its cool-down ends). A provider that fails or
+ * has no match hands over to the next one; one that is merely slow gets a
+ * hedged request to the next provider after geocoding.hedge-delay-ms, and the
+ * first match wins. Base URLs are configurable so tests can point the client
+ * at local stub servers.
+ */
+@Component
+public class GeocodingClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final List<Provider> providers;
+    private final Duration requestTimeout;
+    private final long hedgeDelayMillis;
+    private final long maxRateLimitWaitNanos;
+
+    public GeocodingClient(ObjectMapper objectMapper,
+                           @Value("${geocoding.locationiq.key:}") String locationiqKey,
+                           @Value("${geocoding.opencage.key:}") String opencageKey,
+                           @Value("${geocoding.locationiq.url:https://us1.locationiq.com/v1/search.php}") String locationiqUrl,
+                           @Value("${geocoding.opencage.url:https://api.opencagedata.com/geocode/v1/json}") String opencageUrl,
+                           @Value("${geocoding.nominatim.url:https://nominatim.openstreetmap.org/search}") String nominatimUrl,
+                           @Value("${geocoding.locationiq.rate-per-second:2}") double locationiqRate,
+                           @Value("${geocoding.opencage.rate-per-second:1}") double opencageRate,
+                           @Value("${geocoding.nominatim.rate-per-second:1}") double nominatimRate,
+                           @Value("${geocoding.connect-timeout-ms:3000}") long connectTimeoutMillis,
+                           @Value("${geocoding.request-timeout-ms:5000}") long requestTimeoutMillis,
+                           @Value("${geocoding.hedge-delay-ms:1500}") long hedgeDelayMillis,
+                           @Value("${geocoding.rate-limit.max-wait-ms:2000}") long maxRateLimitWaitMillis,
+                           @Value("${geocoding.breaker.failure-threshold:3}") int breakerFailureThreshold,
+                           @Value("${geocoding.breaker.open-seconds:30}") long breakerOpenSeconds) {
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.maxRateLimitWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxRateLimitWaitMillis);
+
+        // Environment variables take precedence over application.properties
+        String locationiqApiKey = firstNonBlank(System.getenv("LOCATIONIQ_API_KEY"), locationiqKey);
+        String opencageApiKey = firstNonBlank(System.getenv("OPENCAGE_API_KEY"), opencageKey);
+        long breakerOpenMillis = TimeUnit.SECONDS.toMillis(breakerOpenSeconds);
+
+        List<Provider> list = new ArrayList<>();
+        if (locationiqApiKey != null) {
+            list.add(new Provider("locationiq", locationiqRate, breakerFailureThreshold, breakerOpenMillis,
+                    q -> locationiqUrl + "?key=" + locationiqApiKey
+                            + "&format=json&q=" + q + "&limit=1&addressdetails=1&countrycodes=in"));
+        }
+        if (opencageApiKey != null) {
+            list.add(new Provider("opencage", opencageRate, breakerFailureThreshold, breakerOpenMillis,
+                    q -> opencageUrl + "?q=" + q + "&key=" + opencageApiKey + "&limit=1&countrycode=in"));
+        }
+        list.add(new Provider("nominatim", nominatimRate, breakerFailureThreshold, breakerOpenMillis,
+                q -> nominatimUrl + "?format=json&q=" + q + "&limit=5&addressdetails=1&countrycodes=in"));
+        this.providers = List.copyOf(list);
+    }
+
+    /**
+     * Blocking convenience wrapper around {@link #geocodeAsync}.
+     * @throws IllegalStateException if no provider could be reached
+     */
+    public GeocodeResult geocode(String address) {
+        try {
+            return geocodeAsync(address).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * Completes with the first provider match, or {@link GeocodeResult#notFound()}
+     * if at least one provider answered and none had a match. Completes
+     * exceptionally with IllegalStateException if no provider could be
+     * reached, so the caller knows the miss is not authoritative.
+     */
+    public CompletableFuture<GeocodeResult> geocodeAsync(String address) {
+        Attempt attempt = new Attempt(URLEncoder.encode(address, StandardCharsets.UTF_8));
+        attempt.launchNext();
+        return attempt.result;
+    }
+
+    public Map<String, Object> providerStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Provider provider : providers) {
+            stats.put(provider.name, provider.breaker.getState().name());
+        }
+        return stats;
+    }
+
+    /**
+     * One geocoding request fanning out over the provider list. Providers are
+     * claimed in order; a failure or an empty answer claims the next one, and
+     * so does the hedge timer if the current call is still running.
+     */
+    private class Attempt {
+
+        private final String encodedAddress;
+        private final CompletableFuture<GeocodeResult> result = new CompletableFuture<>();
+        private final AtomicInteger nextProvider = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean answered = new AtomicBoolean();
+
+        Attempt(String encodedAddress) {
+            this.encodedAddress = encodedAddress;
+        }
+
+        /**
+         * Start a call to the next usable provider.
+         * @return false if no provider is left
+         */
+        boolean launchNext() {
+            while (!result.isDone()) {
+                int index = nextProvider.getAndIncrement();
+                if (index >= providers.size()) {
+                    if (pending.get() == 0) {
+                        finish();
+                    }
+                    return false;
+                }
+                Provider provider = providers.get(index);
+
+                // breaker first: a provider that is skipped must not use up a rate-limit token
+                if (!provider.breaker.allowRequest()) {
+                    System.out.println("Provider " + provider.name + " circuit open. Skipping...");
+                    continue;
+                }
+                long waitNanos = provider.bucket.reserve(maxRateLimitWaitNanos);
+                if (waitNanos < 0) {
+                    provider.breaker.cancelRequest();
+                    System.out.println("Provider " + provider.name + " rate limited. Skipping...");
+                    continue;
+                }
+
+                pending.incrementAndGet();
+                CompletableFuture<GeocodeResult> call = call(provider, encodedAddress, waitNanos);
+                call.whenComplete((r, e) -> onCallComplete(provider, r, e));
+                if (hedgeDelayMillis > 0) {
+                    CompletableFuture.delayedExecutor(
+                            TimeUnit.NANOSECONDS.toMillis(waitNanos) + hedgeDelayMillis, TimeUnit.MILLISECONDS)
+                            .execute(() -> {
+                                if (!call.isDone() && !result.isDone()) {
+                                    launchNext();
+                                }
+                            });
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private void onCallComplete(Provider provider, GeocodeResult r, Throwable e) {
+            if (e == null && r.isFound()) {
+                System.out.println("Successfully geocoded using: " + provider.name);
+                result.complete(r);
+            } else {
+                if (e == null) {
+                    answered.set(true);
+                } else {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    System.out.println("Provider " + provider.name + " failed: " + cause.getMessage());
+                }
+                launchNext();
+            }
+            if (pending.decrementAndGet() == 0 && nextProvider.get() >= providers.size()) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (answered.get()) {
+                result.complete(GeocodeResult.notFound());
+            } else {
+                result.completeExceptionally(new IllegalStateException(
+                        "Geocoding providers are unavailable. Please try again later."));
+            }
+        }
+    }
+
+    private CompletableFuture<GeocodeResult> call(Provider provider, String encodedAddress, long waitNanos) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(provider.url.apply(encodedAddress)))
+                .timeout(requestTimeout)
+                .header("User-Agent", "LegalAid-Connect/1.0")
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        CompletableFuture<HttpResponse<String>> response = waitNanos == 0
+                ? httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                : CompletableFuture.supplyAsync(() -> null,
+                                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                        .thenCompose(ignored -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        return response.handle((res, e) -> {
+            if (e != null) {
+                provider.breaker.recordFailure();
+                throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+            }
+            if (res.statusCode() != 200) {
+                // 4xx other than rate limiting means a bad key or request, not an outage, but
+                // either way the provider is no use right now
+                provider.breaker.recordFailure();
+                throw new CompletionException(new IllegalStateException("HTTP " + res.statusCode()));
+            }
+            provider.breaker.recordSuccess();
+            try {
+                return parse(provider.name, res.body());
+            } catch (Exception parseError) {
+                throw new CompletionException(parseError);
+            }
+        });
+    }
+
+    private GeocodeResult parse(String provider, String responseBody) throws Exception {
+        System.out.println(provider + " response: " + responseBody.substring(0, Math.min(200, responseBody.length())));
+
+        JsonNode root = objectMapper.readTree(responseBody);
+        // OpenCage wraps its matches in {"results": [...]}
+        JsonNode results = root.isObject() && root.has("results") ? root.get("results") : root;
+
+        if (results.isArray() && results.size() > 0) {
+            JsonNode firstResult = results.get(0);
+
+            // Different providers may use different field names
+            String lat = null;
+            String lon = null;
+
+            if (firstResult.has("lat") && firstResult.has("lon")) {
+                lat = firstResult.get("lat").asText();
+                lon = firstResult.get("lon").asText();
+            } else if (firstResult.has("latitude") && firstResult.has("longitude")) {
+                lat = firstResult.get("latitude").asText();
+                lon = firstResult.get("longitude").asText();
+            } else if (firstResult.has("geometry") && firstResult.get("geometry").has("lat")) {
+                JsonNode geometry = firstResult.get("geometry");
+                lat = geometry.get("lat").asText();
+                lon = geometry.get("lng").asText();
+            } else if (firstResult.has("geometry") && firstResult.get("geometry").has("coordinates")) {
+                // Some APIs return coordinates as [lon, lat] array
+                JsonNode coords = firstResult.get("geometry").get("coordinates");
+                lon = coords.get(0).asText();
+                lat = coords.get(1).asText();
+            }
+
+            if (lat != null && lon != null) {
+                System.out.println("Found coordinates: " + lat + ", " + lon);
+                return new GeocodeResult(lat, lon, provider);
+            }
+        }
+        return GeocodeResult.notFound();
+    }
+
+    private static String firstNonBlank(String a, String b) {
+        if (a != null && !a.isBlank()) {
+            return a;
+        }
+        return b != null && !b.isBlank() ? b : null;
+    }
+
+    private static class Provider {
+
+        private final String name;
+        private final TokenBucket bucket;
+        private final CircuitBreaker breaker;
+        private final Function<String, String> url;
+
+        Provider(String name, double ratePerSecond, int failureThreshold, long openMillis,
+                 Function<String, String> url) {
+            this.name = name;
+            this.bucket = new TokenBucket(ratePerSecond, 1);
+            this.breaker = new CircuitBreaker(failureThreshold, openMillis);
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import com.example.demo.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached front end to {@link GeocodingClient}.
+ *
+ * Addresses are normalised (Unicode NFKC, lower case, punctuation and runs of
+ * whitespace collapsed) so trivially different spellings share one entry.
+ * Lookups go memory -> geocode_cache table -> providers. "Not found" answers
+ * are cached too, for a shorter time, but provider outages are not. Concurrent
+ * lookups of the same uncached address wait on a single upstream call.
+ */
+@Service
+public class GeocodingService {
+
+    private static final String SELECT_SQL =
+            "SELECT found, latitude, longitude, provider FROM geocode_cache " +
+                    "WHERE address_key = ? AND expires_at > now()";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO geocode_cache (address_key, found, latitude, longitude, provider, expires_at, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, now()) " +
+                    "ON CONFLICT (address_key) DO UPDATE SET found = EXCLUDED.found, " +
+                    "latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude, " +
+                    "provider = EXCLUDED.provider, expires_at = EXCLUDED.expires_at, created_at = now()";
+
+    private final GeocodingClient client;
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedCache<String, GeocodeResult> memoryCache;
+    private final Map<String, CompletableFuture<GeocodeResult>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong upstreamCalls = new AtomicLong();
+    private final AtomicLong coalescedCalls = new AtomicLong();
+
+    public GeocodingService(GeocodingClient client,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${geocoding.cache.max-entries:5000}") int maxEntries,
+                            @Value("${geocoding.cache.memory-ttl-minutes:60}") long memoryTtlMinutes,
+                            @Value("${geocoding.cache.ttl-days:90}") long ttlDays,
+                            @Value("${geocoding.cache.negative-ttl-hours:24}") long negativeTtlHours) {
+        this.client = client;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = ttlDays * 24 * 60 * 60 * 1000;
+        this.negativeTtlMillis = negativeTtlHours * 60 * 60 * 1000;
+        // a negative answer must not outlive its table row in memory
+        long memoryTtlMillis = Math.min(memoryTtlMinutes * 60 * 1000, negativeTtlMillis);
+        this.memoryCache = new BoundedCache<>(maxEntries, memoryTtlMillis);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the address is blank
+     * @throws IllegalStateException if the address is uncached and no provider could be reached
+     */
+    public GeocodeResult geocode(String address) {
+        String key = normalize(address);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Address is required");
+        }
+        return memoryCache.get(key, k -> loadCoalesced(k, address.trim()));
+    }
+
+    public Map<String, Object> cacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("memory", memoryCache.stats());
+        stats.put("storeHits", storeHits.get());
+        stats.put("upstreamCalls", upstreamCalls.get());
+        stats.put("coalescedCalls", coalescedCalls.get());
+        stats.put("inFlight", inFlight.size());
+        stats.put("providers", client.providerStats());
+        return stats;
+    }
+
+    private GeocodeResult loadCoalesced(String key, String address) {
+        CompletableFuture<GeocodeResult> call = new CompletableFuture<>();
+        CompletableFuture<GeocodeResult> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalescedCalls.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            GeocodeResult result = loadFromStore(key);
+            if (result == null) {
+                upstreamCalls.incrementAndGet();
+                result = client.geocode(address);
+                saveToStore(key, result);
+            } else {
+                storeHits.incrementAndGet();
+            }
+            call.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private GeocodeResult loadFromStore(String key) {
+        try {
+            List<GeocodeResult> rows = jdbcTemplate.query(SELECT_SQL, (rs, i) -> rs.getBoolean("found")
+                    ? new GeocodeResult(rs.getString("latitude"), rs.getString("longitude"), rs.getString("provider"))
+                    : GeocodeResult.notFound(), key);
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (Exception e) {
+            // the table is only a cache; fall through to the providers
+            System.err.println("Geocode cache read failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveToStore(String key, GeocodeResult result) {
+        long ttl = result.isFound() ? ttlMillis : negativeTtlMillis;
+        try {
+            jdbcTemplate.update(UPSERT_SQL, key, result.isFound(), result.getLatitude(), result.getLongitude(),
+                    result.getProvider(), new Timestamp(System.currentTimeMillis() + ttl));
+        } catch (Exception e) {
+            System.err.println("Geocode cache write failed: " + e.getMessage());
+        }
+    }
+
+    static String normalize(String address) {
+        if (address == null) {
+            return "";
+        }
+        return Normalizer.normalize(address, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+}
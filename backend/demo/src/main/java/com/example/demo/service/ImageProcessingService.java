@@ -0,0 +1,427 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns an uploaded photo into the two JPEG renditions the app serves: a
+ * display image that fits in images.display-size and a square thumbnail of
+ * images.thumbnail-size for avatars in lists. Lists then load a few KB per
+ * person instead of the multi-megabyte original, which is not kept.
+ *
+ * Dimensions are read from the image header before anything is decoded, so
+ * oversized or decompression-bomb images are rejected cheaply. Large photos
+ * are decoded with source subsampling (only every n-th pixel), which keeps
+ * the decoded bitmap close to the display size, and then scaled down in
+ * halving steps so the result stays sharp. Phone photos are usually stored
+ * sideways with an EXIF orientation tag; since the re-encoded JPEG carries
+ * no metadata and the original is not kept, that rotation is applied to the
+ * pixels.
+ *
+ * Decoding and scaling are CPU and memory heavy, so they run on a small
+ * bounded pool rather than on every request thread at once; when the pool and
+ * its queue are full the request thread does the work itself.
+ */
+@Service
+public class ImageProcessingService {
+
+    private final int thumbnailSize;
+    private final int displaySize;
+    private final int minDimension;
+    private final int maxDimension;
+    private final long maxPixels;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder processMillis = new LongAdder();
+    private final LongAdder ranOnCaller = new LongAdder();
+
+    public ImageProcessingService(@Value("${images.thumbnail-size:128}") int thumbnailSize,
+                                  @Value("${images.display-size:512}") int displaySize,
+                                  @Value("${images.min-dimension:64}") int minDimension,
+                                  @Value("${images.max-dimension:8000}") int maxDimension,
+                                  @Value("${images.max-megapixels:40}") int maxMegapixels,
+                                  @Value("${images.jpeg-quality:0.8}") float jpegQuality,
+                                  @Value("${images.processing-threads:2}") int threads,
+                                  @Value("${images.queue-capacity:16}") int queueCapacity) {
+        this.thumbnailSize = Math.max(thumbnailSize, 16);
+        this.displaySize = Math.max(displaySize, this.thumbnailSize);
+        this.minDimension = Math.max(minDimension, 1);
+        this.maxDimension = Math.max(maxDimension, this.displaySize);
+        this.maxPixels = Math.max(maxMegapixels, 1) * 1_000_000L;
+        this.jpegQuality = Math.min(Math.max(jpegQuality, 0.1f), 1.0f);
+
+        int poolSize = Math.max(threads, 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                r -> {
+                    Thread t = new Thread(r, "image-processing-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Image processing pool is shut down");
+                    }
+                    ranOnCaller.increment();
+                    r.run();
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Validate a photo and write its display and thumbnail renditions to temp
+     * files, which the caller deletes. Blocks until done.
+     * @throws IllegalArgumentException if the file is not a readable image or its size is out of bounds
+     * @throws IOException if the renditions could not be written
+     */
+    public ImageRenditions process(Path source) throws IOException {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return render(source);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IllegalArgumentException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Image processing failed: " + e.getMessage(), e);
+        }
+    }
+
+    private ImageRenditions render(Path source) throws IOException {
+        long start = System.nanoTime();
+        BufferedImage image;
+        int orientation;
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                rejected.increment();
+                throw new IllegalArgumentException("Unsupported image format. Use JPEG, PNG, GIF or BMP");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false); // metadata holds the EXIF orientation
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                String problem = checkDimensions(width, height);
+                if (problem != null) {
+                    rejected.increment();
+                    throw new IllegalArgumentException(problem);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsampling(width, height, displaySize);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                image = reader.read(0, param);
+                orientation = orientation(reader);
+            } catch (IIOException e) {
+                // corrupt data, or a variant the JDK decoders do not handle (e.g. CMYK JPEG)
+                rejected.increment();
+                throw new IllegalArgumentException("Could not read image: " + e.getMessage());
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        Path display = null;
+        Path thumbnail = null;
+        try {
+            BufferedImage opaque = orient(toRgb(image), orientation);
+            display = writeJpeg(fit(opaque, displaySize));
+            thumbnail = writeJpeg(squareThumbnail(opaque, thumbnailSize));
+            ImageRenditions renditions = new ImageRenditions(display, thumbnail);
+
+            processed.increment();
+            bytesIn.add(Files.size(source));
+            bytesOut.add(Files.size(display) + Files.size(thumbnail));
+            processMillis.add((System.nanoTime() - start) / 1_000_000);
+            return renditions;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(display);
+            deleteQuietly(thumbnail);
+            throw e;
+        }
+    }
+
+    /**
+     * @return why the image is rejected, or null if its dimensions are acceptable
+     */
+    String checkDimensions(int width, int height) {
+        if (width < minDimension || height < minDimension) {
+            return "Image must be at least " + minDimension + "x" + minDimension + " pixels";
+        }
+        if (width > maxDimension || height > maxDimension || (long) width * height > maxPixels) {
+            return "Image must be at most " + maxDimension + " pixels per side and "
+                    + (maxPixels / 1_000_000) + " megapixels";
+        }
+        return null;
+    }
+
+    /**
+     * The largest decode step that still leaves the shorter side at least
+     * twice the target, so the final resample has detail to work with.
+     */
+    static int subsampling(int width, int height, int target) {
+        int step = Math.min(width, height) / (target * 2);
+        return Math.max(step, 1);
+    }
+
+    // EXIF orientation (1-8) from a JPEG's APP1 segment; 1 (as stored) when there is none or it is unreadable
+    private static int orientation(ImageReader reader) {
+        try {
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata == null || !"javax_imageio_jpeg_image_1.0".equals(metadata.getNativeMetadataFormatName())) {
+                return 1;
+            }
+            Node markers = child(metadata.getAsTree("javax_imageio_jpeg_image_1.0"), "markerSequence");
+            for (Node n = markers == null ? null : markers.getFirstChild(); n != null; n = n.getNextSibling()) {
+                NamedNodeMap attributes = n.getAttributes();
+                Node tag = attributes == null ? null : attributes.getNamedItem("MarkerTag");
+                if ("unknown".equals(n.getNodeName()) && tag != null && "225".equals(tag.getNodeValue())
+                        && n instanceof IIOMetadataNode node
+                        && node.getUserObject() instanceof byte[] app1) {
+                    int value = exifOrientation(app1);
+                    if (value != 1) {
+                        return value;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // a damaged EXIF block is not a reason to reject the photo
+        }
+        return 1;
+    }
+
+    private static Node child(Node parent, String name) {
+        for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (name.equals(n.getNodeName())) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The orientation tag (0x0112) of IFD0 in an APP1 payload ("Exif\0\0"
+     * followed by a TIFF header), or 1 if it is absent or out of range.
+     */
+    static int exifOrientation(byte[] app1) {
+        byte[] header = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+        if (app1.length < header.length + 8) {
+            return 1;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (app1[i] != header[i]) {
+                return 1;
+            }
+        }
+        int tiff = header.length;
+        ByteBuffer buffer = ByteBuffer.wrap(app1);
+        if (app1[tiff] == 'I' && app1[tiff + 1] == 'I') {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (app1[tiff] != 'M' || app1[tiff + 1] != 'M') {
+            return 1;
+        }
+        long ifd = tiff + (buffer.getInt(tiff + 4) & 0xFFFFFFFFL);
+        if (ifd + 2 > app1.length) {
+            return 1;
+        }
+        int entries = buffer.getShort((int) ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > app1.length) {
+                return 1;
+            }
+            if ((buffer.getShort(entry) & 0xFFFF) == 0x0112) {
+                int value = buffer.getShort(entry + 8) & 0xFFFF; // SHORT, stored left-aligned in the value field
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    // turns the stored pixels upright for an EXIF orientation; 5-8 swap width and height
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        // maps stored (x, y) to upright (x', y'); arguments are m00, m10, m01, m11, m02, m12
+        AffineTransform t = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);  // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h); // upside down
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);  // mirrored vertically
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);   // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);  // needs 90 degrees clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w); // transversed
+            default -> new AffineTransform(0, -1, 1, 0, 0, w); // needs 90 degrees counter-clockwise
+        };
+        boolean swap = orientation >= 5;
+        BufferedImage upright = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = upright.createGraphics();
+        try {
+            g.drawImage(image, t, null);
+        } finally {
+            g.dispose();
+        }
+        return upright;
+    }
+
+    // JPEG has no alpha; transparent areas become white rather than black
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    // scale to fit within size x size, never enlarging
+    static BufferedImage fit(BufferedImage image, int size) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= size && height <= size) {
+            return image;
+        }
+        double scale = Math.min((double) size / width, (double) size / height);
+        return scale(image, Math.max((int) Math.round(width * scale), 1), Math.max((int) Math.round(height * scale), 1));
+    }
+
+    // centre square crop, scaled to size x size
+    static BufferedImage squareThumbnail(BufferedImage image, int size) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage square = image.getSubimage(
+                (image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+        return side <= size ? square : scale(square, size, size);
+    }
+
+    // bilinear steps of at most one half, then the final size; a single large bilinear step aliases
+    private static BufferedImage scale(BufferedImage image, int targetWidth, int targetHeight) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(width / 2, targetWidth);
+            height = Math.max(height / 2, targetHeight);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private Path writeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path out = Files.createTempFile("image-", ".jpg");
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+            return out;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(out);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete image temp file " + file + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long n = processed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("processed", n);
+        stats.put("rejected", rejected.sum());
+        stats.put("bytesIn", bytesIn.sum());
+        stats.put("bytesOut", bytesOut.sum());
+        stats.put("avgProcessMillis", n == 0 ? 0 : processMillis.sum() / n);
+        stats.put("ranOnCaller", ranOnCaller.sum());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.service;
+
+import java.nio.file.Path;
+
+/**
+ * Temp files holding the JPEG renditions of one photo. The caller deletes
+ * them once they are stored.
+ */
+public class ImageRenditions {
+
+    private final Path display;
+    private final Path thumbnail;
+
+    public ImageRenditions(Path display, Path thumbnail) {
+        this.display = display;
+        this.thumbnail = thumbnail;
+    }
+
+    public Path getDisplay() { return display; }
+
+    public Path getThumbnail() { return thumbnail; }
+}
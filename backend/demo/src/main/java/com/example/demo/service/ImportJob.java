@@ -0,0 +1,113 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A directory upload running in the background. Exposes live progress of the
+ * underlying {@link ImportReport} for GET /api/directory/import-jobs/{id}.
+ */
+public class ImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String filename;
+    private final ImportReport report = new ImportReport();
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    public ImportJob(String id, String filename) {
+        this.id = id;
+        this.filename = filename;
+    }
+
+    void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void markCompleted() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    ImportReport getReport() {
+        return report;
+    }
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsParsed() {
+        return report.getRowsParsed();
+    }
+
+    public long getRowsInserted() {
+        return report.getRowsInserted();
+    }
+
+    public long getRowsRejected() {
+        return report.getRowsRejected();
+    }
+
+    /**
+     * Rows parsed per second since the job started (up to now if still running).
+     */
+    public double getRowsPerSecond() {
+        LocalDateTime started = startedAt;
+        if (started == null) {
+            return 0;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Duration.between(started, end).toMillis();
+        if (millis <= 0) {
+            return 0;
+        }
+        return report.getRowsParsed() * 1000.0 / millis;
+    }
+
+    public List<ImportReport.RowRejection> getRejections() {
+        return report.getRejections();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a directory import: row counters plus the rows that were rejected
+ * and why. Only the first {@link #MAX_REPORTED_REJECTIONS} rejections are kept
+ * so a badly formatted file cannot blow up the heap.
+ *
+ * A report is written by the single import thread and may be read while the
+ * import is still running (see {@link ImportJob}), hence the volatile counters.
+ */
+public class ImportReport {
+
+    public static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private volatile long rowsParsed;
+    private volatile long rowsInserted;
+    private volatile long rowsRejected;
+    private volatile long elapsedMillis;
+    private final List<RowRejection> rejections = new ArrayList<>();
+
+    public void rowParsed() {
+        rowsParsed++;
+    }
+
+    public void rowsInserted(int count) {
+        rowsInserted += count;
+    }
+
+    public void reject(long row, String reason) {
+        rowsRejected++;
+        synchronized (rejections) {
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(new RowRejection(row, reason));
+            }
+        }
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<RowRejection> getRejections() {
+        synchronized (rejections) {
+            return new ArrayList<>(rejections);
+        }
+    }
+
+    public static class RowRejection {
+
+        private final long row;
+        private final String reason;
+
+        public RowRejection(long row, String reason) {
+            this.row = row;
+            this.reason = reason;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -14,11 +14,14 @@ public class LawyerImportService {
 
     private final LawyerRepository lawyerRepository;
     private final DirectoryEntryRepository directoryEntryRepository;
+    private final PasswordService passwordService;
 
     public LawyerImportService(LawyerRepository lawyerRepository,
-                               DirectoryEntryRepository directoryEntryRepository) {
+                               DirectoryEntryRepository directoryEntryRepository,
+                               PasswordService passwordService) {
         this.lawyerRepository = lawyerRepository;
         this.directoryEntryRepository = directoryEntryRepository;
+        this.passwordService = passwordService;
     }
 
     public void importFromCSV(MultipartFile file) throws Exception {
@@ -31,6 +34,9 @@ public class LawyerImportService {
                 return;
             }
 
+            // hashed once per import; BCrypt is deliberately slow
+            String tempPasswordHash = passwordService.hash("Temp@123");
+
             while ((line = br.readLine()) != null) {
 
                 String[] data = line.split(",", -1);
@@ -60,7 +66,7 @@ public class LawyerImportService {
                 lawyer.setCity(data[10]);
                 lawyer.setState(data[11]);
 
-                lawyer.setPassword("Temp@123");
+                lawyer.setPassword(tempPasswordHash);
 
                 // verification against directory_entries
                 boolean verifiedInDirectory =
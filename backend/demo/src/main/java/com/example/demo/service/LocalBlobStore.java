@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Keeps files on this server's disk under storage.local.root, for on-prem
+ * deployments and for running without network access. Files are served by
+ * FileController at storage.local.base-url.
+ *
+ * Writes copy channel to channel (FileChannel.transferTo, which the kernel
+ * does without a user-space buffer where it can) into a temp file in the
+ * target directory, then rename it into place, so a reader never sees a
+ * partial file. Keys are "folder/random-filename" with every segment reduced
+ * to safe characters, and resolve() refuses anything outside the root.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalBlobStore(@Value("${storage.local.root:./data/blobs}") String root,
+                          @Value("${storage.local.base-url:http://localhost:8080/api/files}") String baseUrl)
+            throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        Files.createDirectories(this.root);
+        System.out.println("Local blob store at " + this.root);
+    }
+
+    @Override
+    public UploadedFile put(Path file, String contentType, String folder, String filename) throws IOException {
+        String name = UUID.randomUUID().toString().replace("-", "").substring(0, 16) + "-" + safeName(filename);
+        String folderKey = safeFolder(folder);
+        String key = folderKey.isEmpty() ? name : folderKey + "/" + name;
+
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path partial = Files.createTempFile(target.getParent(), ".upload-", ".part");
+        try {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+                out.force(false);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        return new UploadedFile(baseUrl + "/" + key, key);
+    }
+
+    @Override
+    public boolean delete(String storageKey, String contentType) throws IOException {
+        Files.deleteIfExists(resolve(storageKey));
+        return true;
+    }
+
+    @Override
+    public String storageKeyOf(String url) {
+        String prefix = baseUrl + "/";
+        return url != null && url.startsWith(prefix) && url.length() > prefix.length()
+                ? url.substring(prefix.length())
+                : null;
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    /**
+     * The file for a key.
+     * @throws IllegalArgumentException if the key points outside the store or
+     *         at a hidden file (e.g. an upload still being written)
+     */
+    public Path resolve(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Empty storage key");
+        }
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Storage key outside the store: " + key);
+        }
+        // put() never hands out a name with a leading dot; its .upload-*.part temp files have one
+        if (path.getFileName().toString().startsWith(".")) {
+            throw new IllegalArgumentException("Not a stored file: " + key);
+        }
+        return path;
+    }
+
+    private static String safeFolder(String folder) {
+        if (folder == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder();
+        for (String segment : folder.split("/")) {
+            String safe = safeSegment(segment);
+            if (safe.isEmpty()) {
+                continue;
+            }
+            if (key.length() > 0) {
+                key.append('/');
+            }
+            key.append(safe);
+        }
+        return key.toString();
+    }
+
+    private static String safeName(String filename) {
+        // browsers may send a full client-side path
+        String base = filename == null ? "" : filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+        String safe = safeSegment(base);
+        if (safe.length() > MAX_NAME_LENGTH) {
+            safe = safe.substring(safe.length() - MAX_NAME_LENGTH); // keep the extension
+        }
+        return safe.isEmpty() ? "file" : safe;
+    }
+
+    // letters, digits, '.', '_' and '-' only, no leading dots (no "..", no hidden files)
+    private static String safeSegment(String segment) {
+        String safe = segment.replaceAll("[^A-Za-z0-9._-]", "_");
+        int start = 0;
+        while (start < safe.length() && safe.charAt(start) == '.') {
+            start++;
+        }
+        return safe.substring(start);
+    }
+}
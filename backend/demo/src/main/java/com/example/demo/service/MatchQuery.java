@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Case;
+
+import java.util.Set;
+
+/**
+ * What a case asks of one provider type, normalized for {@link ProviderIndex}
+ * lookups.
+ *
+ * For lawyers the wanted specialization is the case's specialization, with
+ * the case type as a weaker fallback; for NGOs it is the requested NGO type.
+ * The incident place is split into phrases and compared with each provider's
+ * district, city and state when no coordinates are known.
+ */
+public class MatchQuery {
+
+    private final String type;
+    private final Set<String> specializations;
+    private final Set<String> fallbackSpecializations;
+    private final Set<String> places;
+    private final Double latitude;
+    private final Double longitude;
+    private final boolean urgent;
+
+    public MatchQuery(String type, Set<String> specializations, Set<String> fallbackSpecializations,
+                      Set<String> places, Double latitude, Double longitude, boolean urgent) {
+        this.type = type;
+        this.specializations = specializations;
+        this.fallbackSpecializations = fallbackSpecializations;
+        this.places = places;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.urgent = urgent;
+    }
+
+    public static MatchQuery lawyersFor(Case c, Double latitude, Double longitude) {
+        return new MatchQuery(ProviderIndex.LAWYER,
+                ProviderIndex.phrases(c.getSpecialization()),
+                ProviderIndex.phrases(c.getCaseType()),
+                ProviderIndex.phrases(c.getIncidentPlace()),
+                latitude, longitude, isUrgent(c));
+    }
+
+    public static MatchQuery ngosFor(Case c, Double latitude, Double longitude) {
+        return new MatchQuery(ProviderIndex.NGO,
+                ProviderIndex.phrases(c.getNgoType()),
+                Set.of(),
+                ProviderIndex.phrases(c.getIncidentPlace()),
+                latitude, longitude, isUrgent(c));
+    }
+
+    public static boolean wantsNgo(Case c) {
+        return "Yes".equalsIgnoreCase(c.getSeekingNgoHelp());
+    }
+
+    private static boolean isUrgent(Case c) {
+        return "High".equalsIgnoreCase(c.getUrgency());
+    }
+
+    public String getType() { return type; }
+
+    public Set<String> getSpecializations() { return specializations; }
+
+    public Set<String> getFallbackSpecializations() { return fallbackSpecializations; }
+
+    public Set<String> getPlaces() { return places; }
+
+    public Double getLatitude() { return latitude; }
+
+    public Double getLongitude() { return longitude; }
+
+    public boolean hasCoordinates() { return latitude != null && longitude != null; }
+
+    public boolean isUrgent() { return urgent; }
+}
@@ -1,83 +1,200 @@
 package com.example.demo.service;
 
-import com.example.demo.entity.DirectoryEntry;
-import com.example.demo.repository.DirectoryEntryRepository;
+import com.example.demo.util.CsvReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
 
 @Service
 public class NGODarpanImportService {
 
-    private final DirectoryEntryRepository directoryEntryRepository;
-
-    public NGODarpanImportService(DirectoryEntryRepository directoryEntryRepository) {
-        this.directoryEntryRepository = directoryEntryRepository;
+    private static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE ngo_darpan_staging ("
+            + "registration_number VARCHAR(255) PRIMARY KEY, "
+            + "name VARCHAR(255) NOT NULL, "
+            + "state VARCHAR(255), "
+            + "district VARCHAR(255), "
+            + "specialization VARCHAR(255), "
+            + "contact_phone VARCHAR(255), "
+            + "content_hash VARCHAR(64) NOT NULL"
+            + ") ON COMMIT DROP";
+
+    private static final String STAGE_SQL = "INSERT INTO ngo_darpan_staging "
+            + "(registration_number, name, state, district, specialization, contact_phone, content_hash) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (registration_number) DO NOTHING";
+
+    // Staged rows whose NGO_DARPAN entry already has the same content; counted
+    // before the upsert, which writes none of them
+    private static final String COUNT_UNCHANGED_SQL = "SELECT count(*) FROM ngo_darpan_staging s "
+            + "JOIN directory_entries d ON d.type = 'NGO' AND d.source = 'NGO_DARPAN' "
+            + "AND d.registration_number = s.registration_number AND d.content_hash = s.content_hash";
+
+    // Entries created by an NGO's own registration keep their data; the feed's
+    // row for that registration number is skipped
+    private static final String COUNT_SKIPPED_SQL = "SELECT count(*) FROM ngo_darpan_staging s "
+            + "WHERE EXISTS (SELECT 1 FROM directory_entries d WHERE d.type = 'NGO' "
+            + "AND d.registration_number = s.registration_number AND d.source IS DISTINCT FROM 'NGO_DARPAN')";
+
+    // Upsert on the partial unique key idx_directory_entries_ngo_darpan_key.
+    // Imported entries are verified but still need admin approval to show in
+    // citizen search; an update leaves approval untouched and only happens when
+    // the content hash changed. RETURNING reports which rows were inserted
+    // (xmax = 0) and which updated; unchanged rows are not returned.
+    private static final String UPSERT_SQL = "INSERT INTO directory_entries "
+            + "(name, type, source, registration_number, state, district, specialization, contact_phone, "
+            + "content_hash, verified, approved, created_at) "
+            + "SELECT s.name, 'NGO', 'NGO_DARPAN', s.registration_number, s.state, s.district, s.specialization, "
+            + "s.contact_phone, s.content_hash, true, false, LOCALTIMESTAMP "
+            + "FROM ngo_darpan_staging s "
+            + "WHERE NOT EXISTS (SELECT 1 FROM directory_entries d WHERE d.type = 'NGO' "
+            + "AND d.registration_number = s.registration_number AND d.source IS DISTINCT FROM 'NGO_DARPAN') "
+            + "ON CONFLICT (type, registration_number) WHERE source = 'NGO_DARPAN' DO UPDATE SET "
+            + "name = EXCLUDED.name, state = EXCLUDED.state, district = EXCLUDED.district, "
+            + "specialization = EXCLUDED.specialization, contact_phone = EXCLUDED.contact_phone, "
+            + "content_hash = EXCLUDED.content_hash, updated_at = LOCALTIMESTAMP "
+            + "WHERE directory_entries.content_hash IS DISTINCT FROM EXCLUDED.content_hash "
+            + "RETURNING (xmax = 0) AS inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public NGODarpanImportService(JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${directory.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
     }
 
     /**
      * Import NGOs from a CSV file on the classpath.
      * Expected header:
      * registrationNumber,name,state,district,specialization,contactPhone
+     *
+     * The import is an upsert keyed on (type, registrationNumber) for entries
+     * that came from NGO Darpan; entries an NGO registered itself are skipped.
+     * Each row
+     * carries a SHA-256 hash of its content; existing entries whose stored hash
+     * matches are not written at all, so re-running the feed only costs as much
+     * as what changed.
      */
-    public void importCSV(String filename) {
-        try {
-            ClassPathResource resource = new ClassPathResource(filename);
-
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-
-                String line;
-                boolean first = true;
-
-                while ((line = reader.readLine()) != null) {
-                    // skip header
-                    if (first) {
-                        first = false;
-                        continue;
-                    }
-
-                    if (line.isBlank()) {
-                        continue;
-                    }
-
-                    String[] parts = line.split(",", -1); // keep empty columns
-
-                    // Guard if the row is shorter than expected
-                    if (parts.length < 6) {
-                        continue;
-                    }
-
-                    String registrationNumber = parts[0].trim();
-                    String name = parts[1].trim();
-                    String state = parts[2].trim();
-                    String district = parts[3].trim();
-                    String specialization = parts[4].trim();
-                    String contactPhone = parts[5].trim();
-
-                    DirectoryEntry entry = new DirectoryEntry();
-                    entry.setType("NGO");
-                    entry.setSource("NGO_DARPAN");
-                    entry.setRegistrationNumber(registrationNumber);
-                    entry.setName(name);
-                    entry.setState(state);
-                    entry.setDistrict(district);
-                    entry.setSpecialization(specialization);
-                    entry.setContactPhone(contactPhone);
-
-                    // Imported entries are verified but still need admin approval to show in
-                    // citizen search
-                    entry.setVerified(true);
-                    entry.setApproved(false);
-
-                    directoryEntryRepository.save(entry);
+    @Transactional
+    public NgoDarpanImportReport importCSV(String filename) {
+        NgoDarpanImportReport report = new NgoDarpanImportReport();
+        long start = System.currentTimeMillis();
+
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+
+        long accepted = 0;
+        ClassPathResource resource = new ClassPathResource(filename);
+        try (CsvReader reader = new CsvReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+
+            // skip header
+            if (reader.readRecord() == null) {
+                return report;
+            }
+
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            List<String> parts;
+            while ((parts = reader.readRecord()) != null) {
+                long row = reader.getRecordLine();
+
+                if (parts.size() == 1 && parts.get(0).isBlank()) {
+                    continue;
                 }
+
+                report.rowParsed();
+
+                // Guard if the row is shorter than expected
+                if (parts.size() < 6) {
+                    report.reject(row, "Expected at least 6 columns, found " + parts.size());
+                    continue;
+                }
+
+                String registrationNumber = parts.get(0).trim();
+                String name = parts.get(1).trim();
+                String state = parts.get(2).trim();
+                String district = parts.get(3).trim();
+                String specialization = parts.get(4).trim();
+                String contactPhone = parts.get(5).trim();
+
+                if (registrationNumber.isEmpty() || name.isEmpty()) {
+                    report.reject(row, "Registration number and name are required");
+                    continue;
+                }
+
+                String hash = contentHash(name, state, district, specialization, contactPhone);
+                batch.add(new Object[] { registrationNumber, name, state, district, specialization, contactPhone, hash });
+                accepted++;
+
+                if (batch.size() >= batchSize) {
+                    jdbcTemplate.batchUpdate(STAGE_SQL, batch);
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(STAGE_SQL, batch);
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             throw new RuntimeException("Failed to import NGO Darpan CSV", e);
         }
+
+        // temp tables are never auto-analyzed; give the planner real row counts for the joins
+        jdbcTemplate.execute("ANALYZE ngo_darpan_staging");
+
+        Long staged = jdbcTemplate.queryForObject("SELECT count(*) FROM ngo_darpan_staging", Long.class);
+        long stagedRows = staged != null ? staged : 0;
+        Long unchanged = jdbcTemplate.queryForObject(COUNT_UNCHANGED_SQL, Long.class);
+        Long skipped = jdbcTemplate.queryForObject(COUNT_SKIPPED_SQL, Long.class);
+
+        int[] written = new int[2]; // {inserted, updated}
+        jdbcTemplate.query(UPSERT_SQL, rs -> {
+            written[rs.getBoolean("inserted") ? 0 : 1]++;
+        });
+        int inserted = written[0];
+        int updated = written[1];
+
+        report.rowsInserted(inserted);
+        report.setRowsUpdated(updated);
+        report.setRowsUnchanged(unchanged != null ? unchanged : 0);
+        report.setRowsSkipped(skipped != null ? skipped : 0);
+        report.setDuplicateRows(accepted - stagedRows);
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+
+        // delivered after commit, see DirectoryService
+        eventPublisher.publishEvent(DirectoryChangedEvent.bulk());
+
+        System.out.println("NGO Darpan import: " + inserted + " inserted, " + updated + " updated, "
+                + report.getRowsUnchanged() + " unchanged");
+
+        return report;
+    }
+
+    private static String contentHash(String... fields) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String field : fields) {
+                digest.update(field.getBytes(StandardCharsets.UTF_8));
+                // unit separator so ("ab","c") and ("a","bc") hash differently
+                digest.update((byte) 0x1F);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DirectoryEntry;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A directory entry plus its distance from the search point. Serialises as the
+ * entry's own fields with an extra distanceKm.
+ */
+public class NearbyResult {
+
+    @JsonUnwrapped
+    private final DirectoryEntry entry;
+
+    private final double distanceKm;
+
+    public NearbyResult(DirectoryEntry entry, double distanceKm) {
+        this.entry = entry;
+        this.distanceKm = distanceKm;
+    }
+
+    public DirectoryEntry getEntry() {
+        return entry;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
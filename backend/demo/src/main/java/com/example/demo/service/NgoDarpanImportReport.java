@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+/**
+ * {@link ImportReport} for NGO Darpan imports. Re-imports only write rows whose
+ * content hash changed, so a nightly run over an unchanged registry reports
+ * everything as unchanged.
+ */
+public class NgoDarpanImportReport extends ImportReport {
+
+    private long rowsUpdated;
+    private long rowsUnchanged;
+    private long rowsSkipped;
+    private long duplicateRows;
+
+    public long getRowsUpdated() {
+        return rowsUpdated;
+    }
+
+    public void setRowsUpdated(long rowsUpdated) {
+        this.rowsUpdated = rowsUpdated;
+    }
+
+    public long getRowsUnchanged() {
+        return rowsUnchanged;
+    }
+
+    public void setRowsUnchanged(long rowsUnchanged) {
+        this.rowsUnchanged = rowsUnchanged;
+    }
+
+    /**
+     * Feed rows not applied because the NGO registered that number itself.
+     */
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public void setRowsSkipped(long rowsSkipped) {
+        this.rowsSkipped = rowsSkipped;
+    }
+
+    public long getDuplicateRows() {
+        return duplicateRows;
+    }
+
+    public void setDuplicateRows(long duplicateRows) {
+        this.duplicateRows = duplicateRows;
+    }
+}
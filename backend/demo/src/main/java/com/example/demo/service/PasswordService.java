@@ -0,0 +1,195 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Password hashing and verification.
+ *
+ * New passwords are stored as BCrypt with a configurable cost. Rows written
+ * before hashing was introduced still hold plaintext; they are compared in
+ * constant time and flagged for rehash so the caller can upgrade them on a
+ * successful login. The same flag is raised for BCrypt hashes below the
+ * current cost, so raising auth.password.bcrypt-strength upgrades users as
+ * they log in.
+ *
+ * Verification runs on a small dedicated pool with a bounded queue: a login
+ * storm costs at most auth.password.hash-threads cores, and requests beyond
+ * the queue are rejected immediately (RejectedExecutionException) instead of
+ * tying up Tomcat threads.
+ */
+@Service
+public class PasswordService {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    // number of recent verify latencies kept for percentiles
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+
+    // verified against when the account does not exist, so unknown emails take as long as known ones
+    private final String dummyHash;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rehashes = new LongAdder();
+    private final AtomicLong rejected = new AtomicLong();
+    private final long[] latencyNanos = new long[LATENCY_SAMPLES];
+    private long latencyCount;
+
+    public PasswordService(@Value("${auth.password.bcrypt-strength:10}") int strength,
+                           @Value("${auth.password.hash-threads:0}") int hashThreads,
+                           @Value("${auth.password.queue-capacity:64}") int queueCapacity) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.dummyHash = encoder.encode("dummy-password-for-timing");
+
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, pool) -> {
+                    rejected.incrementAndGet();
+                    new ThreadPoolExecutor.AbortPolicy().rejectedExecution(r, pool);
+                });
+    }
+
+    /**
+     * Hash a new password on the calling thread.
+     */
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Check a login attempt on the hashing pool.
+     * @param storedPassword the stored hash or legacy plaintext; null if the account does not exist
+     * @return a future that fails with RejectedExecutionException if the pool is saturated
+     */
+    public CompletableFuture<PasswordCheck> verifyAsync(String rawPassword, String storedPassword) {
+        return CompletableFuture.supplyAsync(() -> verify(rawPassword, storedPassword), executor);
+    }
+
+    PasswordCheck verify(String rawPassword, String storedPassword) {
+        long start = System.nanoTime();
+        try {
+            if (storedPassword == null) {
+                encoder.matches(rawPassword, dummyHash);
+                failures.increment();
+                return PasswordCheck.FAILED;
+            }
+
+            if (BCRYPT.matcher(storedPassword).matches()) {
+                if (!encoder.matches(rawPassword, storedPassword)) {
+                    failures.increment();
+                    return PasswordCheck.FAILED;
+                }
+                return encoder.upgradeEncoding(storedPassword) ? rehashed(rawPassword) : PasswordCheck.OK;
+            }
+
+            // legacy plaintext row
+            boolean matches = MessageDigest.isEqual(
+                    rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+            if (!matches) {
+                failures.increment();
+                return PasswordCheck.FAILED;
+            }
+            return rehashed(rawPassword);
+        } finally {
+            verifications.increment();
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    private PasswordCheck rehashed(String rawPassword) {
+        rehashes.increment();
+        return new PasswordCheck(true, encoder.encode(rawPassword));
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencyNanos[(int) (latencyCount++ % LATENCY_SAMPLES)] = nanos;
+    }
+
+    public Map<String, Object> stats() {
+        long[] samples;
+        synchronized (this) {
+            samples = Arrays.copyOf(latencyNanos, (int) Math.min(latencyCount, LATENCY_SAMPLES));
+        }
+        Arrays.sort(samples);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("verifications", verifications.sum());
+        stats.put("failures", failures.sum());
+        stats.put("rehashes", rehashes.sum());
+        stats.put("rejected", rejected.get());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("p50Millis", percentileMillis(samples, 0.50));
+        stats.put("p95Millis", percentileMillis(samples, 0.95));
+        stats.put("p99Millis", percentileMillis(samples, 0.99));
+        stats.put("maxMillis", samples.length == 0 ? 0.0 : samples[samples.length - 1] / 1_000_000.0);
+        return stats;
+    }
+
+    private static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Result of a login check. {@code newHash} is set when the stored value
+     * should be replaced (legacy plaintext or an outdated cost factor).
+     */
+    public static class PasswordCheck {
+
+        static final PasswordCheck OK = new PasswordCheck(true, null);
+        static final PasswordCheck FAILED = new PasswordCheck(false, null);
+
+        private final boolean matched;
+        private final String newHash;
+
+        PasswordCheck(boolean matched, String newHash) {
+            this.matched = matched;
+            this.newHash = newHash;
+        }
+
+        public boolean isMatched() {
+            return matched;
+        }
+
+        public String getNewHash() {
+            return newHash;
+        }
+    }
+}
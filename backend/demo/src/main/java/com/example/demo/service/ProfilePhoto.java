@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+/**
+ * URLs of a stored profile photo: the display rendition and the square
+ * thumbnail used in lists and avatars.
+ */
+public class ProfilePhoto {
+
+    private final String url;
+    private final String thumbnailUrl;
+
+    public ProfilePhoto(String url, String thumbnailUrl) {
+        this.url = url;
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getUrl() { return url; }
+
+    public String getThumbnailUrl() { return thumbnailUrl; }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DirectoryEntry;
+import com.example.demo.entity.Lawyer;
+import com.example.demo.entity.NGO;
+import com.example.demo.repository.DirectoryEntryRepository;
+import com.example.demo.repository.LawyerRepository;
+import com.example.demo.repository.NGORepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Deletes lawyer and NGO accounts together with what they put elsewhere: the
+ * directory entry registration created or filled in, and the uploaded
+ * documents. The account row, the directory change and the file outbox rows
+ * commit together, and caches are invalidated after the commit.
+ *
+ * An entry that registration created is deleted. An entry that came from an
+ * import stays in the directory (it is public register data) but loses the
+ * contact details the account wrote into it.
+ */
+@Service
+public class ProviderAccountService {
+
+    private static final String USER_REGISTRATION = "USER_REGISTRATION";
+
+    private final LawyerRepository lawyerRepository;
+    private final NGORepository ngoRepository;
+    private final DirectoryEntryRepository directoryEntryRepository;
+    private final AssetCleanupService assetCleanupService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProviderAccountService(LawyerRepository lawyerRepository,
+                                  NGORepository ngoRepository,
+                                  DirectoryEntryRepository directoryEntryRepository,
+                                  AssetCleanupService assetCleanupService,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.lawyerRepository = lawyerRepository;
+        this.ngoRepository = ngoRepository;
+        this.directoryEntryRepository = directoryEntryRepository;
+        this.assetCleanupService = assetCleanupService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return false if there is no such lawyer
+     */
+    @Transactional
+    public boolean deleteLawyer(Integer id) {
+        Lawyer lawyer = lawyerRepository.findById(id).orElse(null);
+        if (lawyer == null) {
+            return false;
+        }
+        lawyerRepository.delete(lawyer);
+        lawyerRepository.flush();
+        if (lawyer.getBarCouncilId() != null) {
+            release(directoryEntryRepository.findByTypeAndBarCouncilId("LAWYER", lawyer.getBarCouncilId()));
+        }
+        assetCleanupService.enqueue(lawyer.getAadharProofUrl(), "lawyer-deleted");
+        assetCleanupService.enqueue(lawyer.getBarCertificateUrl(), "lawyer-deleted");
+        return true;
+    }
+
+    /**
+     * @return false if there is no such NGO
+     */
+    @Transactional
+    public boolean deleteNgo(Integer id) {
+        NGO ngo = ngoRepository.findById(id).orElse(null);
+        if (ngo == null) {
+            return false;
+        }
+        ngoRepository.delete(ngo);
+        ngoRepository.flush();
+        if (ngo.getRegistrationNumber() != null) {
+            release(directoryEntryRepository.findByTypeAndRegistrationNumber("NGO", ngo.getRegistrationNumber()));
+        }
+        assetCleanupService.enqueue(ngo.getRegistrationCertificateUrl(), "ngo-deleted");
+        return true;
+    }
+
+    private void release(DirectoryEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        if (USER_REGISTRATION.equals(entry.getSource())) {
+            directoryEntryRepository.delete(entry);
+        } else {
+            entry.setContactPhone(null);
+            entry.setContactEmail(null);
+            directoryEntryRepository.save(entry);
+        }
+        eventPublisher.publishEvent(new DirectoryChangedEvent(entry.getId()));
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory inverted index of approved directory entries (lawyers and NGOs)
+ * for case matching.
+ *
+ * Every provider is posted under its type plus each specialization phrase
+ * (for NGOs, the NGO type), state, district and city, so finding the
+ * candidates for a case is a handful of hash lookups instead of a table scan.
+ * The index is built from directory_entries once the application is ready and
+ * kept current from {@link DirectoryChangedEvent}: a single entry is re-read
+ * and re-posted (or dropped if no longer approved), a bulk change rebuilds
+ * the whole index in the background and swaps it in. Entries changed while a
+ * rebuild is running are re-read after the swap, so they are never lost.
+ *
+ * Current load (open cases assigned to each provider) is kept alongside and
+ * refreshed from citizen_cases every matching.load-refresh-ms.
+ */
+@Service
+public class ProviderIndex {
+
+    public static final String LAWYER = "LAWYER";
+    public static final String NGO = "NGO";
+
+    private static final String SELECT_PROVIDER =
+            "SELECT id, type, name, specialization, state, district, city, latitude, longitude, " +
+                    "experience_years, verified, approved FROM directory_entries";
+
+    private static final String SELECT_LOAD =
+            "SELECT provider_id, count(*) FROM (" +
+                    "SELECT assigned_lawyer_id AS provider_id FROM citizen_cases " +
+                    "WHERE assigned_lawyer_id IS NOT NULL AND status NOT IN ('COMPLETED', 'RESOLVED', 'CLOSED') " +
+                    "UNION ALL " +
+                    "SELECT assigned_ngo_id FROM citizen_cases " +
+                    "WHERE assigned_ngo_id IS NOT NULL AND status NOT IN ('COMPLETED', 'RESOLVED', 'CLOSED')" +
+                    ") assigned GROUP BY provider_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService rebuildExecutor;
+
+    private volatile Index index = new Index();
+    private volatile boolean ready;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private volatile Set<Integer> changedDuringRebuild;
+    private final ConcurrentHashMap<Integer, AtomicInteger> load = new ConcurrentHashMap<>();
+
+    private volatile long lastRebuildMillis;
+    private volatile long lastRebuildAt;
+
+    public ProviderIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "provider-index-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        requestRebuild();
+    }
+
+    // fallbackExecution: non-transactional publishers (controllers) update immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectoryChanged(DirectoryChangedEvent event) {
+        if (event.getEntryId() == null) {
+            requestRebuild();
+            return;
+        }
+        Set<Integer> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(event.getEntryId());
+        }
+        try {
+            refresh(event.getEntryId());
+        } catch (RuntimeException e) {
+            System.err.println("Provider index refresh failed for entry " + event.getEntryId() + ": " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${matching.load-refresh-ms:300000}",
+            initialDelayString = "${matching.load-refresh-ms:300000}")
+    public void refreshLoads() {
+        Map<Integer, Integer> counts = new ConcurrentHashMap<>();
+        jdbcTemplate.query(SELECT_LOAD, (ResultSet rs) -> {
+            counts.put(rs.getInt(1), rs.getInt(2));
+        });
+        load.keySet().retainAll(counts.keySet());
+        counts.forEach((id, n) -> load.computeIfAbsent(id, k -> new AtomicInteger()).set(n));
+    }
+
+    /**
+     * Rebuild in the background; requests made while one is already queued are coalesced.
+     */
+    public void requestRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    System.err.println("Provider index rebuild failed: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Integer> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+
+        Index fresh = new Index();
+        jdbcTemplate.query(SELECT_PROVIDER + " WHERE approved = true", (ResultSet rs) -> {
+            fresh.put(readProvider(rs));
+        });
+        refreshLoads();
+
+        index = fresh;
+        changedDuringRebuild = null;
+        for (Integer id : changed) {
+            refresh(id);
+        }
+        ready = true;
+        lastRebuildAt = System.currentTimeMillis();
+        lastRebuildMillis = lastRebuildAt - start;
+        System.out.println("Provider index built: " + fresh.providers.size() + " providers in " + lastRebuildMillis + " ms");
+    }
+
+    private void refresh(Integer entryId) {
+        List<Provider> rows = jdbcTemplate.query(SELECT_PROVIDER + " WHERE id = ?",
+                (rs, rowNum) -> rs.getBoolean("approved") ? readProvider(rs) : null, entryId);
+        Provider provider = rows.isEmpty() ? null : rows.get(0);
+        if (provider != null) {
+            index.put(provider);
+        } else {
+            index.remove(entryId);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids posted under a key; see {@link #specializationKey}, {@link #placeKey} and {@link #allKey}.
+     */
+    public Set<Integer> postings(String key) {
+        Set<Integer> ids = index.postings.get(key);
+        return ids != null ? ids : Collections.emptySet();
+    }
+
+    public Provider get(Integer id) {
+        return index.providers.get(id);
+    }
+
+    public int load(Integer id) {
+        AtomicInteger n = load.get(id);
+        return n != null ? n.get() : 0;
+    }
+
+    public void adjustLoad(Integer id, int delta) {
+        load.computeIfAbsent(id, k -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    public Map<String, Object> stats() {
+        Index current = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("providers", current.providers.size());
+        stats.put("postingLists", current.postings.size());
+        stats.put("providersWithLoad", load.size());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("lastRebuildAt", lastRebuildAt);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public static String allKey(String type) {
+        return type + "|*";
+    }
+
+    public static String specializationKey(String type, String phrase) {
+        return type + "|s:" + phrase;
+    }
+
+    /**
+     * @param level "st" (state), "d" (district) or "c" (city)
+     */
+    public static String placeKey(String type, String level, String phrase) {
+        return type + "|" + level + ":" + phrase;
+    }
+
+    /**
+     * Normalize a specialization, NGO type or place name so that "Criminal
+     * Law", "criminal" and " CRIMINAL " post under the same key.
+     */
+    public static String normalize(String s) {
+        if (s == null) {
+            return null;
+        }
+        String n = s.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        n = n.replaceAll("\\s+laws?$", "").replaceAll("^the\\s+", "");
+        return n.isEmpty() ? null : n;
+    }
+
+    /**
+     * Split a free-text list ("Civil, Family & Property") into normalized phrases.
+     */
+    public static Set<String> phrases(String s) {
+        Set<String> out = new LinkedHashSet<>();
+        if (s == null) {
+            return out;
+        }
+        for (String part : s.split("[,;/|&]|\\band\\b")) {
+            String n = normalize(part);
+            if (n != null) {
+                out.add(n);
+            }
+        }
+        return out;
+    }
+
+    private static Provider readProvider(ResultSet rs) throws SQLException {
+        double lat = rs.getDouble("latitude");
+        boolean hasLat = !rs.wasNull();
+        double lon = rs.getDouble("longitude");
+        boolean hasCoordinates = hasLat && !rs.wasNull();
+        int experience = rs.getInt("experience_years");
+        Integer experienceYears = rs.wasNull() ? null : experience;
+        return new Provider(
+                rs.getInt("id"),
+                rs.getString("type"),
+                rs.getString("name"),
+                rs.getString("specialization"),
+                rs.getString("state"),
+                rs.getString("district"),
+                rs.getString("city"),
+                hasCoordinates ? lat : Double.NaN,
+                hasCoordinates ? lon : Double.NaN,
+                experienceYears,
+                rs.getBoolean("verified"));
+    }
+
+    /**
+     * Postings plus the providers they point to. Writers are serialized;
+     * readers never lock, and skip ids whose provider has just been removed.
+     */
+    private static final class Index {
+
+        private final ConcurrentHashMap<Integer, Provider> providers = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+
+        synchronized void put(Provider provider) {
+            Provider old = providers.put(provider.id, provider);
+            if (old != null) {
+                for (String key : old.keys) {
+                    unpost(key, old.id);
+                }
+            }
+            for (String key : provider.keys) {
+                postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(provider.id);
+            }
+        }
+
+        synchronized void remove(Integer id) {
+            Provider old = providers.remove(id);
+            if (old != null) {
+                for (String key : old.keys) {
+                    unpost(key, id);
+                }
+            }
+        }
+
+        private void unpost(String key, Integer id) {
+            Set<Integer> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key, ids);
+                }
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of the matching-relevant fields of a directory entry.
+     */
+    public static final class Provider {
+
+        private final int id;
+        private final String type;
+        private final String name;
+        private final String specialization;
+        private final Set<String> specializations;
+        private final String state;
+        private final String district;
+        private final String city;
+        private final String normalizedState;
+        private final String normalizedDistrict;
+        private final String normalizedCity;
+        private final double latitude;
+        private final double longitude;
+        private final Integer experienceYears;
+        private final boolean verified;
+        private final List<String> keys;
+
+        Provider(int id, String type, String name, String specialization, String state, String district,
+                 String city, double latitude, double longitude, Integer experienceYears, boolean verified) {
+            this.id = id;
+            this.type = type;
+            this.name = name;
+            this.specialization = specialization;
+            this.specializations = phrases(specialization);
+            this.state = state;
+            this.district = district;
+            this.city = city;
+            this.normalizedState = normalize(state);
+            this.normalizedDistrict = normalize(district);
+            this.normalizedCity = normalize(city);
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.experienceYears = experienceYears;
+            this.verified = verified;
+
+            List<String> k = new ArrayList<>();
+            k.add(allKey(type));
+            for (String phrase : specializations) {
+                k.add(specializationKey(type, phrase));
+            }
+            if (normalizedState != null) {
+                k.add(placeKey(type, "st", normalizedState));
+            }
+            if (normalizedDistrict != null) {
+                k.add(placeKey(type, "d", normalizedDistrict));
+            }
+            if (normalizedCity != null) {
+                k.add(placeKey(type, "c", normalizedCity));
+            }
+            this.keys = List.copyOf(k);
+        }
+
+        public int getId() { return id; }
+
+        public String getType() { return type; }
+
+        public String getName() { return name; }
+
+        public String getSpecialization() { return specialization; }
+
+        public Set<String> getSpecializations() { return specializations; }
+
+        public String getState() { return state; }
+
+        public String getDistrict() { return district; }
+
+        public String getCity() { return city; }
+
+        public String getNormalizedState() { return normalizedState; }
+
+        public String getNormalizedDistrict() { return normalizedDistrict; }
+
+        public String getNormalizedCity() { return normalizedCity; }
+
+        public boolean hasCoordinates() { return !Double.isNaN(latitude); }
+
+        public double getLatitude() { return latitude; }
+
+        public double getLongitude() { return longitude; }
+
+        public Integer getExperienceYears() { return experienceYears; }
+
+        public boolean isVerified() { return verified; }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+/**
+ * One ranked candidate for a case. Component scores are in [0, 1]; score is
+ * their weighted sum (see CaseMatchingService).
+ */
+public class ProviderMatch {
+
+    private final int entryId;
+    private final String type;
+    private final String name;
+    private final String specialization;
+    private final String state;
+    private final String district;
+    private final String city;
+    private final Integer experienceYears;
+    private final boolean verified;
+    private final Double distanceKm;
+    private final int currentLoad;
+    private final double score;
+    private final double specializationScore;
+    private final double proximityScore;
+
+    public ProviderMatch(ProviderIndex.Provider provider, Double distanceKm, int currentLoad,
+                         double score, double specializationScore, double proximityScore) {
+        this.entryId = provider.getId();
+        this.type = provider.getType();
+        this.name = provider.getName();
+        this.specialization = provider.getSpecialization();
+        this.state = provider.getState();
+        this.district = provider.getDistrict();
+        this.city = provider.getCity();
+        this.experienceYears = provider.getExperienceYears();
+        this.verified = provider.isVerified();
+        this.distanceKm = distanceKm;
+        this.currentLoad = currentLoad;
+        this.score = score;
+        this.specializationScore = specializationScore;
+        this.proximityScore = proximityScore;
+    }
+
+    public int getEntryId() { return entryId; }
+
+    public String getType() { return type; }
+
+    public String getName() { return name; }
+
+    public String getSpecialization() { return specialization; }
+
+    public String getState() { return state; }
+
+    public String getDistrict() { return district; }
+
+    public String getCity() { return city; }
+
+    public Integer getExperienceYears() { return experienceYears; }
+
+    public boolean isVerified() { return verified; }
+
+    public Double getDistanceKm() { return distanceKm; }
+
+    public int getCurrentLoad() { return currentLoad; }
+
+    public double getScore() { return score; }
+
+    public double getSpecializationScore() { return specializationScore; }
+
+    public double getProximityScore() { return proximityScore; }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.StoredAsset;
+import com.example.demo.repository.StoredAssetRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed front for the {@link BlobStore}.
+ *
+ * Every file is hashed (SHA-256, streamed from disk through a direct buffer)
+ * and looked up in stored_assets before anything goes over the network. The
+ * same Aadhaar proof or certificate uploaded again, by the same user on a
+ * profile edit or by someone else, comes back with the existing URL and no
+ * transfer; only new content reaches the store. The stored copy lives in the
+ * folder of whoever uploaded it first.
+ *
+ * Two concurrent uploads of new identical content both reach the store. The
+ * row is inserted, never merged, so the first to record it wins; the other
+ * gets the primary-key violation, returns the winner's asset and queues its
+ * own copy for deletion.
+ */
+@Service
+public class StoredAssetService {
+
+    private static final int HASH_BUFFER_BYTES = 64 * 1024;
+
+    private final BlobStore blobStore;
+    private final StoredAssetRepository repository;
+    private final AssetCleanupService assetCleanupService;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder bytesStored = new LongAdder();
+
+    public StoredAssetService(BlobStore blobStore, StoredAssetRepository repository,
+                              AssetCleanupService assetCleanupService) {
+        this.blobStore = blobStore;
+        this.repository = repository;
+        this.assetCleanupService = assetCleanupService;
+    }
+
+    /**
+     * Store a local file unless identical content is already stored.
+     * @return the stored asset; its sha256 is the checksum of the file
+     */
+    public StoredAsset store(Path file, String contentType, String folder, String filename) throws IOException {
+        long size = Files.size(file);
+        String sha256 = sha256(file);
+
+        // a row that cleanup forgets in between is a miss, so its URL is never handed out again
+        Optional<StoredAsset> existing = repository.findById(sha256);
+        if (existing.isPresent() && assetCleanupService.markReused(sha256)) {
+            hits.increment();
+            bytesSaved.add(size);
+            return existing.get();
+        }
+
+        misses.increment();
+        UploadedFile uploaded = blobStore.put(file, contentType, folder, filename);
+        bytesStored.add(size);
+
+        StoredAsset asset = new StoredAsset(sha256, uploaded.getUrl(), uploaded.getStorageKey(), contentType, size);
+        try {
+            return repository.saveAndFlush(asset);
+        } catch (DataIntegrityViolationException e) {
+            // the same content was recorded by a concurrent upload; use that copy and drop ours
+            Optional<StoredAsset> winner = repository.findById(sha256);
+            if (winner.isEmpty()) {
+                // already forgotten again by cleanup; ours is unrecorded but valid
+                return asset;
+            }
+            assetCleanupService.enqueue(uploaded.getUrl(), uploaded.getStorageKey(), contentType, "duplicate-upload");
+            return winner.get();
+        }
+    }
+
+    static String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_BYTES);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", blobStore.name());
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("bytesSaved", bytesSaved.sum());
+        stats.put("bytesStored", bytesStored.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.service;
+
+import com.example.demo.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revoked token IDs (JWT "jti"), stored in revoked_tokens and mirrored in an
+ * in-memory Bloom filter.
+ *
+ * The hot path ({@link #isRevoked}) is a Bloom lookup; only a positive, which
+ * is either a real revocation or a ~1% false positive, goes to the database.
+ * Revocations made on this instance are added to the filter immediately;
+ * ones made elsewhere are picked up by a periodic incremental poll on
+ * revoked_at. The filter is rebuilt from the table on a longer interval so
+ * expired tokens, which no longer need tracking, drop out of it.
+ */
+@Service
+public class TokenRevocationService {
+
+    // revocations committing slightly out of revoked_at order are still picked up
+    private static final long POLL_OVERLAP_MILLIS = 60_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedRevocations;
+
+    private volatile BloomFilter filter;
+    private volatile Timestamp watermark;
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong bloomPositives = new AtomicLong();
+    private final AtomicLong confirmed = new AtomicLong();
+
+    public TokenRevocationService(JdbcTemplate jdbcTemplate,
+                                  @Value("${jwt.revocation.expected-entries:100000}") long expectedRevocations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedRevocations = expectedRevocations;
+    }
+
+    /**
+     * Revoke a token until it would have expired anyway.
+     * @return false if it was already revoked, which makes refresh-token rotation single use
+     */
+    public boolean revoke(String tokenId, Date expiresAt) {
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, now()) " +
+                        "ON CONFLICT (jti) DO NOTHING",
+                tokenId, new Timestamp(expiresAt.getTime()));
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(tokenId);
+        }
+        return inserted == 1;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        checks.incrementAndGet();
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(tokenId)) {
+            return false;
+        }
+
+        // bloom positive, or filter not loaded yet
+        bloomPositives.incrementAndGet();
+        boolean revoked = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM revoked_tokens WHERE jti = ?)", Boolean.class, tokenId));
+        if (revoked) {
+            confirmed.incrementAndGet();
+        }
+        return revoked;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-ms:30000}")
+    public void pollRevocations() {
+        try {
+            if (filter == null) {
+                rebuild();
+            } else {
+                catchUp();
+            }
+        } catch (Exception e) {
+            System.err.println("Revocation poll failed: " + e.getMessage());
+        }
+    }
+
+    private synchronized void catchUp() {
+        Timestamp since = new Timestamp(watermark.getTime() - POLL_OVERLAP_MILLIS);
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT jti, revoked_at FROM revoked_tokens WHERE revoked_at > ?",
+                (rs, i) -> new Object[] { rs.getString("jti"), rs.getTimestamp("revoked_at") },
+                since);
+        BloomFilter current = filter;
+        Timestamp latest = watermark;
+        for (Object[] row : rows) {
+            current.put((String) row[0]);
+            Timestamp revokedAt = (Timestamp) row[1];
+            if (revokedAt.after(latest)) {
+                latest = revokedAt;
+            }
+        }
+        watermark = latest;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-ms:3600000}",
+            initialDelayString = "${jwt.revocation.rebuild-ms:3600000}")
+    public void rebuildFilter() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("Revocation filter rebuild failed: " + e.getMessage());
+        }
+    }
+
+    private synchronized void rebuild() {
+        jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < now()");
+
+        Timestamp start = jdbcTemplate.queryForObject("SELECT now()::timestamp", Timestamp.class);
+        long live = jdbcTemplate.queryForObject("SELECT count(*) FROM revoked_tokens", Long.class);
+        BloomFilter fresh = new BloomFilter(Math.max(expectedRevocations, live * 2), 0.01);
+        jdbcTemplate.query("SELECT jti FROM revoked_tokens", rs -> {
+            fresh.put(rs.getString("jti"));
+        });
+
+        watermark = start;
+        filter = fresh;
+        // revocations committed while loading went into the old filter; replay them
+        catchUp();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", filter != null);
+        stats.put("checks", checks.get());
+        stats.put("bloomPositives", bloomPositives.get());
+        stats.put("confirmedRevoked", confirmed.get());
+        return stats;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+/**
+ * Where an uploaded file ended up: its public URL and the provider-side key
+ * needed to delete it later.
+ */
+public class UploadedFile {
+
+    private final String url;
+    private final String storageKey;
+
+    public UploadedFile(String url, String storageKey) {
+        this.url = url;
+        this.storageKey = storageKey;
+    }
+
+    public String getUrl() { return url; }
+
+    public String getStorageKey() { return storageKey; }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Registration uniqueness checks against user_identities, a single lookup
+ * table of normalised (lower-cased, trimmed) emails, Aadhaar numbers and
+ * registration IDs for citizens, lawyers, NGOs and admins.
+ *
+ * The table is kept in sync by triggers on the four user tables (see
+ * DatabaseMigration), so imports and direct SQL are covered as well. Its
+ * primary key (user_type, kind, value) answers all of a registration's
+ * checks in one index probe.
+ */
+@Service
+public class UserIdentityService {
+
+    public static final String EMAIL = "EMAIL";
+    public static final String AADHAAR = "AADHAAR";
+    public static final String BAR_COUNCIL_ID = "BAR_COUNCIL_ID";
+    public static final String REGISTRATION_NUMBER = "REGISTRATION_NUMBER";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserIdentityService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param userType CITIZEN, LAWYER, NGO or ADMIN
+     * @param identities kind -> raw value; blank values are ignored
+     * @return the kinds whose value is already registered for this user type
+     */
+    public Set<String> findTaken(String userType, Map<String, String> identities) {
+        List<Object> params = new ArrayList<>();
+        params.add(userType);
+        StringJoiner pairs = new StringJoiner(", ");
+        identities.forEach((kind, value) -> {
+            String normalized = normalize(value);
+            if (normalized != null) {
+                pairs.add("(?, ?)");
+                params.add(kind);
+                params.add(normalized);
+            }
+        });
+        if (params.size() == 1) {
+            return Set.of();
+        }
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT kind FROM user_identities WHERE user_type = ? AND (kind, value) IN (" + pairs + ")",
+                String.class, params.toArray()));
+    }
+
+    // must match the lower(btrim(...)) used by the sync trigger
+    static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent Bloom filter over strings. {@link #mightContain} never returns a
+ * false negative; false positives occur at roughly the configured rate while
+ * the filter holds no more than the expected number of items.
+ *
+ * Bits live in an AtomicLongArray, so puts and lookups are lock-free. Items
+ * cannot be removed; rebuild a fresh filter to drop them.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedItems, double falsePositiveRate) {
+        long n = Math.max(expectedItems, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(String item) {
+        long h1 = hash(item, 0x9E3779B97F4A7C15L);
+        long h2 = hash(item, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String item) {
+        long h1 = hash(item, 0x9E3779B97F4A7C15L);
+        long h2 = hash(item, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a over UTF-8 bytes, seeded, with a murmur-style finaliser
+    private static long hash(String item, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85B93L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
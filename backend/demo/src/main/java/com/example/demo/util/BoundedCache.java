@@ -0,0 +1,105 @@
+package com.example.demo.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small in-process read-through cache with LRU size bound, per-entry TTL and
+ * hit/miss counters.
+ *
+ * Invalidation bumps a generation counter, and a value loaded under an older
+ * generation is returned to its caller but not stored. That way a load that
+ * raced with an invalidation can never put stale data back into the cache.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, CachedValue<V>> map;
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value for key, loading and caching it on a miss.
+     * Null values are returned but never cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            CachedValue<V> cached = map.get(key);
+            if (cached != null) {
+                if (cached.expiresAt > System.currentTimeMillis()) {
+                    hits++;
+                    return cached.value;
+                }
+                map.remove(key);
+                evictions++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+
+        if (value != null) {
+            synchronized (this) {
+                if (loadGeneration == generation) {
+                    map.put(key, new CachedValue<>(value, System.currentTimeMillis() + ttlMillis));
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+        generation++;
+    }
+
+    public synchronized void invalidateAll() {
+        map.clear();
+        generation++;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long requests = hits + misses;
+        stats.put("size", map.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        return stats;
+    }
+
+    private static class CachedValue<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        CachedValue(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.demo.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of tasks to capacitated workers over a sparse set
+ * of allowed (task, worker, cost) edges.
+ *
+ * Tasks are added one at a time. Each addition augments along the cheapest
+ * path from the new task to the sink in the residual graph: straight to a
+ * worker with spare capacity, or through a chain of reassignments that frees
+ * one up, or to the task's "unassigned" edge. Adding a task never creates a
+ * negative cycle, so after every addition the assignment is optimal for the
+ * tasks added so far, and the result does not depend on insertion order the
+ * way a greedy first-come assignment does.
+ *
+ * Paths are found with a queue-based Bellman-Ford (reassignment edges have
+ * negative cost), which only visits workers reachable from the new task; while
+ * workers have spare capacity that is just the task's own edges.
+ */
+public final class CapacitatedAssignment {
+
+    private final int[] remaining;
+
+    private int[][] edgeWorkers = new int[16][];
+    private long[][] edgeCosts = new long[16][];
+    private long[] unassignedCosts = new long[16];
+    private int[] assignedEdge = new int[16]; // index into the task's edges, -1 = unassigned
+    private int tasks;
+
+    // tasks currently holding each worker, for walking reassignment edges backwards
+    private final IntList[] holders;
+
+    private long totalCost;
+
+    /**
+     * @param capacity spare capacity per worker (0..n-1); negative values count as 0
+     */
+    public CapacitatedAssignment(int[] capacity) {
+        this.remaining = new int[capacity.length];
+        this.holders = new IntList[capacity.length];
+        for (int w = 0; w < capacity.length; w++) {
+            remaining[w] = Math.max(capacity[w], 0);
+            holders[w] = new IntList();
+        }
+    }
+
+    /**
+     * Add a task and re-optimize.
+     * @param workers candidate worker indexes
+     * @param costs cost of giving the task to each candidate (same order)
+     * @param unassignedCost cost of leaving the task unassigned; make it larger
+     *                       than any chain of assignment costs to maximize the
+     *                       number of assigned tasks first
+     * @return the task index
+     */
+    public int add(int[] workers, long[] costs, long unassignedCost) {
+        if (workers.length != costs.length) {
+            throw new IllegalArgumentException("workers and costs differ in length");
+        }
+        int task = tasks++;
+        if (task == edgeWorkers.length) {
+            int n = task * 2;
+            edgeWorkers = Arrays.copyOf(edgeWorkers, n);
+            edgeCosts = Arrays.copyOf(edgeCosts, n);
+            unassignedCosts = Arrays.copyOf(unassignedCosts, n);
+            assignedEdge = Arrays.copyOf(assignedEdge, n);
+        }
+        edgeWorkers[task] = workers.clone();
+        edgeCosts[task] = costs.clone();
+        unassignedCosts[task] = unassignedCost;
+        assignedEdge[task] = -1;
+
+        augment(task);
+        return task;
+    }
+
+    /**
+     * @return the worker index for the task, or -1 if it is unassigned
+     */
+    public int workerOf(int task) {
+        int e = assignedEdge[task];
+        return e < 0 ? -1 : edgeWorkers[task][e];
+    }
+
+    public int size() {
+        return tasks;
+    }
+
+    /**
+     * Sum of the costs of all current assignments plus the unassigned costs.
+     */
+    public long totalCost() {
+        return totalCost;
+    }
+
+    private void augment(int start) {
+        int workers = remaining.length;
+        // node ids: tasks are 0..tasks-1, workers are tasks..tasks+workers-1
+        int nodes = tasks + workers;
+        long[] dist = new long[nodes];
+        int[] prevTask = new int[workers]; // task whose edge reached the worker
+        int[] prevEdge = new int[workers];
+        int[] prevWorker = new int[tasks];  // worker whose reassignment edge reached the task
+        boolean[] queued = new boolean[nodes];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        Arrays.fill(prevWorker, -1);
+
+        // best way to end a path: (cost, task that takes its unassigned edge or -1, worker with spare capacity or -1)
+        long best = Long.MAX_VALUE;
+        int bestTask = -1;
+        int bestWorker = -1;
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        dist[start] = 0;
+        queue.add(start);
+        queued[start] = true;
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            queued[node] = false;
+
+            if (node < tasks) {
+                int task = node;
+                long d = dist[task];
+                // a task reached through a reassignment can give up its worker and go unassigned
+                if (task == start || assignedEdge[task] >= 0) {
+                    long end = d + unassignedCosts[task];
+                    if (end < best) {
+                        best = end;
+                        bestTask = task;
+                        bestWorker = -1;
+                    }
+                }
+                int current = assignedEdge[task];
+                int[] ws = edgeWorkers[task];
+                long[] cs = edgeCosts[task];
+                for (int e = 0; e < ws.length; e++) {
+                    if (e == current) {
+                        continue;
+                    }
+                    int worker = ws[e];
+                    long nd = d + cs[e];
+                    int wNode = tasks + worker;
+                    if (nd < dist[wNode]) {
+                        dist[wNode] = nd;
+                        prevTask[worker] = task;
+                        prevEdge[worker] = e;
+                        if (!queued[wNode]) {
+                            queue.add(wNode);
+                            queued[wNode] = true;
+                        }
+                    }
+                }
+            } else {
+                int worker = node - tasks;
+                long d = dist[node];
+                if (remaining[worker] > 0 && d < best) {
+                    best = d;
+                    bestTask = -1;
+                    bestWorker = worker;
+                }
+                IntList holding = holders[worker];
+                for (int i = 0; i < holding.size; i++) {
+                    int task = holding.items[i];
+                    long nd = d - edgeCosts[task][assignedEdge[task]];
+                    if (nd < dist[task]) {
+                        dist[task] = nd;
+                        prevWorker[task] = worker;
+                        if (!queued[task]) {
+                            queue.add(task);
+                            queued[task] = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        totalCost += best;
+
+        // walk the path backwards: each worker on it is handed to the task whose edge reached it
+        int worker;
+        if (bestWorker >= 0) {
+            worker = bestWorker;
+            remaining[worker]--;
+        } else if (bestTask == start) {
+            return;
+        } else {
+            // bestTask gives up its worker and goes unassigned, freeing a slot
+            worker = prevWorker[bestTask];
+            unassign(bestTask);
+        }
+        while (true) {
+            int task = prevTask[worker];
+            int previous = prevWorker[task];
+            unassign(task);
+            assignedEdge[task] = prevEdge[worker];
+            holders[worker].add(task);
+            if (task == start) {
+                return;
+            }
+            worker = previous; // the slot this task just gave up
+        }
+    }
+
+    private void unassign(int task) {
+        int e = assignedEdge[task];
+        if (e >= 0) {
+            holders[edgeWorkers[task][e]].remove(task);
+            assignedEdge[task] = -1;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] items = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == value) {
+                    items[i] = items[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
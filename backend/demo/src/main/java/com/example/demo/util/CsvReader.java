@@ -0,0 +1,119 @@
+package com.example.demo.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC-4180 CSV reader.
+ *
+ * Reads one record at a time from the underlying reader, so memory use stays
+ * constant regardless of file size. Supports quoted fields, escaped quotes
+ * ("" inside a quoted field), commas and line breaks inside quoted fields,
+ * and both LF and CRLF record separators.
+ */
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+
+    // line on which the last returned record started (1-based)
+    private long recordLine = 0;
+    private long currentLine = 1;
+    private int pushback = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Read the next record.
+     * @return the fields of the record, or null at end of input
+     * @throws IOException if the input cannot be read or a quoted field is not terminated
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        recordLine = currentLine;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean afterQuote = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        currentLine++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n' || c == '\r') {
+                fields.add(field.toString());
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                if (c != -1) {
+                    currentLine++;
+                }
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == '"' && field.length() == 0 && !afterQuote) {
+                quoted = true;
+            } else {
+                // lenient: characters after a closing quote are kept as-is
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return the 1-based line number on which the last returned record started
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
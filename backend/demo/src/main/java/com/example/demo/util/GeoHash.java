@@ -0,0 +1,130 @@
+package com.example.demo.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and helpers for radius lookups.
+ *
+ * A geohash is a base-32 string where every extra character narrows the cell,
+ * so "all points in cell X" is a plain prefix match that a B-tree index on the
+ * geohash column can answer. A circle of radius r is always covered by the
+ * 3x3 block of cells around its centre, at a precision whose cells are at
+ * least r wide and tall.
+ */
+public final class GeoHash {
+
+    public static final int MAX_PRECISION = 9;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private GeoHash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Height of a cell at the given precision, in degrees of latitude.
+     */
+    public static double cellHeightDegrees(int precision) {
+        int latBits = (5 * precision) / 2;
+        return 180.0 / Math.pow(2, latBits);
+    }
+
+    /**
+     * Width of a cell at the given precision, in degrees of longitude.
+     */
+    public static double cellWidthDegrees(int precision) {
+        int lonBits = (5 * precision + 1) / 2;
+        return 360.0 / Math.pow(2, lonBits);
+    }
+
+    /**
+     * Finest precision whose cells are at least radiusKm in both directions at
+     * this latitude, so the 3x3 neighbourhood covers the whole circle.
+     */
+    public static int precisionForRadius(double radiusKm, double latitude) {
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        for (int p = MAX_PRECISION; p >= 1; p--) {
+            double heightKm = cellHeightDegrees(p) * KM_PER_DEGREE;
+            double widthKm = cellWidthDegrees(p) * KM_PER_DEGREE * cosLat;
+            if (heightKm >= radiusKm && widthKm >= radiusKm) {
+                return p;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * The cell containing the point plus its (up to) eight neighbours.
+     */
+    public static Set<String> coveringCells(double latitude, double longitude, int precision) {
+        double dLat = cellHeightDegrees(precision);
+        double dLon = cellWidthDegrees(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        for (int i = -1; i <= 1; i++) {
+            for (int j = -1; j <= 1; j++) {
+                double lat = Math.max(-89.999999, Math.min(89.999999, latitude + i * dLat));
+                double lon = longitude + j * dLon;
+                if (lon >= 180) {
+                    lon -= 360;
+                } else if (lon < -180) {
+                    lon += 360;
+                }
+                cells.add(encode(lat, lon, precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Great-circle distance in kilometres (haversine).
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.util;
+
+import java.util.Date;
+
+/**
+ * The verified contents of an access token. Immutable, so one instance can be
+ * shared between requests through JwtUtil's verification cache.
+ */
+public final class JwtPrincipal {
+
+    private final Integer userId;
+    private final String email;
+    private final String role;
+    private final String username;
+    private final Date expiresAt;
+    private final String tokenId;
+
+    public JwtPrincipal(Integer userId, String email, String role, String username, Date expiresAt,
+                        String tokenId) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.username = username;
+        this.expiresAt = expiresAt != null ? new Date(expiresAt.getTime()) : null;
+        this.tokenId = tokenId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt != null ? new Date(expiresAt.getTime()) : null;
+    }
+
+    /**
+     * The token's "jti", used for revocation; null for tokens issued before it was added.
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.getTime() <= System.currentTimeMillis();
+    }
+}
@@ -1,42 +1,68 @@
 package com.example.demo.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private long expiration;
-
-    // ================= KEY =================
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private static final String TOKEN_TYPE_CLAIM = "type";
+    private static final String REFRESH_TYPE = "refresh";
+
+    private final long expiration;
+    private final long refreshExpiration;
+
+    // Built once; both are immutable and thread-safe
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    // Recently verified tokens, keyed by SHA-256 of the token so raw tokens are not held
+    private final BoundedCache<String, JwtPrincipal> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration,
+                   @Value("${jwt.refresh-expiration:1209600000}") long refreshExpiration,
+                   @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries,
+                   @Value("${jwt.cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = new BoundedCache<>(cacheMaxEntries, cacheTtlSeconds * 1000);
     }
 
     // ================= TOKEN GENERATION =================
 
     // Used internally
     public String generateToken(Map<String, Object> claims, String subject) {
+        return buildToken(claims, subject, expiration);
+    }
+
+    private String buildToken(Map<String, Object> claims, String subject, long lifetimeMillis) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + lifetimeMillis))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -50,26 +76,98 @@ public class JwtUtil {
         return generateToken(claims, username);
     }
 
+    /**
+     * Long-lived token accepted only by /api/auth/refresh, never as an access token.
+     */
+    public String generateRefreshToken(String email, String role, String username, Integer userId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("email", email);
+        claims.put("role", role);
+        claims.put("userId", userId);
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TYPE);
+
+        return buildToken(claims, username, refreshExpiration);
+    }
+
+    // ================= VERIFICATION =================
+
+    /**
+     * Verify the token once and return its claims as a typed principal.
+     * Repeat calls with the same token are answered from a bounded cache.
+     * @throws io.jsonwebtoken.ExpiredJwtException if the token has expired
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, the signature is wrong
+     *         or it is a refresh token
+     */
+    public JwtPrincipal verify(String token) {
+        String key = hash(token);
+        JwtPrincipal principal = verifiedTokens.get(key, k -> parse(token));
+        if (principal.isExpired()) {
+            verifiedTokens.invalidate(key);
+            // re-parse so the caller gets the same ExpiredJwtException as an uncached token
+            return parse(token);
+        }
+        return principal;
+    }
+
+    /**
+     * Verify a refresh token. Not cached: refresh is rare and each token is used once.
+     * @throws io.jsonwebtoken.JwtException if invalid, expired or not a refresh token
+     */
+    public JwtPrincipal verifyRefresh(String token) {
+        Claims claims = extractAllClaims(token);
+        if (!REFRESH_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))) {
+            throw new JwtException("Not a refresh token");
+        }
+        return toPrincipal(claims);
+    }
+
+    private JwtPrincipal parse(String token) {
+        Claims claims = extractAllClaims(token);
+        if (REFRESH_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))) {
+            throw new JwtException("Refresh tokens cannot be used as access tokens");
+        }
+        return toPrincipal(claims);
+    }
+
+    private static JwtPrincipal toPrincipal(Claims claims) {
+        return new JwtPrincipal(
+                claims.get("userId", Integer.class),
+                claims.get("email", String.class),
+                claims.get("role", String.class),
+                claims.getSubject(),
+                claims.getExpiration(),
+                claims.getId());
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     // ================= CLAIM EXTRACTION =================
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getUsername();
     }
 
     public String extractEmail(String token) {
-        return extractAllClaims(token).get("email", String.class);
+        return verify(token).getEmail();
     }
 
     public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
+        return verify(token).getRole();
     }
 
     public Integer extractUserId(String token) {
-        return extractAllClaims(token).get("userId", Integer.class);
+        return verify(token).getUserId();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).getExpiresAt();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> resolver) {
@@ -77,16 +175,11 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     // ================= VALIDATION =================
 
-    // ✅ MUST BE PUBLIC (ProfileController uses it)
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -0,0 +1,52 @@
+package com.example.demo.util;
+
+/**
+ * Token-bucket rate limiter. Holds up to {@code capacity} tokens and refills
+ * at {@code permitsPerSecond}.
+ *
+ * Callers reserve a token rather than sleeping for it: {@link #reserve} says
+ * how long to wait before using the token, and the caller can schedule the
+ * work for later without holding a thread.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double nanosPerToken;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, double capacity) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate must be positive and capacity at least 1");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = 1_000_000_000d / permitsPerSecond;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take a token, possibly one that only becomes available in the future.
+     * @return nanoseconds to wait before using the token (0 if available now),
+     *         or -1 if that wait would exceed maxWaitNanos, in which case
+     *         nothing is taken
+     */
+    public synchronized long reserve(long maxWaitNanos) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+        lastRefill = now;
+
+        // tokens may go negative: each outstanding reservation is a token owed
+        long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    public boolean tryAcquire() {
+        return reserve(0) == 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileControllerTest {
+
+    private static final long[] WHOLE_FILE = new long[0];
+
+    @Test
+    void singleRangeIsClampedToLength() {
+        assertArrayEquals(new long[] {0, 99}, FileController.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[] {900, 999}, FileController.parseRange("bytes=900-5000", 1000));
+        assertArrayEquals(new long[] {500, 999}, FileController.parseRange("bytes=500-", 1000));
+    }
+
+    @Test
+    void suffixRangeIsTheLastBytes() {
+        assertArrayEquals(new long[] {900, 999}, FileController.parseRange("bytes=-100", 1000));
+        assertArrayEquals(new long[] {0, 999}, FileController.parseRange("bytes=-5000", 1000));
+        assertNull(FileController.parseRange("bytes=-0", 1000));
+        assertNull(FileController.parseRange("bytes=-10", 0));
+    }
+
+    @Test
+    void startPastEndOfFileIsUnsatisfiable() {
+        assertNull(FileController.parseRange("bytes=1000-", 1000));
+        assertNull(FileController.parseRange("bytes=1000-2000", 1000));
+        assertNull(FileController.parseRange("bytes=0-", 0));
+    }
+
+    @Test
+    void invalidOrUnsupportedRangesSendWholeFile() {
+        assertArrayEquals(WHOLE_FILE, FileController.parseRange("bytes=500-100", 1000)); // start > end
+        assertArrayEquals(WHOLE_FILE, FileController.parseRange("bytes=0-10, 20-30", 1000)); // multi-range
+        assertArrayEquals(WHOLE_FILE, FileController.parseRange("bytes=-", 1000));
+        assertArrayEquals(WHOLE_FILE, FileController.parseRange("bytes=abc-", 1000));
+        assertArrayEquals(WHOLE_FILE, FileController.parseRange("items=0-10", 1000));
+    }
+
+    @Test
+    void overflowingNumbersSendWholeFile() {
+        assertArrayEquals(WHOLE_FILE, FileController.parseRange("bytes=99999999999999999999-", 1000));
+        assertArrayEquals(WHOLE_FILE, FileController.parseRange("bytes=0-99999999999999999999", 1000));
+        assertArrayEquals(WHOLE_FILE, FileController.parseRange("bytes=-99999999999999999999", 1000));
+    }
+}
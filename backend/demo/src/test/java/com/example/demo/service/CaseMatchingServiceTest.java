@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CaseMatchingServiceTest {
+
+    private static final int CAPACITY = 2;
+
+    private CaseMatchingService service;
+
+    @BeforeEach
+    void setUp() {
+        // provider 1 is the better match but already at capacity
+        ProviderIndex.Provider full = new ProviderIndex.Provider(1, ProviderIndex.LAWYER, "Full", "criminal",
+                "Maharashtra", "Pune", "Pune", Double.NaN, Double.NaN, 20, true);
+        ProviderIndex.Provider free = new ProviderIndex.Provider(2, ProviderIndex.LAWYER, "Free", "family",
+                "Maharashtra", "Pune", "Pune", Double.NaN, Double.NaN, 1, false);
+
+        ProviderIndex index = mock(ProviderIndex.class);
+        when(index.postings(ProviderIndex.specializationKey(ProviderIndex.LAWYER, "criminal"))).thenReturn(Set.of(1));
+        when(index.postings(ProviderIndex.specializationKey(ProviderIndex.LAWYER, "family"))).thenReturn(Set.of(2));
+        when(index.get(1)).thenReturn(full);
+        when(index.get(2)).thenReturn(free);
+        when(index.load(1)).thenReturn(CAPACITY);
+        when(index.load(2)).thenReturn(0);
+
+        service = new CaseMatchingService(index, mock(GeocodingService.class), CAPACITY, 25);
+    }
+
+    @Test
+    void fullProvidersAreRankedForNonUrgentCases() {
+        List<ProviderMatch> matches = service.topK(query(false), 1);
+
+        assertEquals(1, matches.size());
+        assertEquals(1, matches.get(0).getEntryId());
+    }
+
+    @Test
+    void fullProvidersAreSkippedForUrgentCases() {
+        List<ProviderMatch> matches = service.topK(query(true), 1);
+
+        assertEquals(List.of(2), matches.stream().map(ProviderMatch::getEntryId).toList());
+    }
+
+    @Test
+    void availableOnlyLeavesSlotsForProvidersWithSpareCapacity() {
+        List<ProviderMatch> matches = service.topK(query(false), 1, true);
+
+        assertEquals(List.of(2), matches.stream().map(ProviderMatch::getEntryId).toList());
+    }
+
+    private static MatchQuery query(boolean urgent) {
+        return new MatchQuery(ProviderIndex.LAWYER, Set.of("criminal", "family"), Set.of(),
+                Set.of("pune"), null, null, urgent);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.DirectoryEntry;
+import com.example.demo.repository.DirectoryEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DirectoryServiceTest {
+
+    private DirectoryEntryRepository repository;
+    private DirectoryService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DirectoryEntryRepository.class);
+        service = new DirectoryService(repository, mock(DirectorySearchService.class),
+                mock(DirectoryTextSearchService.class), 100, 300);
+    }
+
+    @Test
+    void approvedEntryIsLoadedOnceThenCached() {
+        when(repository.findById(1L)).thenReturn(Optional.of(entry("Approved", true)));
+
+        assertEquals("Approved", service.getById(1L).getName());
+        assertEquals("Approved", service.getById(1L).getName());
+
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void unapprovedEntryTakesOneQueryAndIsNotCached() {
+        when(repository.findById(2L)).thenReturn(Optional.of(entry("Pending", false)));
+
+        assertFalse(service.getById(2L).isApproved());
+        verify(repository, times(1)).findById(2L);
+
+        service.getById(2L);
+        verify(repository, times(2)).findById(2L);
+    }
+
+    @Test
+    void missingEntryIsAnError() {
+        when(repository.findById(3L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> service.getById(3L));
+        verify(repository, times(1)).findById(3L);
+    }
+
+    private static DirectoryEntry entry(String name, boolean approved) {
+        DirectoryEntry entry = new DirectoryEntry();
+        entry.setName(name);
+        entry.setType("LAWYER");
+        entry.setApproved(approved);
+        return entry;
+    }
+}
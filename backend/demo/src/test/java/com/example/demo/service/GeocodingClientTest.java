@@ -0,0 +1,236 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against stub providers on a local HTTP server (ephemeral
+ * port), one context per provider.
+ */
+class GeocodingClientTest {
+
+    private static final String MATCH = "[{\"lat\": \"18.52\", \"lon\": \"73.85\"}]";
+    private static final String NO_MATCH = "[]";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final Map<String, Stub> stubs = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        for (String provider : List.of("locationiq", "opencage", "nominatim")) {
+            Stub stub = new Stub();
+            stubs.put(provider, stub);
+            server.createContext("/" + provider, stub::handle);
+        }
+        // a slow stub must not hold up the others
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void failedAndEmptyProvidersHandOverInOrder() {
+        stubs.get("locationiq").respond(500, "{}");
+        stubs.get("opencage").respond(200, "{\"results\": []}");
+        stubs.get("nominatim").respond(200, MATCH);
+
+        GeocodeResult result = client(true, 100, 0, 2000, 3, 30).geocode("Pune");
+
+        assertEquals("nominatim", result.getProvider());
+        assertEquals("18.52", result.getLatitude());
+        assertEquals(1, stubs.get("locationiq").hits());
+        assertEquals(1, stubs.get("opencage").hits());
+        assertEquals(1, stubs.get("nominatim").hits());
+    }
+
+    @Test
+    void firstMatchStopsTheFallback() {
+        stubs.get("locationiq").respond(200, MATCH);
+
+        GeocodeResult result = client(true, 100, 0, 2000, 3, 30).geocode("Pune");
+
+        assertEquals("locationiq", result.getProvider());
+        assertEquals(0, stubs.get("opencage").hits());
+        assertEquals(0, stubs.get("nominatim").hits());
+    }
+
+    @Test
+    void noMatchAnywhereIsNotFoundButOutageIsAnError() {
+        stubs.get("nominatim").respond(200, NO_MATCH);
+        GeocodingClient client = client(false, 100, 0, 2000, 3, 30);
+
+        assertFalse(client.geocode("Nowhere").isFound());
+
+        stubs.get("nominatim").respond(503, "{}");
+        assertThrows(IllegalStateException.class, () -> client.geocode("Nowhere"));
+    }
+
+    @Test
+    void breakerOpensAfterFailuresAndHalfOpensAfterCoolDown() throws InterruptedException {
+        Stub nominatim = stubs.get("nominatim");
+        nominatim.respond(500, "{}");
+        GeocodingClient client = client(false, 100, 0, 2000, 2, 1);
+
+        assertThrows(IllegalStateException.class, () -> client.geocode("Pune"));
+        assertThrows(IllegalStateException.class, () -> client.geocode("Pune"));
+        assertEquals("OPEN", client.providerStats().get("nominatim"));
+
+        // open: skipped without a call
+        assertThrows(IllegalStateException.class, () -> client.geocode("Pune"));
+        assertEquals(2, nominatim.hits());
+
+        Thread.sleep(1100);
+        assertEquals("HALF_OPEN", client.providerStats().get("nominatim"));
+        nominatim.respond(200, MATCH);
+
+        assertTrue(client.geocode("Pune").isFound());
+        assertEquals(3, nominatim.hits());
+        assertEquals("CLOSED", client.providerStats().get("nominatim"));
+    }
+
+    @Test
+    void failedTrialCallOpensTheBreakerAgain() throws InterruptedException {
+        Stub nominatim = stubs.get("nominatim");
+        nominatim.respond(500, "{}");
+        GeocodingClient client = client(false, 100, 0, 2000, 1, 1);
+
+        assertThrows(IllegalStateException.class, () -> client.geocode("Pune"));
+        Thread.sleep(1100);
+        assertThrows(IllegalStateException.class, () -> client.geocode("Pune"));
+
+        assertEquals(2, nominatim.hits());
+        assertEquals("OPEN", client.providerStats().get("nominatim"));
+    }
+
+    @Test
+    void requestsWaitForTheirRateLimitToken() {
+        stubs.get("nominatim").respond(200, MATCH);
+        GeocodingClient client = client(false, 4, 0, 2000, 3, 30);
+
+        List<CompletableFuture<GeocodeResult>> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            calls.add(client.geocodeAsync("Pune " + i));
+        }
+        calls.forEach(call -> assertTrue(call.join().isFound()));
+
+        // one token up front, then one every 250 ms
+        List<Long> times = stubs.get("nominatim").times();
+        assertEquals(3, times.size());
+        assertTrue(times.get(2) - times.get(0) >= 400, "requests were not spaced out: " + times);
+    }
+
+    @Test
+    void requestThatWouldWaitTooLongSkipsTheProvider() {
+        stubs.get("nominatim").respond(200, MATCH);
+        GeocodingClient client = client(false, 1, 0, 0, 3, 30);
+
+        assertTrue(client.geocode("Pune").isFound());
+        assertThrows(IllegalStateException.class, () -> client.geocode("Mumbai"));
+        assertEquals(1, stubs.get("nominatim").hits());
+        // a skipped provider is not a failing one
+        assertEquals("CLOSED", client.providerStats().get("nominatim"));
+    }
+
+    @Test
+    void slowProviderIsHedgedWithTheNextOne() {
+        stubs.get("locationiq").respond(200, MATCH, 3000);
+        stubs.get("opencage").respond(200, "{\"results\": [{\"geometry\": {\"lat\": 19.07, \"lng\": 72.87}}]}");
+
+        long start = System.currentTimeMillis();
+        GeocodeResult result = client(true, 100, 200, 2000, 3, 30).geocode("Mumbai");
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals("opencage", result.getProvider());
+        assertEquals("19.07", result.getLatitude());
+        assertTrue(elapsed < 2500, "hedge did not fire, took " + elapsed + " ms");
+        assertEquals(0, stubs.get("nominatim").hits());
+    }
+
+    /**
+     * @param keyed configure LocationIQ and OpenCage keys, so all three providers are used
+     */
+    private GeocodingClient client(boolean keyed, double rate, long hedgeDelayMillis, long maxWaitMillis,
+                                   int failureThreshold, long openSeconds) {
+        String base = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        return new GeocodingClient(new ObjectMapper(),
+                keyed ? "test-key" : "", keyed ? "test-key" : "",
+                base + "/locationiq", base + "/opencage", base + "/nominatim",
+                rate, rate, rate,
+                1000, 5000, hedgeDelayMillis, maxWaitMillis,
+                failureThreshold, openSeconds);
+    }
+
+    private static final class Stub {
+
+        private volatile int status = 404;
+        private volatile String body = "{}";
+        private volatile long delayMillis;
+        private final List<Long> times = Collections.synchronizedList(new ArrayList<>());
+
+        void respond(int status, String body) {
+            respond(status, body, 0);
+        }
+
+        void respond(int status, String body, long delayMillis) {
+            this.status = status;
+            this.body = body;
+            this.delayMillis = delayMillis;
+        }
+
+        int hits() {
+            return times.size();
+        }
+
+        List<Long> times() {
+            return new ArrayList<>(times);
+        }
+
+        void handle(HttpExchange exchange) throws IOException {
+            times.add(System.currentTimeMillis());
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
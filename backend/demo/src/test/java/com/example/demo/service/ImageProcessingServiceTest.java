@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImageProcessingServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ImageProcessingService service;
+
+    @BeforeEach
+    void setUp() {
+        // thumbnail 128, display 512, sides 64..2000, at most 2 megapixels
+        service = new ImageProcessingService(128, 512, 64, 2000, 2, 0.8f, 1, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void dimensionsOutsideBoundsAreRejected() {
+        assertNull(service.checkDimensions(800, 600));
+        assertNotNull(service.checkDimensions(63, 600));
+        assertNotNull(service.checkDimensions(800, 2001));
+        assertNotNull(service.checkDimensions(1999, 1999)); // within each side, but over 2 megapixels
+    }
+
+    @Test
+    void nonImageIsRejected() throws IOException {
+        Path text = Files.writeString(dir.resolve("notes.jpg"), "not an image");
+
+        assertThrows(IllegalArgumentException.class, () -> service.process(text));
+    }
+
+    @Test
+    void tooSmallImageIsRejected() throws IOException {
+        Path small = png("small.png", new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB));
+
+        assertThrows(IllegalArgumentException.class, () -> service.process(small));
+    }
+
+    @Test
+    void wideImageFitsDisplaySizeAndThumbnailIsSquare() throws IOException {
+        ImageRenditions renditions = service.process(png("wide.png", new BufferedImage(1600, 800, BufferedImage.TYPE_INT_RGB)));
+
+        assertSize(512, 256, renditions.getDisplay());
+        assertSize(128, 128, renditions.getThumbnail());
+    }
+
+    @Test
+    void tallImageFitsDisplaySizeAndThumbnailIsSquare() throws IOException {
+        ImageRenditions renditions = service.process(png("tall.png", new BufferedImage(800, 1600, BufferedImage.TYPE_INT_RGB)));
+
+        assertSize(256, 512, renditions.getDisplay());
+        assertSize(128, 128, renditions.getThumbnail());
+    }
+
+    @Test
+    void smallImageIsNotEnlarged() {
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage fitted = ImageProcessingService.fit(image, 512);
+
+        assertEquals(300, fitted.getWidth());
+        assertEquals(200, fitted.getHeight());
+        assertEquals(200, ImageProcessingService.squareThumbnail(image, 512).getWidth());
+    }
+
+    @Test
+    void subsamplingKeepsTwiceTheTarget() {
+        assertEquals(1, ImageProcessingService.subsampling(1000, 800, 512));
+        assertEquals(3, ImageProcessingService.subsampling(6000, 4000, 512));
+    }
+
+    @Test
+    void exifOrientationIsReadFromBothByteOrders() {
+        assertEquals(6, ImageProcessingService.exifOrientation(exif(6, true)));
+        assertEquals(8, ImageProcessingService.exifOrientation(exif(8, false)));
+        assertEquals(1, ImageProcessingService.exifOrientation(exif(9, true)));
+        assertEquals(1, ImageProcessingService.exifOrientation("XMP data".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void orientationMovesPixelsUpright() {
+        int w = 3;
+        int h = 2;
+        BufferedImage stored = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                stored.setRGB(x, y, color(x, y));
+            }
+        }
+
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            BufferedImage upright = ImageProcessingService.orient(stored, orientation);
+            boolean swap = orientation >= 5;
+            assertEquals(swap ? h : w, upright.getWidth(), "orientation " + orientation);
+            assertEquals(swap ? w : h, upright.getHeight(), "orientation " + orientation);
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    // where the EXIF spec puts stored pixel (x, y) once the image is upright
+                    int[] target = switch (orientation) {
+                        case 1 -> new int[] {x, y};
+                        case 2 -> new int[] {w - 1 - x, y};
+                        case 3 -> new int[] {w - 1 - x, h - 1 - y};
+                        case 4 -> new int[] {x, h - 1 - y};
+                        case 5 -> new int[] {y, x};
+                        case 6 -> new int[] {h - 1 - y, x};
+                        case 7 -> new int[] {h - 1 - y, w - 1 - x};
+                        default -> new int[] {y, w - 1 - x};
+                    };
+                    assertEquals(color(x, y), upright.getRGB(target[0], target[1]) & 0xFFFFFF,
+                            "orientation " + orientation + ", pixel " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sidewaysPhonePhotoIsStoredUpright() throws IOException {
+        Path photo = jpegWithOrientation("phone.jpg", new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), 6);
+
+        ImageRenditions renditions = service.process(photo);
+
+        assertSize(200, 400, renditions.getDisplay());
+    }
+
+    private Path png(String name, BufferedImage image) throws IOException {
+        Path file = dir.resolve(name);
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    // a JPEG with an EXIF APP1 segment spliced in after the JFIF APP0 segment (which must stay first)
+    private Path jpegWithOrientation(String name, BufferedImage image, int orientation) throws IOException {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", jpeg);
+        byte[] plain = jpeg.toByteArray();
+        byte[] app1 = exif(orientation, false);
+        int afterApp0 = 4 + ((plain[4] & 0xFF) << 8 | (plain[5] & 0xFF));
+
+        ByteBuffer out = ByteBuffer.allocate(plain.length + app1.length + 4);
+        out.put(plain, 0, afterApp0);
+        out.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (app1.length + 2)).put(app1);
+        out.put(plain, afterApp0, plain.length - afterApp0);
+        return Files.write(dir.resolve(name), out.array());
+    }
+
+    // "Exif\0\0", a TIFF header and an IFD0 holding just the orientation tag
+    private static byte[] exif(int orientation, boolean littleEndian) {
+        ByteBuffer b = ByteBuffer.allocate(6 + 8 + 2 + 12 + 4);
+        b.put("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+        b.put(littleEndian ? "II".getBytes(StandardCharsets.US_ASCII) : "MM".getBytes(StandardCharsets.US_ASCII));
+        b.order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        b.putShort((short) 42).putInt(8);
+        b.putShort((short) 1);
+        b.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        b.putInt(0);
+        return b.array();
+    }
+
+    private static void assertSize(int width, int height, Path file) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+    }
+
+    private static int color(int x, int y) {
+        return (x * 80) << 16 | (y * 200) << 8 | 0x40;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalBlobStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private Path root;
+    private LocalBlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = dir.resolve("blobs");
+        store = new LocalBlobStore(root.toString(), "http://localhost:8080/api/files/");
+    }
+
+    @Test
+    void storedFileResolvesUnderRoot() throws IOException {
+        Path source = Files.write(dir.resolve("proof.pdf"), "%PDF-1.4".getBytes(StandardCharsets.UTF_8));
+
+        UploadedFile uploaded = store.put(source, "application/pdf", "lawyers/../aadhar-proof", "C:\\docs\\proof.pdf");
+
+        Path file = store.resolve(uploaded.getStorageKey());
+        assertTrue(file.startsWith(root.toAbsolutePath().normalize()));
+        assertEquals("%PDF-1.4", Files.readString(file));
+        assertEquals(uploaded.getStorageKey(), store.storageKeyOf(uploaded.getUrl()));
+    }
+
+    @Test
+    void keysOutsideRootAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> store.resolve("../secret.txt"));
+        assertThrows(IllegalArgumentException.class, () -> store.resolve("lawyers/../../secret.txt"));
+        assertThrows(IllegalArgumentException.class, () -> store.resolve(dir.resolve("secret.txt").toString()));
+        assertThrows(IllegalArgumentException.class, () -> store.resolve("."));
+        assertThrows(IllegalArgumentException.class, () -> store.resolve(""));
+        assertThrows(IllegalArgumentException.class, () -> store.resolve(null));
+    }
+
+    @Test
+    void uploadsInProgressAreNotResolvable() {
+        assertThrows(IllegalArgumentException.class, () -> store.resolve("lawyers/.upload-123.part"));
+        assertThrows(IllegalArgumentException.class, () -> store.resolve(".upload-123.part"));
+    }
+}
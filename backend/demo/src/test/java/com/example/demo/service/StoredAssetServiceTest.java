@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.StoredAsset;
+import com.example.demo.repository.StoredAssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoredAssetServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final Map<String, StoredAsset> rows = new HashMap<>();
+    private FakeBlobStore blobStore;
+    private AssetCleanupService assetCleanupService;
+    private StoredAssetService service;
+
+    @BeforeEach
+    void setUp() {
+        StoredAssetRepository repository = mock(StoredAssetRepository.class);
+        when(repository.findById(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(rows.get(call.<String>getArgument(0))));
+        // insert only, like the entity's isNew(): a second row for the same hash violates the primary key
+        when(repository.saveAndFlush(any(StoredAsset.class))).thenAnswer(call -> {
+            StoredAsset asset = call.getArgument(0);
+            if (rows.putIfAbsent(asset.getSha256(), asset) != null) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return asset;
+        });
+
+        blobStore = new FakeBlobStore();
+        assetCleanupService = mock(AssetCleanupService.class);
+        when(assetCleanupService.markReused(anyString()))
+                .thenAnswer(call -> rows.containsKey(call.<String>getArgument(0)));
+        service = new StoredAssetService(blobStore, repository, assetCleanupService);
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws IOException {
+        Path first = write("first.pdf", "%PDF-1.4 same bytes");
+        Path second = write("second.pdf", "%PDF-1.4 same bytes");
+
+        StoredAsset a = service.store(first, "application/pdf", "lawyers/aadhar-proof", "first.pdf");
+        StoredAsset b = service.store(second, "application/pdf", "lawyers/bar-certificates", "second.pdf");
+
+        assertEquals(1, blobStore.puts.size());
+        assertEquals(a.getUrl(), b.getUrl());
+        assertEquals(Files.size(second), service.stats().get("bytesSaved"));
+        assertEquals(1L, service.stats().get("hits"));
+    }
+
+    @Test
+    void differentContentIsStoredSeparately() throws IOException {
+        StoredAsset a = service.store(write("a.pdf", "one"), "application/pdf", "cases", "a.pdf");
+        StoredAsset b = service.store(write("b.pdf", "two"), "application/pdf", "cases", "b.pdf");
+
+        assertEquals(2, blobStore.puts.size());
+        assertNotEquals(a.getUrl(), b.getUrl());
+        assertEquals(0L, service.stats().get("bytesSaved"));
+    }
+
+    @Test
+    void concurrentUploadLoserReturnsWinnerAndQueuesItsCopy() throws IOException {
+        Path file = write("race.pdf", "%PDF-1.4 raced");
+        String sha256 = StoredAssetService.sha256(file);
+        StoredAsset winner = new StoredAsset(sha256, "https://blobs.test/winner.pdf", "winner.pdf",
+                "application/pdf", Files.size(file));
+        // the other upload records its row while this one is transferring
+        blobStore.beforePut = () -> rows.put(sha256, winner);
+
+        StoredAsset stored = service.store(file, "application/pdf", "cases", "race.pdf");
+
+        assertEquals(winner.getUrl(), stored.getUrl());
+        assertEquals(winner.getUrl(), rows.get(sha256).getUrl());
+        verify(assetCleanupService).enqueue("https://blobs.test/cases/0-race.pdf", "cases/0-race.pdf",
+                "application/pdf", "duplicate-upload");
+    }
+
+    @Test
+    void assetForgottenByCleanupIsStoredAgain() throws IOException {
+        Path first = write("first.pdf", "%PDF-1.4 same bytes");
+        Path second = write("second.pdf", "%PDF-1.4 same bytes");
+        StoredAsset a = service.store(first, "application/pdf", "lawyers/aadhar-proof", "first.pdf");
+        // cleanup deletes the row after this upload has looked it up
+        when(assetCleanupService.markReused(a.getSha256())).thenAnswer(call -> rows.remove(a.getSha256()) == null);
+
+        StoredAsset b = service.store(second, "application/pdf", "lawyers/aadhar-proof", "second.pdf");
+
+        assertEquals(2, blobStore.puts.size());
+        assertNotEquals(a.getUrl(), b.getUrl());
+        assertEquals(b.getUrl(), rows.get(b.getSha256()).getUrl());
+    }
+
+    @Test
+    void keyIsSha256OfContent() throws IOException {
+        StoredAsset asset = service.store(write("abc.txt", "abc"), "application/pdf", "cases", "abc.txt");
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", asset.getSha256());
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class FakeBlobStore implements BlobStore {
+
+        private final List<String> puts = new ArrayList<>();
+        private Runnable beforePut = () -> { };
+
+        @Override
+        public UploadedFile put(Path file, String contentType, String folder, String filename) {
+            beforePut.run();
+            String key = folder + "/" + puts.size() + "-" + filename;
+            puts.add(key);
+            return new UploadedFile("https://blobs.test/" + key, key);
+        }
+
+        @Override
+        public boolean delete(String storageKey, String contentType) {
+            return puts.remove(storageKey);
+        }
+
+        @Override
+        public String storageKeyOf(String url) {
+            return url.startsWith("https://blobs.test/") ? url.substring("https://blobs.test/".length()) : null;
+        }
+
+        @Override
+        public String name() {
+            return "fake";
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CapacitatedAssignmentTest {
+
+    private static final int INSTANCES = 2000;
+
+    @Test
+    void fillsSpareCapacityDirectly() {
+        CapacitatedAssignment assignment = new CapacitatedAssignment(new int[] {1, 1});
+        int a = assignment.add(new int[] {0, 1}, new long[] {1, 5}, 100);
+        int b = assignment.add(new int[] {1}, new long[] {2}, 100);
+
+        assertEquals(0, assignment.workerOf(a));
+        assertEquals(1, assignment.workerOf(b));
+        assertEquals(3, assignment.totalCost());
+    }
+
+    @Test
+    void reassignsEarlierTaskToMakeRoom() {
+        // greedy would keep task a on worker 0 and leave b unassigned
+        CapacitatedAssignment assignment = new CapacitatedAssignment(new int[] {1, 1});
+        int a = assignment.add(new int[] {0, 1}, new long[] {1, 2}, 100);
+        int b = assignment.add(new int[] {0}, new long[] {1}, 100);
+
+        assertEquals(1, assignment.workerOf(a));
+        assertEquals(0, assignment.workerOf(b));
+        assertEquals(3, assignment.totalCost());
+    }
+
+    @Test
+    void zeroCapacityWorkerIsNeverUsed() {
+        CapacitatedAssignment assignment = new CapacitatedAssignment(new int[] {0, -1});
+        int a = assignment.add(new int[] {0, 1}, new long[] {1, 1}, 7);
+
+        assertEquals(-1, assignment.workerOf(a));
+        assertEquals(7, assignment.totalCost());
+    }
+
+    @Test
+    void matchesExhaustiveSearchOnRandomInstances() {
+        Random random = new Random(42);
+        for (int i = 0; i < INSTANCES; i++) {
+            Instance instance = Instance.random(random);
+            List<Integer> order = new ArrayList<>();
+            for (int t = 0; t < instance.tasks(); t++) {
+                order.add(t);
+            }
+            long expected = bruteForce(instance);
+
+            // the optimum must not depend on the order tasks arrive in
+            for (int shuffle = 0; shuffle < 3; shuffle++) {
+                Collections.shuffle(order, random);
+                CapacitatedAssignment assignment = new CapacitatedAssignment(instance.capacity);
+                int[] taskOf = new int[instance.tasks()];
+                for (int t : order) {
+                    taskOf[t] = assignment.add(instance.workers[t], instance.costs[t], instance.unassigned[t]);
+                }
+
+                String context = "instance " + i + ", order " + order;
+                assertEquals(expected, assignment.totalCost(), context);
+                assertEquals(expected, costOf(instance, assignment, taskOf), context);
+                assertFeasible(instance, assignment, taskOf, context);
+            }
+        }
+    }
+
+    // recomputes the cost from workerOf, so totalCost cannot drift from the actual assignment
+    private static long costOf(Instance instance, CapacitatedAssignment assignment, int[] taskOf) {
+        long cost = 0;
+        for (int t = 0; t < instance.tasks(); t++) {
+            int worker = assignment.workerOf(taskOf[t]);
+            cost += worker < 0 ? instance.unassigned[t] : instance.costOf(t, worker);
+        }
+        return cost;
+    }
+
+    private static void assertFeasible(Instance instance, CapacitatedAssignment assignment, int[] taskOf,
+                                       String context) {
+        int[] used = new int[instance.capacity.length];
+        for (int t = 0; t < instance.tasks(); t++) {
+            int worker = assignment.workerOf(taskOf[t]);
+            if (worker >= 0) {
+                assertTrue(instance.costOf(t, worker) != Long.MAX_VALUE, context + ": task " + t + " has no edge to " + worker);
+                used[worker]++;
+            }
+        }
+        for (int w = 0; w < used.length; w++) {
+            assertTrue(used[w] <= Math.max(instance.capacity[w], 0), context + ": worker " + w + " over capacity");
+        }
+    }
+
+    private static long bruteForce(Instance instance) {
+        return search(instance, 0, new int[instance.capacity.length]);
+    }
+
+    private static long search(Instance instance, int task, int[] used) {
+        if (task == instance.tasks()) {
+            return 0;
+        }
+        long best = instance.unassigned[task] + search(instance, task + 1, used);
+        int[] workers = instance.workers[task];
+        for (int e = 0; e < workers.length; e++) {
+            int w = workers[e];
+            if (used[w] < Math.max(instance.capacity[w], 0)) {
+                used[w]++;
+                best = Math.min(best, instance.costs[task][e] + search(instance, task + 1, used));
+                used[w]--;
+            }
+        }
+        return best;
+    }
+
+    private record Instance(int[] capacity, int[][] workers, long[][] costs, long[] unassigned) {
+
+        static Instance random(Random random) {
+            int workerCount = 1 + random.nextInt(4);
+            int taskCount = 1 + random.nextInt(7);
+            int[] capacity = new int[workerCount];
+            for (int w = 0; w < workerCount; w++) {
+                capacity[w] = random.nextInt(3); // includes zero-capacity workers
+            }
+            int[][] workers = new int[taskCount][];
+            long[][] costs = new long[taskCount][];
+            long[] unassigned = new long[taskCount];
+            for (int t = 0; t < taskCount; t++) {
+                List<Integer> candidates = new ArrayList<>();
+                for (int w = 0; w < workerCount; w++) {
+                    if (random.nextInt(3) > 0) {
+                        candidates.add(w);
+                    }
+                }
+                workers[t] = candidates.stream().mapToInt(Integer::intValue).toArray();
+                costs[t] = new long[workers[t].length];
+                for (int e = 0; e < costs[t].length; e++) {
+                    costs[t][e] = random.nextInt(20);
+                }
+                // sometimes cheaper than assigning, so leaving a task out can be optimal
+                unassigned[t] = random.nextBoolean() ? 1000 : random.nextInt(25);
+            }
+            return new Instance(capacity, workers, costs, unassigned);
+        }
+
+        int tasks() {
+            return workers.length;
+        }
+
+        long costOf(int task, int worker) {
+            for (int e = 0; e < workers[task].length; e++) {
+                if (workers[task][e] == worker) {
+                    return costs[task][e];
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
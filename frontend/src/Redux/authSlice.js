@@ -15,6 +15,9 @@ export const loginUser = createAsyncThunk(
       if (response.data && response.data.token) {
         // Store token and essential data in localStorage
         localStorage.setItem("accessToken", response.data.token);
+        if (response.data.refreshToken) {
+          localStorage.setItem("refreshToken", response.data.refreshToken);
+        }
         localStorage.setItem("email", response.data.email || credentials.username);
         localStorage.setItem("username", response.data.username || "");
         localStorage.setItem("role", response.data.role || credentials.role);
@@ -31,6 +34,7 @@ export const loginUser = createAsyncThunk(
         
         // Get profilePhotoUrl from userData or top level of response
         const profilePhotoUrl = userData.profilePhotoUrl || response.data.profilePhotoUrl || null;
+        const profilePhotoThumbnailUrl = userData.profilePhotoThumbnailUrl || null;
         console.log("Extracted profilePhotoUrl:", profilePhotoUrl);
         
         return {
@@ -56,6 +60,7 @@ export const loginUser = createAsyncThunk(
             city: userData.city || null,
             address: userData.address || null,
             photoUrl: profilePhotoUrl, // Use extracted profilePhotoUrl
+            photoThumbnailUrl: profilePhotoThumbnailUrl,
             role: response.data.role || credentials.role,
           },
         };
@@ -101,6 +106,12 @@ export const logoutUser = createAsyncThunk(
   "auth/logoutUser",
   async (_, { rejectWithValue }) => {
     try {
+      // Revoke the tokens server-side; logging out locally must not depend on it
+      const refreshToken = localStorage.getItem("refreshToken");
+      await axiosClient
+        .post("/auth/logout", { refreshToken }, { _silent: true })
+        .catch(() => {});
+
       // Clear localStorage
       localStorage.removeItem("accessToken");
       localStorage.removeItem("refreshToken");
@@ -143,6 +154,7 @@ const initialState = {
     city: null,
     address: null,
     photoUrl: null,
+    photoThumbnailUrl: null,
     role: null,
   },
   
@@ -207,6 +219,7 @@ const authSlice = createSlice({
             city: action.payload.userData.city || null,
             address: action.payload.userData.address || null,
             photoUrl: action.payload.userData.photoUrl || null,
+            photoThumbnailUrl: action.payload.userData.photoThumbnailUrl || null,
             role: action.payload.userData.role || action.payload.role || null,
           };
         }
@@ -246,6 +259,7 @@ const authSlice = createSlice({
           city: action.payload.city || null,
           address: action.payload.address || null,
           photoUrl: action.payload.photoUrl || null,
+          photoThumbnailUrl: action.payload.photoThumbnailUrl || null,
           role: action.payload.role || null,
         };
         state.error = null;
@@ -283,6 +297,7 @@ const authSlice = createSlice({
           city: null,
           address: null,
           photoUrl: null,
+          photoThumbnailUrl: null,
           role: null,
         };
         state.error = null;
@@ -23,6 +23,12 @@ axiosClient.interceptors.response.use(
         
         // Don't redirect for login endpoint - let the login form handle the error
         const isLoginEndpoint = original.url && original.url.includes('/auth/login');
+
+        // Never refresh-and-retry logout or refresh itself: a refresh would rotate the
+        // refresh token, and the retried logout would revoke the old one while the new
+        // one stayed valid. Logout works with the refresh token in the body alone.
+        const isTokenEndpoint = original.url &&
+            (original.url.includes('/auth/logout') || original.url.includes('/auth/refresh'));
         
         // Don't redirect for profile check requests (silent auth checks)
         const isProfileCheck = original.url && original.url.includes('/profile/me');
@@ -36,32 +42,34 @@ axiosClient.interceptors.response.use(
         // Don't redirect if we're on the home page (public route)
         const isOnHomePage = window.location.pathname === '/' || window.location.pathname === '';
         
-        if (err.response && err.response.status === 401 && !original._retry && !isLoginEndpoint && !isOnLoginPage && !isSilentRequest && !isOnHomePage) {
+        // Access tokens are short-lived: try one refresh before giving up,
+        // including for silent requests (they just never redirect)
+        const canRedirect = !isOnLoginPage && !isSilentRequest && !isOnHomePage;
+        
+        if (err.response && err.response.status === 401 && !original._retry && !isLoginEndpoint && !isTokenEndpoint && !isOnLoginPage) {
             original._retry = true;
-            try {
-                const refreshToken = localStorage.getItem("refreshToken");
-                if (!refreshToken) {
-                    localStorage.clear();
-                    // Only redirect if not already on login or home page
-                    if (!isOnLoginPage && !isOnHomePage) {
+            const refreshToken = localStorage.getItem("refreshToken");
+            if (refreshToken) {
+                try {
+                    const resp = await axios.post(`${API_BASE}/auth/refresh`, { refreshToken });
+                    const { accessToken, refreshToken: newRefresh } = resp.data;
+                    localStorage.setItem("accessToken", accessToken);
+                    if (newRefresh) localStorage.setItem("refreshToken", newRefresh);
+                    original.headers.Authorization = `Bearer ${accessToken}`;
+                    return axios(original);
+                } catch (refreshErr) {
+                    if (canRedirect) {
+                        localStorage.clear();
                         window.location.href = "/login";
                     }
-                    return Promise.reject(err);
+                    return Promise.reject(refreshErr);
                 }
-                const resp = await axios.post(`${API_BASE}/auth/refresh`, { refreshToken });
-                const { accessToken, refreshToken: newRefresh } = resp.data;
-                localStorage.setItem("accessToken", accessToken);
-                if (newRefresh) localStorage.setItem("refreshToken", newRefresh);
-                original.headers.Authorization = `Bearer ${accessToken}`;
-                return axios(original);
-            } catch (refreshErr) {
+            }
+            if (canRedirect) {
                 localStorage.clear();
-                // Only redirect if not already on login or home page
-                if (!isOnLoginPage && !isOnHomePage) {
-                    window.location.href = "/login";
-                }
-                return Promise.reject(refreshErr);
+                window.location.href = "/login";
             }
+            return Promise.reject(err);
         }
         // For login endpoint errors, silent requests, or if already on login/home page, just reject without redirecting
         return Promise.reject(err);
@@ -7,14 +7,24 @@ export const saveStep = async (step, formData, caseId = null) => {
     return axiosClient.post("/cases/save-step", payload);
 };
 
+// Autosave changed fields of a draft (buffered server-side unless flush is set)
+export const patchDraft = async (caseId, fields, flush = false) => {
+    return axiosClient.patch(`/cases/${caseId}/draft`, fields, {
+        params: flush ? { flush: true } : undefined,
+        _silent: true,
+    });
+};
+
 // Submit final case
 export const submitCase = async (caseId = null) => {
     return axiosClient.post("/cases/submit", { caseId });
 };
 
-// Get all cases for user
-export const getMyCases = async () => {
-    return axiosClient.get("/cases/my-cases");
+// Get one page of the user's cases (summaries); pass the previous nextCursor for more
+export const getMyCases = async (cursor = null, size = 20) => {
+    return axiosClient.get("/cases/my-cases", {
+        params: cursor ? { cursor, size } : { size },
+    });
 };
 
 // Get draft case
@@ -32,6 +42,11 @@ export const getCaseById = async (id) => {
     return axiosClient.get(`/cases/${id}`);
 };
 
+// Get the documents attached to a case
+export const getCaseDocuments = async (id) => {
+    return axiosClient.get(`/cases/${id}/documents`);
+};
+
 // Upload documents (max 2MB each)
 export const uploadDocuments = async (caseId, files) => {
     const formData = new FormData();
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import { useDispatch, useSelector } from "react-redux";
 import { toast } from "react-toastify";
 import {
@@ -10,6 +10,7 @@ import {
   setStep as setStepAction,
   setSaveStatus
 } from "../../Redux/caseSlice";
+import { patchDraft } from "../../api/caseApi";
 
 /* ---------------- STEPS ---------------- */
 
@@ -39,6 +40,31 @@ export default function CaseFilingForm() {
     dispatch(fetchDraftCase());
   }, [dispatch]);
 
+  // Autosave: after a pause in typing, send only the fields that changed since the last save
+  const lastSaved = useRef(null);
+  useEffect(() => {
+    lastSaved.current = caseId ? { ...form } : null;
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [caseId]);
+
+  useEffect(() => {
+    if (!caseId || !lastSaved.current) return;
+    const timer = setTimeout(() => {
+      const changed = {};
+      Object.keys(form).forEach((k) => {
+        if (k !== "documents" && k !== "confirm" && form[k] !== lastSaved.current[k]) {
+          changed[k] = form[k];
+        }
+      });
+      if (Object.keys(changed).length === 0) return;
+      lastSaved.current = { ...lastSaved.current, ...changed };
+      patchDraft(caseId, changed).catch(() => {
+        // next step save sends these fields again
+      });
+    }, 1000);
+    return () => clearTimeout(timer);
+  }, [form, caseId]);
+
   // Clear save status after 2 seconds
   useEffect(() => {
     if (saveStatus === "Saved!" || saveStatus === "Submitted!") {
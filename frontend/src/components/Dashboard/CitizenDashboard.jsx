@@ -232,7 +232,7 @@ export default function CitizenDashboard() {
             <div className="w-10 h-10 bg-gray-200 rounded-full flex items-center justify-center overflow-hidden border-2 border-gray-300">
               {profile.photoUrl ? (
                 <img
-                  src={profile.photoUrl}
+                  src={reduxProfile?.photoThumbnailUrl || profile.photoUrl}
                   alt={profile.shortName || profile.fullName || "User"}
                   className="w-full h-full object-cover"
                 />
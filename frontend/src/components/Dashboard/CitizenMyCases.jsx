@@ -1,11 +1,13 @@
 import React, { useState, useEffect } from "react";
-import { getMyCases, updateCaseStatus } from "../../api/caseApi";
+import { getMyCases, getCaseById, getCaseDocuments, updateCaseStatus } from "../../api/caseApi";
 import { FiFileText, FiUser, FiAlertCircle, FiMapPin, FiCalendar, FiEye, FiX, FiClock, FiDownload, FiCheck, FiRefreshCw, FiMessageSquare, FiSearch } from "react-icons/fi";
 
 export default function CitizenMyCases() {
   const [cases, setCases] = useState([]);
   const [loading, setLoading] = useState(true);
   const [selectedCase, setSelectedCase] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   // Download PDF from Cloudinary raw URL
   const downloadPdf = async (url, filename = "document.pdf") => {
@@ -40,7 +42,8 @@ export default function CitizenMyCases() {
     const fetchCases = async () => {
       try {
         const res = await getMyCases();
-        setCases(res.data || []);
+        setCases(res.data?.content || []);
+        setNextCursor(res.data?.nextCursor || null);
       } catch (err) {
         console.error("Error fetching cases:", err);
       } finally {
@@ -50,6 +53,31 @@ export default function CitizenMyCases() {
     fetchCases();
   }, []);
 
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const res = await getMyCases(nextCursor);
+      setCases((prev) => [...prev, ...(res.data?.content || [])]);
+      setNextCursor(res.data?.nextCursor || null);
+    } catch (err) {
+      console.error("Error fetching cases:", err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  // The list only carries summaries; load the full case and its documents when its details are opened
+  const openDetails = async (c) => {
+    setSelectedCase(c);
+    try {
+      const [res, docs] = await Promise.all([getCaseById(c.id), getCaseDocuments(c.id)]);
+      setSelectedCase({ ...res.data, documents: docs.data });
+    } catch (err) {
+      console.error("Error fetching case:", err);
+    }
+  };
+
   const getStatusColor = (status) => {
     switch (status?.toUpperCase()) {
       case "SUBMITTED":
@@ -111,7 +139,7 @@ export default function CitizenMyCases() {
         <div className="mt-4 flex items-center gap-4">
           <div className="bg-white/10 rounded-lg px-4 py-2">
             <span className="text-white text-sm">Total Cases: </span>
-            <span className="text-white font-bold">{cases.length}</span>
+            <span className="text-white font-bold">{cases.length}{nextCursor ? "+" : ""}</span>
           </div>
         </div>
       </div>
@@ -194,9 +222,9 @@ export default function CitizenMyCases() {
                     </span>
                   </div>
                   <div className="flex items-center gap-2">
-                    {c.documentsUrl && (
+                    {c.firstDocumentUrl && (
                       <button
-                        onClick={() => downloadPdf(c.documentsUrl.split(",")[0], `case_${c.caseNumber || c.id}_document.pdf`)}
+                        onClick={() => downloadPdf(c.firstDocumentUrl, `case_${c.caseNumber || c.id}_document.pdf`)}
                         className="p-2 text-[#234f4a] bg-[#234f4a]/10 rounded-lg hover:bg-[#234f4a]/20 active:scale-95 transition-all cursor-pointer"
                         title="Download Document"
                       >
@@ -244,7 +272,7 @@ export default function CitizenMyCases() {
                       <span className="hidden md:inline text-sm font-medium">{c.status === "COMPLETED" ? "Completed" : "Pending"}</span>
                     </button>
                     <button
-                      onClick={() => setSelectedCase(c)}
+                      onClick={() => openDetails(c)}
                       className="p-2 text-white bg-[#234f4a] rounded-lg hover:bg-[#1b3d3a] active:scale-95 transition-all cursor-pointer"
                       title="View Details"
                     >
@@ -255,6 +283,17 @@ export default function CitizenMyCases() {
               </div>
             </div>
           ))}
+          {nextCursor && (
+            <div className="flex justify-center pt-2">
+              <button
+                onClick={loadMore}
+                disabled={loadingMore}
+                className="px-5 py-2 text-sm font-medium text-[#234f4a] bg-white border border-[#234f4a]/30 rounded-lg hover:bg-[#234f4a]/5 active:scale-95 transition-all cursor-pointer disabled:opacity-50"
+              >
+                {loadingMore ? "Loading..." : "Load more cases"}
+              </button>
+            </div>
+          )}
         </div>
       )}
 
@@ -346,18 +385,18 @@ export default function CitizenMyCases() {
               )}
 
               {/* Documents */}
-              {selectedCase.documentsUrl && (
+              {selectedCase.documents?.length > 0 && (
                 <div className="mt-6">
                   <h4 className="font-bold text-[#234f4a] border-b pb-2 mb-3">Documents</h4>
                   <div className="flex flex-wrap gap-2">
-                    {selectedCase.documentsUrl.split(",").map((url, idx) => (
+                    {selectedCase.documents.map((doc, idx) => (
                       <button
-                        key={idx}
-                        onClick={() => downloadPdf(url.trim(), `case_${selectedCase.caseNumber || selectedCase.id}_document_${idx + 1}.pdf`)}
+                        key={doc.id}
+                        onClick={() => downloadPdf(doc.url, doc.filename || `case_${selectedCase.caseNumber || selectedCase.id}_document_${idx + 1}.pdf`)}
                         className="inline-flex items-center gap-2 px-4 py-2 bg-[#234f4a] text-white rounded-lg text-sm hover:bg-[#1b3f3b] transition"
                       >
                         <FiDownload className="w-4 h-4" />
-                        Document {idx + 1}
+                        {doc.filename || `Document ${idx + 1}`}
                       </button>
                     ))}
                   </div>
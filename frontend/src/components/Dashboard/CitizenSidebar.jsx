@@ -45,6 +45,7 @@ export default function CitizenSidebar({
           "",
         fullName: reduxProfile.fullName || propProfile?.fullName || "",
         photoUrl: reduxProfile.photoUrl || propProfile?.photoUrl || null,
+        photoThumbnailUrl: reduxProfile.photoThumbnailUrl || null,
       }
       : propProfile || {
         shortName: "",
@@ -121,7 +122,7 @@ export default function CitizenSidebar({
         <div className="w-10 h-10 bg-teal-700 rounded-full flex items-center justify-center font-semibold overflow-hidden border-2 border-teal-600">
           {profile.photoUrl ? (
             <img
-              src={profile.photoUrl}
+              src={profile.photoThumbnailUrl || profile.photoUrl}
               alt={profile.shortName || "User"}
               className="w-full h-full object-cover"
             />
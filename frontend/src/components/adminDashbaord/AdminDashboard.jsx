@@ -108,6 +108,7 @@ export default function AdminDashboard() {
     fullName: reduxProfile?.fullName || adminProfile.fullName || "Admin User",
     shortName: reduxProfile?.shortName || reduxProfile?.fullName?.split(" ")[0] || adminProfile.shortName || adminProfile.fullName?.split(" ")[0] || "Admin",
     photoUrl: reduxProfile?.photoUrl || adminProfile.photoUrl || null,
+    photoThumbnailUrl: reduxProfile?.photoThumbnailUrl || null,
   };
 
   const getPageTitle = () => {
@@ -189,7 +190,7 @@ export default function AdminDashboard() {
             <div className="w-10 h-10 bg-[#BEC0C2] rounded-full flex items-center justify-center overflow-hidden border-2 border-[#AAAAAA]">
               {profile.photoUrl ? (
                 <img
-                  src={profile.photoUrl}
+                  src={profile.photoThumbnailUrl || profile.photoUrl}
                   alt={profile.fullName || "Admin"}
                   className="w-full h-full object-cover"
                 />